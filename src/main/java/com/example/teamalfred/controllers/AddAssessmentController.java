@@ -1,16 +1,18 @@
 package com.example.teamalfred.controllers;
 
 import com.example.teamalfred.database.Assessment;
+import com.example.teamalfred.database.AsyncDao;
 import com.example.teamalfred.database.SqliteAssessmentDAO;
+import com.example.teamalfred.database.SqliteSubjectDAO;
 import com.example.teamalfred.database.Student;
+import com.example.teamalfred.database.Subject;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Controller for adding a new assessment to a specific student.
@@ -26,6 +28,8 @@ public class AddAssessmentController {
 
     // DAO to interact with the assessment database
     private final SqliteAssessmentDAO dao;
+    private final SqliteSubjectDAO subjectDAO = new SqliteSubjectDAO();
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
 
     // The student to whom the new assessment will be assigned
     private Student selectedStudent;
@@ -40,19 +44,25 @@ public class AddAssessmentController {
     }
 
     /**
-     * Initializes combo boxes with predefined values for type and subject.
+     * Initializes combo boxes with the assessment types and, once read in the background,
+     * the subjects from the database.
      */
     @FXML
     public void initialize() {
         typeComboBox.setItems(FXCollections.observableArrayList("Report", "Exam", "Quiz"));
-        subjectComboBox.setItems(FXCollections.observableArrayList(
-                "English", "Maths", "Science", "History", "Geography", "Health", "Art", "Technology", "PE"
-        ));
+        asyncDao.fetch(subjectDAO::getAllSubjects)
+                .thenAccept(subjects -> subjectComboBox.setItems(FXCollections.observableArrayList(
+                        subjects.stream().map(Subject::getName).toList())))
+                .exceptionally(e -> {
+                    AsyncDao.unwrap(e).printStackTrace();
+                    showAlert("Failed to load subjects.");
+                    return null;
+                });
     }
 
     /**
-     * Handles the submission of the assessment form. Validates inputs,
-     * calculates status, and inserts the assessment into the database.
+     * Handles the submission of the assessment form. Validates inputs
+     * and inserts the assessment into the database.
      */
     @FXML
     private void handleSubmit() {
@@ -84,25 +94,11 @@ public class AddAssessmentController {
         }
 
         try {
-            // Determine the assessment status based on the due date
-            LocalDate today = LocalDate.now();
-            long daysLate = ChronoUnit.DAYS.between(due, today);
-            String status;
-
-            if (today.isBefore(due)) {
-                status = "Due";
-            } else if (daysLate <= 2) {
-                status = "Overdue";
-            } else {
-                status = "Closed";
-            }
-
-            // Format the due date as a string
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            String formattedDueDate = due.format(formatter);
+            // Due dates are stored as ISO yyyy-MM-dd
+            String formattedDueDate = due.toString();
 
             // Create assessment object and insert into DB
-            Assessment newAssessment = new Assessment(title, subject, formattedDueDate, status, type);
+            Assessment newAssessment = new Assessment(title, subject, formattedDueDate, type);
             newAssessment.setStudentId(selectedStudent.getId());
             dao.insertAssessment(newAssessment);
 
@@ -1,6 +1,10 @@
 package com.example.teamalfred.controllers;
 
+import com.example.teamalfred.database.AsyncDao;
 import com.example.teamalfred.database.SqliteAssessmentDAO;
+import com.example.teamalfred.database.SqliteSubjectDAO;
+import com.example.teamalfred.database.Subject;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -10,8 +14,6 @@ import javafx.stage.Stage;
 import javafx.scene.control.TextField;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Controller for adding a new assessment to an entire subject.
@@ -25,8 +27,10 @@ public class AddAssessmentToSubjectController {
     @FXML private ComboBox<String> subjectComboBox;
     @FXML private DatePicker dueDatePicker;
 
-    // DAO for database operations
+    // DAOs for database operations
     private final SqliteAssessmentDAO dao;
+    private final SqliteSubjectDAO subjectDAO = new SqliteSubjectDAO();
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
 
     /**
      * Constructor that initializes the assessment DAO and handles SQL exceptions.
@@ -37,19 +41,25 @@ public class AddAssessmentToSubjectController {
     }
 
     /**
-     * Initializes combo box values for type and subject.
+     * Initializes combo box values for type and subject. Subjects are read from the subjects
+     * table in the background.
      */
     @FXML
     public void initialize() {
         typeComboBox.setItems(FXCollections.observableArrayList("Report", "Exam", "Quiz"));
-        subjectComboBox.setItems(FXCollections.observableArrayList(
-                "English", "Maths", "Science", "History", "Geography", "Health", "Art", "Technology", "PE"
-        ));
+        asyncDao.fetch(subjectDAO::getAllSubjects)
+                .thenAccept(subjects -> subjectComboBox.setItems(FXCollections.observableArrayList(
+                        subjects.stream().map(Subject::getName).toList())))
+                .exceptionally(e -> {
+                    AsyncDao.unwrap(e).printStackTrace();
+                    showAlert("Failed to load subjects.");
+                    return null;
+                });
     }
 
     /**
-     * Handles the submit button action. Validates input, calculates assessment status,
-     * formats the date, and attempts to insert the assessment into the database.
+     * Handles the submit button action. Validates input, formats the date, and attempts
+     * to insert the assessment into the database. Status is derived when it is read.
      */
     @FXML
     private void handleSubmit() {
@@ -64,21 +74,12 @@ public class AddAssessmentToSubjectController {
             return;
         }
 
-        // Determine status based on due date
-        String status;
-        LocalDate today = LocalDate.now();
-        long daysLate = ChronoUnit.DAYS.between(due, today);
-
-        if (today.isBefore(due)) status = "Due";
-        else if (daysLate <= 2) status = "Overdue";
-        else status = "Closed";
-
-        // Format due date for storage
-        String formattedDate = due.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        // Due dates are stored as ISO yyyy-MM-dd
+        String formattedDate = due.toString();
 
         try {
             // Insert the assessment into the database
-            dao.insertAssessmentForSubject(title, subject, formattedDate, status, type);
+            dao.insertAssessmentForSubject(title, subject, formattedDate, type);
 
             // Close the window after successful insertion
             Stage stage = (Stage) titleField.getScene().getWindow();
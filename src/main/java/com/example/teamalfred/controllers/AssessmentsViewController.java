@@ -1,9 +1,13 @@
 package com.example.teamalfred.controllers;
 
 import com.example.teamalfred.database.*;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.fxml.FXMLLoader;
@@ -11,14 +15,28 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
+import javafx.scene.layout.GridPane;
+import javafx.scene.paint.Color;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Controller class for the Assessments View.
@@ -37,6 +55,7 @@ public class AssessmentsViewController {
     // UI for subject and student display
     @FXML private ListView<String> subjectListView;
     @FXML private Label studentsLabel;
+    @FXML private TextField studentSearchField;
     @FXML private TableView<Student> studentsTable;
     @FXML private TableColumn<Student, String> studentNameColumn;
     @FXML private TableColumn<Student, String> emailColumn;
@@ -51,13 +70,39 @@ public class AssessmentsViewController {
     // Table column to add assessments to individual students
     @FXML private TableColumn<Student, Void> addAssessmentColumn;
 
+    // Due-date calendar
+    @FXML private Label calendarMonthLabel;
+    @FXML private GridPane calendarGrid;
+    @FXML private ListView<String> calendarDayList;
+
     // Data lists
-    private ObservableList<Student> studentsInSubject;
-    private ObservableList<Assessment> masterData;
+    private final ObservableList<Student> studentsInSubject = FXCollections.observableArrayList();
+    private final ObservableList<Assessment> studentAssessments = FXCollections.observableArrayList();
+    private int shownStudentId = -1;
+    private ChangeBus.Subscription changes;
+
+    // Students of the selected subject are loaded a page at a time as the table is scrolled
+    private static final int STUDENT_PAGE_SIZE = 200;
+    private String pagedSubject;
+    private int lastStudentId;
+    private boolean morePages;
+    private boolean loadingPage;
+
+    // Searches run once typing pauses for SEARCH_DELAY
+    private static final int STUDENT_SEARCH_LIMIT = 100;
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+
+    // Due dates are stored as yyyy-MM-dd and shown as dd/MM/yyyy
+    private static final DateTimeFormatter DUE_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MMMM yyyy");
+    private YearMonth visibleMonth = YearMonth.now();
 
     // DAO instances to interact with database
     private final SqliteAssessmentDAO dao = new SqliteAssessmentDAO();
     private final StudentDAO studentDAO = new SqliteStudentDAO();
+    private final SubjectDAO subjectDAO = new SqliteSubjectDAO();
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
 
     /**
      * Constructor that handles SQLException thrown by DAO initializations.
@@ -69,26 +114,37 @@ public class AssessmentsViewController {
      */
     @FXML
     public void initialize() {
-        ObservableList<String> subjects = FXCollections.observableArrayList(
-                "English", "Maths", "Science", "History", "Geography", "Health", "Art", "Technology", "PE"
-        );
-
-        subjectListView.setItems(subjects);
+        asyncDao.fetch(subjectDAO::getAllSubjects)
+                .thenAccept(subjects -> subjectListView.setItems(FXCollections.observableArrayList(
+                        subjects.stream().map(Subject::getName).toList())))
+                .exceptionally(e -> handleFailure(e, "Error loading subjects: "));
 
         studentNameColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getFullName()));
         emailColumn.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getEmail()));
 
         assessmentTitleColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getTitle()));
         assessmentSubjectColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getSubject()));
-        assessmentDueColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getDueDate()));
+        assessmentDueColumn.setCellValueFactory(cell -> new SimpleStringProperty(formatDueDate(cell.getValue().getDueDate())));
         assessmentStatusColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getStatus()));
 
         subjectListView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null) {
+                studentSearchField.clear();
+                searchDelay.stop();
                 loadStudentsForSubject(newVal);
             }
         });
 
+        showMonth(visibleMonth);
+
+        searchDelay.setOnFinished(e -> searchStudents(studentSearchField.getText().trim()));
+        studentSearchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+
+        studentsTable.setItems(studentsInSubject);
+        assessmentsTable.setItems(studentAssessments);
+        listenForChanges();
+        studentsTable.skinProperty().addListener((obs, oldSkin, newSkin) -> loadMoreWhenScrolledToEnd());
+
         studentsTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
                 loadAssessmentsForStudent(newSelection.getId());
@@ -129,7 +185,7 @@ public class AssessmentsViewController {
             stage.setScene(new Scene(root));
             stage.initModality(Modality.APPLICATION_MODAL);
             stage.setResizable(false);
-            stage.show();
+            stage.showAndWait();
         } catch (IOException e) {
             e.printStackTrace();
             showAlert("Could not open popup.");
@@ -155,14 +211,12 @@ public class AssessmentsViewController {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    dao.deleteAssessmentsBySubject(selectedSubject);
-                    showAlert("All assessments for '" + selectedSubject + "' have been deleted.");
-                    assessmentsTable.getItems().clear();
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                    showAlert("Error deleting assessments: " + e.getMessage());
-                }
+                asyncDao.write(() -> {
+                            dao.deleteAssessmentsBySubject(selectedSubject);
+                            return selectedSubject;
+                        })
+                        .thenAccept(subject -> showAlert("All assessments for '" + subject + "' have been deleted."))
+                        .exceptionally(e -> handleFailure(e, "Error deleting assessments: "));
             }
         });
     }
@@ -185,17 +239,179 @@ public class AssessmentsViewController {
 
         confirm.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    dao.deleteAssessment(selected.getId());
-                    assessmentsTable.getItems().remove(selected);
-                } catch (SQLException e) {
-                    e.printStackTrace();
-                    showAlert("Error deleting assessment: " + e.getMessage());
-                }
+                asyncDao.write(() -> {
+                            dao.deleteAssessment(selected.getId());
+                            return null;
+                        })
+                        .exceptionally(e -> handleFailure(e, "Error deleting assessment: "));
             }
         });
     }
 
+    /**
+     * Marks the selected assessment as completed by its student, or clears the mark.
+     * The row is re-read with its derived status once the change is published.
+     */
+    @FXML
+    private void handleToggleCompleted() {
+        Assessment selected = assessmentsTable.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showAlert("Please select an assessment first.");
+            return;
+        }
+
+        boolean completed = !AssessmentStatus.COMPLETED.getLabel().equals(selected.getStatus());
+        asyncDao.write(() -> {
+                    dao.setCompleted(selected.getId(), completed);
+                    return null;
+                })
+                .exceptionally(e -> handleFailure(e, "Error updating assessment: "));
+    }
+
+    /**
+     * Subscribes to assessment and student changes, so the tables are patched row by row
+     * wherever the change was made. The subscription ends when this view is taken off the screen.
+     */
+    private void listenForChanges() {
+        changes = ChangeBus.shared().subscribe(EnumSet.of(ChangeEvent.Entity.ASSESSMENT,
+                        ChangeEvent.Entity.ASSESSMENT_DEFINITION, ChangeEvent.Entity.STUDENT),
+                Platform::runLater, this::applyChanges);
+        assessmentsTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                changes.close();
+            }
+        });
+    }
+
+    /**
+     * Applies a batch of changes. Deleted rows are removed straight away; inserted and updated
+     * assessments of the shown student are re-read in one query, and edited students are
+     * replaced in place. The calendar, which only shows totals, reloads its month once per batch.
+     * @param events The coalesced changes
+     */
+    private void applyChanges(List<ChangeEvent> events) {
+        Set<Integer> changedAssessments = new HashSet<>();
+        Set<Integer> changedDefinitions = new HashSet<>();
+        List<Integer> changedStudents = new ArrayList<>();
+        boolean calendarChanged = false;
+        boolean studentsAdded = false;
+
+        for (ChangeEvent event : events) {
+            boolean deleted = event.operation() == ChangeEvent.Operation.DELETE;
+            switch (event.entity()) {
+                case ASSESSMENT -> {
+                    calendarChanged = true;
+                    if (deleted) {
+                        studentAssessments.removeIf(a -> a.getId() == event.id());
+                    } else {
+                        changedAssessments.add(event.id());
+                    }
+                }
+                case ASSESSMENT_DEFINITION -> {
+                    calendarChanged = true;
+                    if (deleted) {
+                        studentAssessments.removeIf(a -> a.getDefinitionId() == event.id());
+                    } else {
+                        changedDefinitions.add(event.id());
+                    }
+                }
+                case STUDENT -> {
+                    if (deleted) {
+                        calendarChanged = true; // their assessments went with them
+                        studentsInSubject.removeIf(s -> s.getId() == event.id());
+                        if (event.id() == shownStudentId) {
+                            shownStudentId = -1;
+                            studentAssessments.clear();
+                        }
+                    } else if (event.operation() == ChangeEvent.Operation.INSERT) {
+                        studentsAdded = true;
+                    } else {
+                        changedStudents.add(event.id());
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        if (shownStudentId >= 0 && !(changedAssessments.isEmpty() && changedDefinitions.isEmpty())) {
+            refreshAssessments(shownStudentId, changedAssessments, changedDefinitions);
+        }
+        if (!changedStudents.isEmpty()) {
+            refreshStudents(changedStudents);
+        }
+        // New students have the highest IDs, so once every page is shown the next page holds them
+        if (studentsAdded && pagedSubject != null && !morePages) {
+            morePages = true;
+            loadNextStudentPage();
+        }
+        if (calendarChanged) {
+            showMonth(visibleMonth);
+        }
+    }
+
+    /**
+     * Re-reads the shown student's changed assessments and patches them into the table.
+     * @param studentId The student whose assessments are shown
+     * @param assessmentIds Assignments inserted or updated
+     * @param definitionIds Definitions inserted or updated
+     */
+    private void refreshAssessments(int studentId, Set<Integer> assessmentIds, Set<Integer> definitionIds) {
+        asyncDao.fetch(() -> dao.getChangedForStudent(studentId, assessmentIds, definitionIds))
+                .thenAccept(rows -> {
+                    if (studentId != shownStudentId) {
+                        return; // another student was selected meanwhile
+                    }
+                    Set<Integer> returned = new HashSet<>();
+                    rows.forEach(row -> returned.add(row.getId()));
+                    // A requested row that did not come back now belongs to another student
+                    studentAssessments.removeIf(a -> !returned.contains(a.getId())
+                            && (assessmentIds.contains(a.getId()) || definitionIds.contains(a.getDefinitionId())));
+
+                    for (Assessment row : rows) {
+                        int index = indexOfAssessment(row.getId());
+                        if (index >= 0) {
+                            studentAssessments.set(index, row);
+                        } else {
+                            studentAssessments.add(row);
+                        }
+                    }
+                })
+                .exceptionally(e -> handleFailure(e, "Error refreshing assessments: "));
+    }
+
+    /**
+     * Re-reads edited students and replaces them in the students table.
+     * @param studentIds The students that were updated
+     */
+    private void refreshStudents(List<Integer> studentIds) {
+        asyncDao.fetch(() -> {
+                    List<Student> found = new ArrayList<>(studentIds.size());
+                    for (int id : studentIds) {
+                        studentDAO.findStudentById(id).ifPresent(found::add);
+                    }
+                    return found;
+                })
+                .thenAccept(found -> {
+                    for (Student student : found) {
+                        for (int i = 0; i < studentsInSubject.size(); i++) {
+                            if (studentsInSubject.get(i).getId() == student.getId()) {
+                                studentsInSubject.set(i, student);
+                            }
+                        }
+                    }
+                })
+                .exceptionally(e -> handleFailure(e, "Error refreshing students: "));
+    }
+
+    private int indexOfAssessment(int assessmentId) {
+        for (int i = 0; i < studentAssessments.size(); i++) {
+            if (studentAssessments.get(i).getId() == assessmentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Displays an alert with the given message.
      * @param message Message to show in alert
@@ -209,46 +425,221 @@ public class AssessmentsViewController {
     }
 
     /**
-     * Parses a string to a LocalDate using dd/MM/yyyy format.
-     * @param dateStr The date string
-     * @return A LocalDate object
+     * Reports a failed background database call, ignoring calls that were superseded.
+     * @param error The failure delivered by the future
+     * @param messagePrefix Text shown before the error message
+     * @return Always null, so it can be used directly in exceptionally
      */
-    private LocalDate parseDate(String dateStr) {
+    private Void handleFailure(Throwable error, String messagePrefix) {
+        if (!AsyncDao.isCancellation(error)) {
+            Throwable cause = AsyncDao.unwrap(error);
+            cause.printStackTrace();
+            showAlert(messagePrefix + cause.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Formats a stored yyyy-MM-dd due date for display.
+     * @param isoDate The stored due date
+     * @return The date as dd/MM/yyyy, or the stored text if it is not a date
+     */
+    private static String formatDueDate(String isoDate) {
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            return LocalDate.parse(dateStr, formatter);
-        } catch (Exception e) {
-            return LocalDate.MIN; // fallback if invalid
+            return LocalDate.parse(isoDate).format(DUE_DATE_FORMAT);
+        } catch (DateTimeParseException | NullPointerException e) {
+            return isoDate;
         }
     }
 
     /**
-     * Loads students associated with a specific subject.
+     * Shows the previous month in the due-date calendar.
+     */
+    @FXML
+    private void handlePreviousMonth() {
+        showMonth(visibleMonth.minusMonths(1));
+    }
+
+    /**
+     * Shows the next month in the due-date calendar.
+     */
+    @FXML
+    private void handleNextMonth() {
+        showMonth(visibleMonth.plusMonths(1));
+    }
+
+    /**
+     * Shows a month in the due-date calendar, loading only the assessments due in it.
+     * Paging on before a month arrives cancels its load.
+     * @param month The month to show
+     */
+    private void showMonth(YearMonth month) {
+        visibleMonth = month;
+        calendarMonthLabel.setText(month.format(MONTH_FORMAT));
+        asyncDao.fetchLatest("calendar-month",
+                        () -> dao.getDefinitionsDueBetween(month.atDay(1), month.atEndOfMonth()))
+                .thenAccept(due -> renderCalendar(month, due))
+                .exceptionally(e -> handleFailure(e, "Error loading calendar: "));
+    }
+
+    /**
+     * Lays out a month grid, marking each day with the number of assessments due on it.
+     * An assessment set for a whole subject counts once, however many students it is for.
+     * @param month The month shown
+     * @param due The assessment definitions due in that month
+     */
+    private void renderCalendar(YearMonth month, List<DueAssessment> due) {
+        Map<LocalDate, List<DueAssessment>> byDay = due.stream().collect(Collectors.groupingBy(
+                a -> LocalDate.parse(a.dueDate())));
+
+        calendarGrid.getChildren().clear();
+        calendarDayList.getItems().clear();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            Label header = new Label(day.getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+            header.setTextFill(Color.WHITE);
+            calendarGrid.add(header, day.getValue() - 1, 0);
+        }
+
+        int offset = month.atDay(1).getDayOfWeek().getValue() - 1;
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            LocalDate date = month.atDay(day);
+            List<DueAssessment> dueThatDay = byDay.getOrDefault(date, List.of());
+
+            Button cell = new Button(dueThatDay.isEmpty() ? String.valueOf(day) : day + " •" + dueThatDay.size());
+            cell.setPrefSize(46, 26);
+            if (!dueThatDay.isEmpty()) {
+                cell.setStyle("-fx-background-color: #3b82f6; -fx-text-fill: white;");
+            }
+            cell.setOnAction(e -> showDay(date, dueThatDay));
+
+            int index = offset + day - 1;
+            calendarGrid.add(cell, index % 7, index / 7 + 1);
+        }
+    }
+
+    /**
+     * Lists the assessments due on a calendar day.
+     * @param date The day clicked
+     * @param dueThatDay The definitions due that day
+     */
+    private void showDay(LocalDate date, List<DueAssessment> dueThatDay) {
+        if (dueThatDay.isEmpty()) {
+            calendarDayList.setItems(FXCollections.observableArrayList(
+                    "Nothing due on " + date.format(DUE_DATE_FORMAT) + "."));
+            return;
+        }
+        calendarDayList.setItems(FXCollections.observableArrayList(dueThatDay.stream()
+                .map(a -> a.title() + " (" + a.subject() + ") - " + a.students()
+                        + (a.students() == 1 ? " student" : " students"))
+                .toList()));
+    }
+
+    /**
+     * Starts showing the students of a subject, loading the first page in the background.
+     * Selecting another subject before a page arrives cancels the older load.
      * @param subject The selected subject
      */
     private void loadStudentsForSubject(String subject) {
-        try {
-            List<Student> students = studentDAO.getStudentsBySubject(subject);
-            ObservableList<Student> studentData = FXCollections.observableArrayList(students);
-            studentsTable.setItems(studentData);
-            studentsLabel.setText("Students enrolled in " + subject + ":");
-        } catch (SQLException e) {
-            e.printStackTrace();
-            studentsLabel.setText("⚠ Error loading students.");
+        pagedSubject = subject;
+        lastStudentId = 0;
+        morePages = true;
+        loadingPage = false;
+        studentsInSubject.clear();
+        loadNextStudentPage();
+    }
+
+    /**
+     * Appends the next page of students of the current subject, if there is one.
+     * Pages are keyed on the last student ID shown, so memory use grows with what the
+     * user scrolls through rather than with the size of the subject.
+     */
+    private void loadNextStudentPage() {
+        if (!morePages || loadingPage || pagedSubject == null) {
+            return;
+        }
+        loadingPage = true;
+        String subject = pagedSubject;
+        int afterId = lastStudentId;
+
+        asyncDao.fetchLatest("subject-students",
+                        () -> studentDAO.getStudentsBySubjectPage(subject, afterId, STUDENT_PAGE_SIZE))
+                .thenAccept(page -> {
+                    loadingPage = false;
+                    studentsInSubject.addAll(page);
+                    if (!page.isEmpty()) {
+                        lastStudentId = page.get(page.size() - 1).getId();
+                    }
+                    morePages = page.size() == STUDENT_PAGE_SIZE;
+                    studentsLabel.setText("Students enrolled in " + subject + ":");
+                })
+                .exceptionally(e -> {
+                    if (!AsyncDao.isCancellation(e)) {
+                        loadingPage = false;
+                        AsyncDao.unwrap(e).printStackTrace();
+                        studentsLabel.setText("⚠ Error loading students.");
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Replaces the students table with the students matching a search, best match first.
+     * Clearing the search goes back to the selected subject. Searches share the page
+     * loads' key, so whichever was requested last wins.
+     * @param query The trimmed search text
+     */
+    private void searchStudents(String query) {
+        if (query.isEmpty()) {
+            String subject = subjectListView.getSelectionModel().getSelectedItem();
+            if (subject != null) {
+                loadStudentsForSubject(subject);
+            } else {
+                studentsInSubject.clear();
+            }
+            return;
+        }
+        pagedSubject = null; // stop paging while search results are shown
+        asyncDao.fetchLatest("subject-students", () -> studentDAO.search(query, STUDENT_SEARCH_LIMIT))
+                .thenAccept(matches -> {
+                    studentsInSubject.setAll(matches);
+                    studentsLabel.setText(matches.isEmpty()
+                            ? "No students match \"" + query + "\"."
+                            : "Students matching \"" + query + "\":");
+                })
+                .exceptionally(e -> handleFailure(e, "Error searching students: "));
+    }
+
+    /**
+     * Loads the next page of students whenever the students table is scrolled to the bottom.
+     * The scroll bars only exist once the table has a skin.
+     */
+    private void loadMoreWhenScrolledToEnd() {
+        for (Node node : studentsTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() >= bar.getMax()) {
+                        loadNextStudentPage();
+                    }
+                });
+            }
         }
     }
 
     /**
-     * Loads assessments assigned to a given student.
+     * Loads assessments assigned to a given student in the background.
+     * Selecting another student before the query finishes cancels the older load.
      * @param studentId The ID of the student
      */
     private void loadAssessmentsForStudent(int studentId) {
-        try {
-            List<Assessment> assessments = dao.getAssessmentsByStudentId(studentId);
-            assessmentsTable.setItems(FXCollections.observableArrayList(assessments));
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        shownStudentId = studentId;
+        asyncDao.fetchLatest("student-assessments", () -> dao.getAssessmentsByStudentId(studentId))
+                .thenAccept(studentAssessments::setAll)
+                .exceptionally(e -> {
+                    if (!AsyncDao.isCancellation(e)) {
+                        AsyncDao.unwrap(e).printStackTrace();
+                    }
+                    return null;
+                });
     }
 
     /**
@@ -270,8 +661,6 @@ public class AssessmentsViewController {
             stage.initModality(Modality.APPLICATION_MODAL);
             stage.showAndWait();
 
-            loadAssessmentsForStudent(student.getId());
-
         } catch (Exception e) {
             e.printStackTrace();
             Alert alert = new Alert(Alert.AlertType.ERROR, "Failed to open Add Assessment window.");
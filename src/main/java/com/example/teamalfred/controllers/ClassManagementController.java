@@ -1,6 +1,8 @@
 package com.example.teamalfred.controllers;
 
 import com.example.teamalfred.database.*;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -9,12 +11,25 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.CheckBoxTableCell;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.stream.Stream;
 
 /**
  * Controller for managing classes, students, and attendance.
@@ -25,6 +40,8 @@ public class ClassManagementController implements Initializable {
 
     private static final String FILTER_ALL = "All";
     private static final String FILTER_ABSENT_ONLY = "Absent Only";
+    private static final int STUDENT_SEARCH_LIMIT = 50;
+    private static final Duration SEARCH_DELAY = Duration.millis(250);
 
     private User currentUser;
 
@@ -34,6 +51,11 @@ public class ClassManagementController implements Initializable {
     private final AttendanceDAO attendanceDAO = new SqliteAttendanceDAO();
     private final StudentDAO studentDAO = new SqliteStudentDAO();
     private final ClassroomDAO classroomDAO = new SqliteClassroomDAO();
+    private final SubjectDAO subjectDAO = new SqliteSubjectDAO();
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+    private final ObservableList<Student> rosterStudents = FXCollections.observableArrayList();
+    private ChangeBus.Subscription changes;
 
     @FXML private Label headerLabel;
     @FXML private DatePicker attendanceDatePicker;
@@ -46,12 +68,16 @@ public class ClassManagementController implements Initializable {
     @FXML private TableColumn<StudentAttendance, Boolean> lateColumn;
     @FXML private TableColumn<StudentAttendance, Boolean> excusedColumn;
     @FXML private TableColumn<StudentAttendance, String> notesColumn;
+    @FXML private TableColumn<StudentAttendance, String> summaryColumn;
     @FXML private Button saveAttendanceButton;
     @FXML private Button clearFormButton;
     @FXML private Button exportReportButton;
+    @FXML private Button importRosterButton;
+    @FXML private Label importStatusLabel;
     @FXML private TextField firstNameField, lastNameField, emailField;
     @FXML private Button addStudentButton, removeStudentButton;
     @FXML private ListView<Student> studentListView;
+    @FXML private TextField studentSearchField;
     @FXML private TextField newClassNameField;
     @FXML private Button createClassButton;
     @FXML private ComboBox<String> subjectSelector;
@@ -68,6 +94,21 @@ public class ClassManagementController implements Initializable {
         alert.showAndWait();
     }
 
+    /**
+     * Reports a failed background database call, ignoring calls that were superseded.
+     *
+     * @param error   The failure delivered by the future.
+     * @param message The message to show the user.
+     * @return Always {@code null}, so it can be used directly in {@code exceptionally}.
+     */
+    private Void handleFailure(Throwable error, String message) {
+        if (!AsyncDao.isCancellation(error)) {
+            AsyncDao.unwrap(error).printStackTrace();
+            showAlert(message);
+        }
+        return null;
+    }
+
     /**
      * Sets the currently logged-in user and updates the header label.
      *
@@ -91,26 +132,22 @@ public class ClassManagementController implements Initializable {
             return;
         }
 
-        try {
-            Classroom newClass = new Classroom(className);
-            ClassroomDAO dao = new SqliteClassroomDAO();
-            dao.createClassroom(newClass);
-            newClassNameField.clear();
-            refreshClassSelector();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Failed to create class.");
-        }
+        Classroom newClass = new Classroom(className);
+        asyncDao.write(() -> {
+                    classroomDAO.createClassroom(newClass);
+                    return newClass;
+                })
+                .thenAccept(created -> newClassNameField.clear())
+                .exceptionally(e -> handleFailure(e, "Failed to create class."));
     }
 
     /**
      * Refreshes the class selection dropdown with up-to-date class data.
-     *
-     * @throws SQLException If database access fails.
      */
-    private void refreshClassSelector() throws SQLException {
-        List<Classroom> updated = new SqliteClassroomDAO().getAllClassrooms();
-        classSelector.setItems(FXCollections.observableArrayList(updated));
+    private void refreshClassSelector() {
+        asyncDao.fetchLatest("classes", classroomDAO::getAllClassrooms)
+                .thenAccept(updated -> classSelector.setItems(FXCollections.observableArrayList(updated)))
+                .exceptionally(e -> handleFailure(e, "Failed to load classes from database."));
     }
 
     /**
@@ -129,19 +166,19 @@ public class ClassManagementController implements Initializable {
             return;
         }
 
-        try {
-            Student student = new Student(first, last, email, selectedClass.getId(), subject);
-            StudentDAO dao = new SqliteStudentDAO();
-            dao.createStudent(student);
-            loadStudentsForSelectedClass();
-            firstNameField.clear();
-            lastNameField.clear();
-            emailField.clear();
-            subjectSelector.getSelectionModel().clearSelection();
-        } catch (Exception e) {
-            e.printStackTrace();
-            showAlert("Failed to add student to the database.");
-        }
+        Student student = new Student(first, last, email, selectedClass.getId(), subject);
+        asyncDao.write(() -> {
+                    studentDAO.createStudent(student);
+                    return student;
+                })
+                .thenAccept(created -> {
+                    // The roster picks the new student up from the change bus
+                    firstNameField.clear();
+                    lastNameField.clear();
+                    emailField.clear();
+                    subjectSelector.getSelectionModel().clearSelection();
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to add student to the database."));
     }
 
     /**
@@ -155,13 +192,11 @@ public class ClassManagementController implements Initializable {
             return;
         }
 
-        try {
-            new SqliteStudentDAO().deleteStudent(selected.getId());
-            loadStudentsForSelectedClass();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Failed to remove student.");
-        }
+        asyncDao.write(() -> {
+                    studentDAO.deleteStudent(selected.getId());
+                    return null; // the roster drops the student when the change is published
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to remove student."));
     }
 
     /**
@@ -172,27 +207,136 @@ public class ClassManagementController implements Initializable {
         DatabaseConnection.setDatabaseUrl("jdbc:sqlite:database.db");
         setupAttendanceTableColumns();
         setupClassSelector();
+        setupSubjectSelector();
         setupFilterSelector();
+        setupStudentSearch();
         attendanceTable.setEditable(true);
         attendanceTable.setItems(filteredData);
+        listenForChanges();
+    }
 
-        try {
-            ClassroomDAO classroomDAO = new SqliteClassroomDAO();
-            List<Classroom> classrooms = classroomDAO.getAllClassrooms();
-            classSelector.setItems(FXCollections.observableArrayList(classrooms));
+    /**
+     * Subscribes to student and class changes, so rows added, edited or removed anywhere
+     * are patched into the roster instead of reloading it. The subscription ends when
+     * this view is taken off the screen.
+     */
+    private void listenForChanges() {
+        changes = ChangeBus.shared().subscribe(EnumSet.of(ChangeEvent.Entity.STUDENT, ChangeEvent.Entity.CLASSROOM),
+                Platform::runLater, this::applyChanges);
+        attendanceTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                changes.close();
+            }
+        });
+    }
 
-            if (!classrooms.isEmpty()) {
-                classSelector.getSelectionModel().selectFirst();
-                loadStudentsForSelectedClass();
+    /**
+     * Applies a batch of changes: deleted students are dropped straight away, and inserted
+     * or updated rows are read back (usually from the cache) in one background call.
+     *
+     * @param events The coalesced changes.
+     */
+    private void applyChanges(List<ChangeEvent> events) {
+        List<Integer> changedStudents = new ArrayList<>();
+        List<Integer> newClasses = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            if (event.entity() == ChangeEvent.Entity.CLASSROOM) {
+                newClasses.add(event.id());
+            } else if (event.operation() == ChangeEvent.Operation.DELETE) {
+                removeStudent(event.id());
+            } else {
+                changedStudents.add(event.id());
             }
-            classSelector.setOnAction(e -> loadStudentsForSelectedClass());
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Failed to load classes from database.");
+        if (!changedStudents.isEmpty()) {
+            asyncDao.fetch(() -> {
+                        List<Student> found = new ArrayList<>(changedStudents.size());
+                        for (int id : changedStudents) {
+                            found.add(studentDAO.findStudentById(id).orElse(null));
+                        }
+                        return found;
+                    })
+                    .thenAccept(found -> {
+                        for (int i = 0; i < found.size(); i++) {
+                            if (found.get(i) == null) {
+                                removeStudent(changedStudents.get(i)); // deleted again since
+                            } else {
+                                applyStudent(found.get(i));
+                            }
+                        }
+                    })
+                    .exceptionally(e -> handleFailure(e, "Failed to refresh changed students."));
+        }
+        if (!newClasses.isEmpty()) {
+            asyncDao.fetch(() -> {
+                        List<Classroom> found = new ArrayList<>(newClasses.size());
+                        for (int id : newClasses) {
+                            Classroom classroom = classroomDAO.getClassroomById(id);
+                            if (classroom != null) {
+                                found.add(classroom);
+                            }
+                        }
+                        return found;
+                    })
+                    .thenAccept(found -> classSelector.getItems().addAll(found))
+                    .exceptionally(e -> handleFailure(e, "Failed to load new classes."));
         }
     }
 
+    /**
+     * Puts a new or edited student into the roster if they are in the selected class,
+     * keeping their attendance marks, or takes them out if they have moved to another class.
+     *
+     * @param student The student as now stored.
+     */
+    private void applyStudent(Student student) {
+        Classroom selectedClass = classSelector.getValue();
+        if (selectedClass == null || student.getClassId() != selectedClass.getId()) {
+            removeStudent(student.getId());
+            return;
+        }
+
+        int index = indexOf(rosterStudents, student.getId());
+        if (index >= 0) {
+            rosterStudents.set(index, student);
+            attendanceData.stream()
+                    .filter(row -> row.getStudentId() == student.getId())
+                    .forEach(row -> row.studentNameProperty().set(student.getFullName()));
+        } else {
+            rosterStudents.add(student);
+            attendanceData.add(new StudentAttendance(student.getId(), student.getFullName(),
+                    false, false, false, false, ""));
+        }
+
+        // Search results show the edited student too
+        ObservableList<Student> shown = studentListView.getItems();
+        int shownIndex = shown == rosterStudents ? -1 : indexOf(shown, student.getId());
+        if (shownIndex >= 0) {
+            shown.set(shownIndex, student);
+        }
+    }
+
+    /**
+     * Takes a student out of the roster, the attendance table and any search results.
+     *
+     * @param studentId The ID of the student.
+     */
+    private void removeStudent(int studentId) {
+        rosterStudents.removeIf(s -> s.getId() == studentId);
+        attendanceData.removeIf(row -> row.getStudentId() == studentId);
+        studentListView.getItems().removeIf(s -> s.getId() == studentId);
+    }
+
+    private static int indexOf(List<Student> students, int studentId) {
+        for (int i = 0; i < students.size(); i++) {
+            if (students.get(i).getId() == studentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Configures the attendance table columns and interactions.
      */
@@ -203,6 +347,7 @@ public class ClassManagementController implements Initializable {
         lateColumn.setCellValueFactory(data -> data.getValue().lateProperty());
         excusedColumn.setCellValueFactory(data -> data.getValue().excusedProperty());
         notesColumn.setCellValueFactory(data -> data.getValue().notesProperty());
+        summaryColumn.setCellValueFactory(data -> data.getValue().summaryProperty());
 
         studentNameColumn.setCellFactory(column -> new TableCell<>() {
             @Override
@@ -246,17 +391,26 @@ public class ClassManagementController implements Initializable {
      * Initializes the class selector ComboBox.
      */
     private void setupClassSelector() {
-        try {
-            List<Classroom> classrooms = classroomDAO.getAllClassrooms();
-            classSelector.setItems(FXCollections.observableArrayList(classrooms));
-            if (!classrooms.isEmpty()) {
-                classSelector.getSelectionModel().selectFirst();
-                loadStudentsForSelectedClass();
-            }
-            classSelector.setOnAction(e -> loadStudentsForSelectedClass());
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        classSelector.setOnAction(e -> loadStudentsForSelectedClass());
+        asyncDao.fetchLatest("classes", classroomDAO::getAllClassrooms)
+                .thenAccept(classrooms -> {
+                    classSelector.setItems(FXCollections.observableArrayList(classrooms));
+                    if (!classrooms.isEmpty()) {
+                        classSelector.getSelectionModel().selectFirst();
+                        loadStudentsForSelectedClass();
+                    }
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to load classes from database."));
+    }
+
+    /**
+     * Fills the subject choices for new students from the subjects table.
+     */
+    private void setupSubjectSelector() {
+        asyncDao.fetchLatest("subjects", subjectDAO::getAllSubjects)
+                .thenAccept(subjects -> subjectSelector.setItems(FXCollections.observableArrayList(
+                        subjects.stream().map(Subject::getName).toList())))
+                .exceptionally(e -> handleFailure(e, "Failed to load subjects from database."));
     }
 
     /**
@@ -268,6 +422,36 @@ public class ClassManagementController implements Initializable {
         filterSelector.setOnAction(e -> applyFilter());
     }
 
+    /**
+     * Searches all students as the user types. The query only runs once typing pauses,
+     * and a newer search cancels one still running, so fast typing costs one query.
+     */
+    private void setupStudentSearch() {
+        searchDelay.setOnFinished(e -> searchStudents(studentSearchField.getText().trim()));
+        studentSearchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+    }
+
+    /**
+     * Shows the students matching a search in the student list, or the class roster again
+     * once the search box is cleared.
+     *
+     * @param query The trimmed search text.
+     */
+    private void searchStudents(String query) {
+        if (query.isEmpty()) {
+            studentListView.setItems(rosterStudents);
+            return;
+        }
+        asyncDao.fetchLatest("student-search", () -> studentDAO.search(query, STUDENT_SEARCH_LIMIT))
+                .thenAccept(matches -> {
+                    // The box may have been cleared while the query ran
+                    if (query.equals(studentSearchField.getText().trim())) {
+                        studentListView.setItems(FXCollections.observableArrayList(matches));
+                    }
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to search students."));
+    }
+
     /**
      * Applies filter to show all or only absent students.
      */
@@ -282,6 +466,8 @@ public class ClassManagementController implements Initializable {
 
     /**
      * Loads students and attendance data for the selected class.
+     * The query runs in the background; switching classes again before it finishes
+     * cancels it, so only the roster of the most recently selected class is shown.
      */
     private void loadStudentsForSelectedClass() {
         Classroom selectedClass = classSelector.getValue();
@@ -290,39 +476,82 @@ public class ClassManagementController implements Initializable {
             return;
         }
 
-        try {
-            String date = attendanceDatePicker.getValue() != null
-                    ? attendanceDatePicker.getValue().toString()
-                    : "";
-
-            Map<Integer, AttendanceRecord> attendanceMap =
-                    attendanceDAO.getAttendanceMapForClassAndDate(selectedClass.getId(), date);
-
-            List<Student> students = studentDAO.getStudentsByClassId(selectedClass.getId());
+        int classId = selectedClass.getId();
+        String date = attendanceDatePicker.getValue() != null
+                ? attendanceDatePicker.getValue().toString()
+                : "";
+        YearMonth month = attendanceDatePicker.getValue() != null
+                ? YearMonth.from(attendanceDatePicker.getValue())
+                : YearMonth.now();
+
+        asyncDao.fetchLatest("roster", () -> new Roster(
+                        classId,
+                        month,
+                        studentDAO.getStudentsByClassId(classId),
+                        attendanceDAO.getAttendanceMapForClassAndDate(classId, date)))
+                .thenAccept(this::showRoster)
+                .exceptionally(e -> handleFailure(e, "Error loading students for selected class."));
+    }
 
-            attendanceData.clear();
-            for (Student s : students) {
-                AttendanceRecord record = attendanceMap.getOrDefault(
+    /**
+     * Fills the attendance table and student list from a loaded roster.
+     *
+     * @param roster The students of the class and their attendance for the selected date.
+     */
+    private void showRoster(Roster roster) {
+        List<StudentAttendance> rows = new ArrayList<>(roster.students().size());
+        for (Student s : roster.students()) {
+            AttendanceRecord record = roster.attendance().getOrDefault(
                         s.getId(),
-                        new AttendanceRecord(false, false, false, false, "")
+                        new AttendanceRecord(AttendanceStatus.UNMARKED, false, "")
                 );
-                attendanceData.add(new StudentAttendance(
-                        s.getId(),
-                        s.getFullName(),
-                        record.present,
-                        record.absent,
-                        record.late,
-                        record.excused,
-                        record.notes
-                ));
-            }
+            rows.add(new StudentAttendance(
+                    s.getId(),
+                    s.getFullName(),
+                    record.isPresent(),
+                    record.isAbsent(),
+                    record.late,
+                    record.isExcused(),
+                    record.notes
+            ));
+        }
 
-            studentListView.setItems(FXCollections.observableArrayList(students));
+        attendanceData.setAll(rows);
+        rosterStudents.setAll(roster.students());
+        if (studentSearchField.getText().isBlank()) {
+            studentListView.setItems(rosterStudents);
+        }
+        loadClassStatistics(roster.classId(), roster.month());
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            showAlert("Error loading students for selected class.");
+    /**
+     * Loads the month's attendance statistics for the whole class in one background query
+     * and fills the summary column. The roster is already visible while this runs.
+     *
+     * @param classId The ID of the class shown in the table.
+     * @param month   The month of the selected date.
+     */
+    private void loadClassStatistics(int classId, YearMonth month) {
+        asyncDao.fetchLatest("class-stats", () -> attendanceDAO.getClassStatistics(classId, month.atDay(1), month.atEndOfMonth()))
+                .thenAccept(stats -> {
+                    for (StudentAttendance row : attendanceData) {
+                        row.summaryProperty().set(formatSummary(stats, row.getStudentId()));
+                    }
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to load attendance statistics."));
+    }
+
+    /**
+     * Formats one student's statistics for the summary column, e.g. "92% (1 absent, 0 late)".
+     */
+    private static String formatSummary(ClassAttendanceStatistics stats, int studentId) {
+        if (stats.getRecordedDays(studentId) == 0) {
+            return "No records";
         }
+        return String.format("%.0f%% (%d absent, %d late)",
+                stats.getAttendanceRate(studentId) * 100,
+                stats.getCount(studentId, AttendanceStatus.ABSENT),
+                stats.getCount(studentId, AttendanceStatus.LATE));
     }
 
     /**
@@ -337,23 +566,32 @@ public class ClassManagementController implements Initializable {
             return;
         }
 
-        try {
-            for (StudentAttendance sa : attendanceData) {
-                attendanceDAO.saveAttendance(
-                        sa.getStudentId(),
-                        selectedClass.getId(),
-                        date,
-                        sa.presentProperty().get(),
-                        sa.absentProperty().get(),
-                        sa.lateProperty().get(),
-                        sa.excusedProperty().get(),
-                        sa.notesProperty().get()
-                );
-            }
-            System.out.println("Attendance saved successfully.");
-        } catch (SQLException e) {
-            e.printStackTrace();
+        // Copy the values on the FX thread; the properties must not be read from the worker.
+        int classId = selectedClass.getId();
+        YearMonth month = YearMonth.from(attendanceDatePicker.getValue());
+        List<AttendanceEntry> register = new ArrayList<>(attendanceData.size());
+        for (StudentAttendance sa : attendanceData) {
+            register.add(new AttendanceEntry(
+                    sa.getStudentId(),
+                    sa.presentProperty().get(),
+                    sa.absentProperty().get(),
+                    sa.lateProperty().get(),
+                    sa.excusedProperty().get(),
+                    sa.notesProperty().get()
+            ));
         }
+
+        asyncDao.write(() -> attendanceDAO.saveAttendanceBatch(classId, date, register))
+                .thenAccept(outcomes -> {
+                    long rejected = Arrays.stream(outcomes).filter(o -> o == Statement.EXECUTE_FAILED).count();
+                    if (rejected > 0) {
+                        showAlert(rejected + " attendance row(s) were not saved because they were inconsistent.");
+                    } else {
+                        System.out.println("Attendance saved successfully.");
+                    }
+                    loadClassStatistics(classId, month);
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to save attendance."));
     }
 
     /**
@@ -363,21 +601,132 @@ public class ClassManagementController implements Initializable {
      * @param studentName The name of the student.
      */
     private void showStudentMonthlyStats(int studentId, String studentName) {
-        try {
-            YearMonth currentMonth = YearMonth.now();
-            int absentCount = attendanceDAO.countByStatusInMonth(studentId, "absent", currentMonth);
-            int excusedCount = attendanceDAO.countByStatusInMonth(studentId, "excused", currentMonth);
-
-            Alert alert = new Alert(Alert.AlertType.INFORMATION);
-            alert.setTitle("Attendance Summary");
-            alert.setHeaderText("For " + studentName);
-            alert.setContentText("This month:\nAbsent days: " + absentCount + "\nExcused days: " + excusedCount);
-            alert.showAndWait();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        YearMonth currentMonth = YearMonth.now();
+        asyncDao.fetchLatest("monthly-stats", () -> attendanceDAO.getMonthlySummary(studentId, currentMonth))
+                .thenAccept(summary -> {
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.setTitle("Attendance Summary");
+                    alert.setHeaderText("For " + studentName);
+                    alert.setContentText("This month:\nAbsent days: " + summary.getAbsent()
+                            + "\nExcused days: " + summary.getExcused());
+                    alert.showAndWait();
+                })
+                .exceptionally(e -> handleFailure(e, "Failed to load the attendance summary."));
+    }
+
+    /**
+     * Imports a CSV roster chosen by the user. The import runs in the background in
+     * chunked transactions, reporting progress in the status label; an interrupted import
+     * of the same file resumes where it stopped.
+     */
+    @FXML
+    private void handleImportRoster() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Roster");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(attendanceTable.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        importRosterButton.setDisable(true);
+        importStatusLabel.setText("Importing " + file.getName() + "...");
+        RosterImporter.Listener listener = new RosterImporter.Listener() {
+            @Override
+            public void onProgress(RosterImporter.Result progress) {
+                Platform.runLater(() -> importStatusLabel.setText(
+                        "Imported " + progress.imported() + " of " + progress.recordsRead() + " rows..."));
+            }
+        };
+
+        // Commits chunk by chunk, so attendance saves and roster edits still go through meanwhile
+        asyncDao.writeInBatches(() -> {
+                    try {
+                        return new RosterImporter().importFile(file.toPath(), listener);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .whenComplete((result, error) -> importRosterButton.setDisable(false))
+                .thenAccept(this::showImportResult)
+                .exceptionally(e -> {
+                    importStatusLabel.setText("Import failed.");
+                    return handleFailure(e, "Failed to import the roster: " + AsyncDao.unwrap(e).getMessage());
+                });
+    }
+
+    /**
+     * Summarises a finished import and reloads the classes and roster it may have changed.
+     */
+    private void showImportResult(RosterImporter.Result result) {
+        importStatusLabel.setText("Imported " + result.imported() + " students.");
+        StringBuilder summary = new StringBuilder()
+                .append("Imported: ").append(result.imported())
+                .append("\nNew classes: ").append(result.classesCreated())
+                .append("\nDuplicate emails skipped: ").append(result.duplicates())
+                .append("\nInvalid rows skipped: ").append(result.rejected());
+        if (result.resumedAfter() > 0) {
+            summary.append("\nResumed after ").append(result.resumedAfter()).append(" rows from an earlier attempt.");
+        }
+        result.errors().stream().limit(10).forEach(error ->
+                summary.append("\nLine ").append(error.line()).append(": ").append(error.reason()));
+        showAlert(summary.toString());
+
+        refreshClassSelector();
+        loadStudentsForSelectedClass();
+    }
+
+    /**
+     * Exports every student in the school to a CSV file in the user's Downloads folder.
+     * Rows are streamed from the database straight to the file, so memory use does not
+     * grow with the number of students.
+     */
+    @FXML
+    private void handleExportReport() {
+        Path file = Path.of(System.getProperty("user.home"), "Downloads", "StudentReport.csv");
+        asyncDao.fetch(() -> writeStudentReport(file))
+                .thenAccept(count -> showAlert("Exported " + count + " students to " + file + "."))
+                .exceptionally(e -> handleFailure(e, "Failed to export the student report."));
+    }
+
+    /**
+     * Writes all students to a CSV file, one row at a time.
+     *
+     * @param file Where to write the report.
+     * @return The number of students written.
+     * @throws SQLException If the students cannot be read.
+     */
+    private long writeStudentReport(Path file) throws SQLException {
+        try (Stream<Student> students = studentDAO.streamAllStudents();
+             BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("student_id,first_name,last_name,email,class_id,subject");
+            writer.newLine();
+            long count = 0;
+            for (Student s : (Iterable<Student>) students::iterator) {
+                writer.write(s.getId() + "," + csv(s.getFirstName()) + "," + csv(s.getLastName()) + ","
+                        + csv(s.getEmail()) + "," + s.getClassId() + "," + csv(s.getSubject()));
+                writer.newLine();
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
+    /**
+     * Quotes a CSV field if it contains a separator, quote or line break.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
     /**
      * Opens a dialog to create a new class.
      */
@@ -390,20 +739,23 @@ public class ClassManagementController implements Initializable {
 
         dialog.showAndWait().ifPresent(name -> {
             if (!name.trim().isEmpty()) {
-                try {
-                    ClassroomDAO dao = new SqliteClassroomDAO();
-                    dao.createClassroom(new Classroom(name.trim()));
-                    refreshClassSelector();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    showAlert("Failed to create class.");
-                }
+                Classroom newClass = new Classroom(name.trim());
+                asyncDao.write(() -> {
+                            classroomDAO.createClassroom(newClass);
+                            return null; // the class selector adds it when the change is published
+                        })
+                        .exceptionally(e -> handleFailure(e, "Failed to create class."));
             } else {
                 showAlert("Class name cannot be empty.");
             }
         });
     }
 
+    /**
+     * Students of a class together with their attendance for one date, loaded in one background call.
+     */
+    private record Roster(int classId, YearMonth month, List<Student> students, Map<Integer, AttendanceRecord> attendance) {}
+
     /**
      * Represents a student's attendance record for UI binding.
      */
@@ -415,6 +767,7 @@ public class ClassManagementController implements Initializable {
         private final SimpleBooleanProperty late = new SimpleBooleanProperty();
         private final SimpleBooleanProperty excused = new SimpleBooleanProperty();
         private final SimpleStringProperty notes = new SimpleStringProperty("");
+        private final SimpleStringProperty summary = new SimpleStringProperty("");
 
         public StudentAttendance(int studentId, String name, boolean present, boolean absent, boolean late, boolean excused, String notes) {
             this.studentId = studentId;
@@ -452,5 +805,6 @@ public class ClassManagementController implements Initializable {
         public BooleanProperty lateProperty() { return late; }
         public BooleanProperty excusedProperty() { return excused; }
         public StringProperty notesProperty() { return notes; }
+        public StringProperty summaryProperty() { return summary; }
     }
 }
@@ -1,7 +1,12 @@
 package com.example.teamalfred.controllers;
 
+import com.example.teamalfred.database.AssessmentCounts;
+import com.example.teamalfred.database.AssessmentDAO;
+import com.example.teamalfred.database.AsyncDao;
+import com.example.teamalfred.database.SqliteAssessmentDAO;
 import com.example.teamalfred.database.User;
 import com.example.teamalfred.main.UserSession;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -12,6 +17,8 @@ import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.control.Label;
 import java.io.IOException;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Controller for the main dashboard of the application.
@@ -33,6 +40,12 @@ public class DashboardController {
     @FXML private ToggleButton aiLessonPlansToggle;
     @FXML private AnchorPane dashboardRoot;
 
+    // Assessment totals tile
+    @FXML private Label assessmentTotalLabel;
+    @FXML private Label assessmentStatusLabel;
+    @FXML private Label assessmentTypeLabel;
+    @FXML private Label assessmentSubjectLabel;
+
     private double fontSize = 14.0;
     private final double MIN_FONT_SIZE = 12.0;
     private final double MAX_FONT_SIZE = 18.0;
@@ -48,6 +61,7 @@ public class DashboardController {
     private ToggleGroup navGroup = new ToggleGroup();
     private final SwitchSceneController switchScene = new SwitchSceneController();
     private User currentUser;
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
 
     /**
      * Sets the current user and updates the user greeting label.
@@ -80,6 +94,43 @@ public class DashboardController {
         if (messageToggle != null) {
             messageToggle.setToggleGroup(navGroup);
         }
+
+        loadAssessmentCounts();
+    }
+
+    /**
+     * Fills the assessment totals tile in the background. The counts come from one grouped
+     * query that the DAO caches until assessments change, so later logins show them at once.
+     */
+    private void loadAssessmentCounts() {
+        asyncDao.fetch(() -> {
+                    AssessmentDAO assessmentDAO = new SqliteAssessmentDAO();
+                    return assessmentDAO.getCounts();
+                })
+                .thenAccept(this::showAssessmentCounts)
+                .exceptionally(e -> {
+                    AsyncDao.unwrap(e).printStackTrace();
+                    assessmentTotalLabel.setText("Assessment totals are unavailable.");
+                    return null;
+                });
+    }
+
+    /**
+     * Renders assessment totals in the tile.
+     *
+     * @param counts The grouped totals.
+     */
+    private void showAssessmentCounts(AssessmentCounts counts) {
+        assessmentTotalLabel.setText(counts.getTotal() + " assessments set");
+        assessmentStatusLabel.setText(join(counts.getByStatus()));
+        assessmentTypeLabel.setText(join(counts.getByType()));
+        assessmentSubjectLabel.setText(join(counts.getBySubject()));
+    }
+
+    private static String join(Map<?, Integer> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .collect(Collectors.joining("   "));
     }
 
     /**
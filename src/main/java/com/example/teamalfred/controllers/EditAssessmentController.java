@@ -1,13 +1,16 @@
 package com.example.teamalfred.controllers;
 
 import com.example.teamalfred.database.Assessment;
+import com.example.teamalfred.database.AsyncDao;
 import com.example.teamalfred.database.SqliteAssessmentDAO;
+import com.example.teamalfred.database.SqliteSubjectDAO;
+import com.example.teamalfred.database.Subject;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 public class EditAssessmentController {
 
@@ -18,6 +21,7 @@ public class EditAssessmentController {
 
     private Assessment assessment;
     private SqliteAssessmentDAO dao;
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
 
     public void setAssessment(Assessment assessment) {
         this.assessment = assessment;
@@ -25,13 +29,12 @@ public class EditAssessmentController {
         // Pre-fill form
         titleField.setText(assessment.getTitle());
         subjectComboBox.setValue(assessment.getSubject());
-        dueDatePicker.setValue(LocalDate.parse(assessment.getDueDate(), DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        dueDatePicker.setValue(LocalDate.parse(assessment.getDueDate()));
         typeComboBox.setValue(assessment.getType());
     }
 
     @FXML
     public void initialize() {
-        subjectComboBox.getItems().addAll("English", "Maths", "Science", "History", "Geography", "Health", "Art", "Technology", "PE");
         typeComboBox.getItems().addAll("Report", "Exam", "Quiz");
 
         try {
@@ -39,6 +42,14 @@ public class EditAssessmentController {
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        // The pre-filled subject stays selected when the list arrives
+        asyncDao.fetch(new SqliteSubjectDAO()::getAllSubjects)
+                .thenAccept(subjects -> subjectComboBox.getItems().addAll(
+                        subjects.stream().map(Subject::getName).toList()))
+                .exceptionally(e -> {
+                    AsyncDao.unwrap(e).printStackTrace();
+                    return null;
+                });
     }
 
     @FXML
@@ -53,7 +64,7 @@ public class EditAssessmentController {
             return;
         }
 
-        String formattedDue = due.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        String formattedDue = due.toString();
 
         // Update the model
         assessment.setTitle(title);
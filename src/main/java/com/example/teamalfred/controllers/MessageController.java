@@ -1,14 +1,31 @@
 package com.example.teamalfred.controllers;
 
+import com.example.teamalfred.database.AsyncDao;
+import com.example.teamalfred.database.ChangeBus;
+import com.example.teamalfred.database.ChangeEvent;
+import com.example.teamalfred.database.ConversationSummary;
+import com.example.teamalfred.database.Message;
+import com.example.teamalfred.database.MessageWatcher;
 import com.example.teamalfred.database.MessagingDatabaseManager;
-import com.example.teamalfred.database.DatabaseConnection;
 import com.example.teamalfred.main.UserSession;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.css.PseudoClass;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import java.sql.*;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -19,18 +36,36 @@ import java.util.Optional;
 public class MessageController {
     private static MessageController instance; // Holds the controller instance
 
+    // Set on cells holding the logged-in user's own messages (see Message.css)
+    private static final PseudoClass MINE = PseudoClass.getPseudoClass("mine");
+
     // Our DB manager for handling message and conversation tables
     private final MessagingDatabaseManager dbManager = new MessagingDatabaseManager();
 
+    // Runs the queries off the FX thread and hands results back to it
+    private final AsyncDao asyncDao = new AsyncDao(Platform::runLater);
+
     // UI elements from FXML file
     @FXML private TextField messageInput;
-    @FXML private VBox messageContainer;
+    @FXML private ListView<Message> messageList;
     @FXML private VBox conversationList;
     @FXML private Button sendButton;
 
     // Stores the ID of the currently selected conversation
     private static int currentConversationId = -1;
 
+    // Messages already read for each opened conversation, read a page at a time
+    private final MessageHistory history = new MessageHistory(dbManager, asyncDao);
+
+    // Names of the conversations in the sidebar, to rebuild a preview when a message arrives
+    private final Map<Integer, String> conversationNames = new HashMap<>();
+
+    // New messages and conversations are announced here instead of reloading everything
+    private ChangeBus.Subscription changes;
+
+    // Announces messages that other app instances write to the same database file
+    private MessageWatcher watcher;
+
     /**
      * Utility method to show popup alerts (for errors, info, etc.)
      */
@@ -63,17 +98,37 @@ public class MessageController {
         messageInput.setDisable(true);
         sendButton.setDisable(true);
 
+        // Only the visible messages get cells, which are refilled as the list scrolls
+        messageList.setCellFactory(list -> new MessageCell());
+        messageList.setPlaceholder(new Label(""));
+        messageList.skinProperty().addListener((obs, oldSkin, newSkin) -> loadOlderWhenScrolledToTop());
+
         // Load conversations (messages won't load until a convo is selected)
         loadConversations();
 
+        // Apply new messages as they are sent, here or by another instance, until this view is taken off the screen
+        changes = ChangeBus.shared().subscribe(EnumSet.of(ChangeEvent.Entity.MESSAGE, ChangeEvent.Entity.CONVERSATION),
+                Platform::runLater, this::applyChanges);
+        try {
+            watcher = MessageWatcher.start(UserSession.getLoggedInUser().getId());
+        } catch (SQLException e) {
+            e.printStackTrace(); // messages from other instances show up when a conversation is reopened
+        }
+        messageList.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (oldScene != null && newScene == null) {
+                changes.close();
+                if (watcher != null) {
+                    watcher.close();
+                }
+            }
+        });
+
         // Set what happens when the user clicks "Send"
         sendButton.setOnAction(event -> {
             String content = messageInput.getText().trim();
             if (!content.isEmpty()) {
-                sendMessage(content);   // actually send it
+                sendMessage(content);   // actually send it; the change bus shows it
                 messageInput.clear();   // clear the input box
-                loadMessages();         // refresh messages
-                loadConversations();    // refresh conversation previews
             }
         });
     }
@@ -86,61 +141,204 @@ public class MessageController {
             currentConversationId = -1;
             instance.messageInput.setDisable(true);
             instance.sendButton.setDisable(true);
-            instance.messageContainer.getChildren().clear();
+            instance.messageList.setItems(FXCollections.observableArrayList());
             instance.conversationList.getChildren().clear();
+            instance.conversationNames.clear();
+            instance.history.clear();
         }
     }
 
     /**
-     * Loads all messages for the current conversation from the DB and displays them in the UI.
+     * Shows the current conversation. One opened before is shown straight away from the
+     * messages already read for it; otherwise only its latest page is read, and older pages
+     * follow as the user scrolls up. Either way, whatever has arrived since is fetched next.
      */
     private void loadMessages() {
-        messageContainer.getChildren().clear();  // Clear old messages
-
         if (currentConversationId < 0) {
             // No valid conversation selected — nothing to load
+            messageList.setItems(FXCollections.observableArrayList());
             return;
         }
 
-        String query = "SELECT senderID, content, timestamp FROM messages WHERE conversationID = ? ORDER BY timestamp";
+        int conversationId = currentConversationId;
+        if (history.get(conversationId) == null) {
+            messageList.setItems(FXCollections.observableArrayList()); // don't leave the old conversation up
+        }
+        history.open(conversationId)
+                .thenAccept(messages -> {
+                    if (conversationId == currentConversationId) {
+                        showConversation(messages);
+                    }
+                    // Messages announced while the page was read were skipped, as it was not loaded yet
+                    fetchNewMessages(conversationId);
+                })
+                .exceptionally(this::logFailure);
+    }
+
+    /**
+     * Puts a conversation's loaded messages in the list, scrolled to the newest.
+     *
+     * @param messages The conversation's messages, oldest first.
+     */
+    private void showConversation(ObservableList<Message> messages) {
+        messageList.setItems(messages);
+        if (!messages.isEmpty()) {
+            messageList.scrollTo(messages.size() - 1);
+        }
+    }
 
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+    /**
+     * Reads the messages of an opened conversation newer than the last one loaded, scrolling
+     * to them if it is the open one.
+     *
+     * @param conversationId A conversation that has been opened.
+     */
+    private void fetchNewMessages(int conversationId) {
+        history.fetchNew(conversationId)
+                .thenAccept(added -> {
+                    if (!added.isEmpty() && conversationId == currentConversationId) {
+                        messageList.scrollTo(messageList.getItems().size() - 1);
+                    }
+                })
+                .exceptionally(this::logFailure);
+    }
 
-            stmt.setInt(1, currentConversationId);
+    /**
+     * Reads the page of messages before the oldest one loaded in the open conversation. The
+     * page is prepended and the list kept on the message that was at the top, so the history
+     * grows above the user instead of jumping.
+     */
+    private void loadOlderMessages() {
+        int conversationId = currentConversationId;
+        if (!history.hasOlder(conversationId)) {
+            return;
+        }
+        history.loadOlder(conversationId)
+                .thenAccept(prepended -> {
+                    if (prepended > 0 && conversationId == currentConversationId) {
+                        messageList.scrollTo(prepended);
+                    }
+                })
+                .exceptionally(this::logFailure);
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    int senderId = rs.getInt("senderID");
-                    String content = rs.getString("content");
-                    String timestamp = rs.getString("timestamp");
+    /**
+     * Loads older messages whenever the message list is scrolled to the top. Only user
+     * scrolling moves the bar there: opening a conversation or prepending a page scrolls
+     * the list away from the top in the same pulse. The scroll bars only exist once the
+     * list has a skin.
+     */
+    private void loadOlderWhenScrolledToTop() {
+        for (Node node : messageList.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                bar.valueProperty().addListener((obs, oldValue, value) -> {
+                    if (value.doubleValue() <= bar.getMin()) {
+                        loadOlderMessages();
+                    }
+                });
+            }
+        }
+    }
 
-                    // Create a new label for each message
-                    Label messageLabel = new Label(content);
-                    messageLabel.setWrapText(true);        // allows multiline messages
-                    messageLabel.setMaxWidth(300);         // limit message bubble width
+    /**
+     * A reusable message bubble, aligned by sender. The list only creates enough of these to
+     * fill the screen and refills them as it scrolls, so a conversation costs the same to
+     * show however long it is. Colours and alignment come from Message.css.
+     */
+    private class MessageCell extends ListCell<Message> {
+        private final Label bubble = new Label();
+        private final HBox row = new HBox(bubble);
+
+        MessageCell() {
+            bubble.setWrapText(true);        // allows multiline messages
+            bubble.setMaxWidth(300);         // limit message bubble width
+            bubble.getStyleClass().add("message-bubble");
+            row.getStyleClass().add("message-row");
+            getStyleClass().add("message-cell");
+            setPrefWidth(0);                 // wrap to the list's width instead of scrolling sideways
+        }
 
-                    // Wrap label in HBox to align left/right depending on sender
-                    HBox messageBox = new HBox(messageLabel);
+        @Override
+        protected void updateItem(Message message, boolean empty) {
+            super.updateItem(message, empty);
+            if (empty || message == null) {
+                setGraphic(null);
+                pseudoClassStateChanged(MINE, false);
+                return;
+            }
 
-                    // Style based on who sent the message
-                    if (senderId == UserSession.getLoggedInUser().getId()) {
-                        // My message
-                        messageLabel.setStyle("-fx-background-color: #DCF8C6; -fx-padding: 8; -fx-background-radius: 10;");
-                        messageBox.setStyle("-fx-alignment: center-right; -fx-padding: 5;");
-                    } else {
-                        // Their message
-                        messageLabel.setStyle("-fx-background-color: #FFFFFF; -fx-padding: 8; -fx-background-radius: 10;");
-                        messageBox.setStyle("-fx-alignment: center-left; -fx-padding: 5;");
-                    }
+            bubble.setText(message.getContent());
+            pseudoClassStateChanged(MINE, message.getSenderId() == UserSession.getLoggedInUser().getId());
+            setGraphic(row);
+        }
+    }
 
-                    messageContainer.getChildren().add(messageBox); // add to UI
-                }
+    /**
+     * Applies a batch of changes from the change bus. New messages are read back in one query
+     * to update their previews, and each opened conversation they belong to fetches what it has
+     * not seen yet; only a new conversation reloads the sidebar.
+     *
+     * @param events The coalesced changes.
+     */
+    private void applyChanges(List<ChangeEvent> events) {
+        List<Integer> newMessages = new ArrayList<>();
+        boolean newConversation = false;
+        for (ChangeEvent event : events) {
+            if (event.entity() == ChangeEvent.Entity.CONVERSATION) {
+                newConversation = true;
+            } else if (event.operation() == ChangeEvent.Operation.INSERT) {
+                newMessages.add(event.id());
             }
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (newConversation) {
+            loadConversations();
         }
+        if (!newMessages.isEmpty()) {
+            asyncDao.fetch(() -> dbManager.getMessagesById(newMessages))
+                    .thenAccept(found -> {
+                        found.forEach(this::applyMessage);
+                        found.stream().map(Message::getConversationId).distinct()
+                                .filter(id -> history.get(id) != null)
+                                .forEach(this::fetchNewMessages);
+                    })
+                    .exceptionally(this::logFailure);
+        }
+    }
+
+    /**
+     * Moves a conversation's preview to the top of the sidebar, showing its new message.
+     *
+     * @param message The message that was sent.
+     */
+    private void applyMessage(Message message) {
+        int conversationId = message.getConversationId();
+        String name = conversationNames.get(conversationId);
+        if (name == null) {
+            // Another user's conversation (the database may be shared), or a new one the sidebar
+            // is already reloading for because its CONVERSATION event came first
+            return;
+        }
+        conversationList.getChildren().removeIf(node -> Objects.equals(node.getUserData(), conversationId));
+        HBox previewBox = createConversationPreviewBox(conversationId, name,
+                MessagingDatabaseManager.preview(message.getContent()), message.getTimestamp());
+        conversationList.getChildren().add(0, previewBox);
+        if (conversationId == currentConversationId) {
+            highlightSelectedConversation(previewBox);
+        }
+    }
+
+    /**
+     * Prints a failed background call, ignoring ones that were replaced by a newer request.
+     *
+     * @param error The failure delivered by the future.
+     * @return Always null, so it can be used directly in exceptionally.
+     */
+    private Void logFailure(Throwable error) {
+        if (!AsyncDao.isCancellation(error)) {
+            AsyncDao.unwrap(error).printStackTrace();
+        }
+        return null;
     }
 
     /**
@@ -162,50 +360,52 @@ public class MessageController {
                 return;
             }
 
+            int targetUserId;
             try {
-                int targetUserId = Integer.parseInt(userIdStr);
-                int currentUserId = UserSession.getLoggedInUser().getId();
-
-                // Prevent users from messaging themselves
-                if (targetUserId == currentUserId) {
-                    showAlert(Alert.AlertType.ERROR, "Invalid Input", "You can't message yourself.");
-                    return;
-                }
-
-                // Try to create or fetch an existing conversation
-                int newConversationId = dbManager.createOrGetConversation(currentUserId, targetUserId);
-
-                if (newConversationId > 0) {
-                    showAlert(Alert.AlertType.INFORMATION, "Conversation Created",
-                            "New chat started with user ID: " + targetUserId);
-
-                    // Set this as the current conversation
-                    currentConversationId = newConversationId;
-                    loadConversations();
-                    loadMessages();
-
-                    // Enable input and send button now that convo exists
-                    messageInput.setDisable(false);
-                    sendButton.setDisable(false);
-
-                    // Highlight the conversation just opened
-                    for (var node : conversationList.getChildren()) {
-                        if (node.getUserData() instanceof Integer id && id == newConversationId) {
-                            highlightSelectedConversation((HBox) node);
-                            break;
-                        }
-                    }
-
-                } else {
-                    showAlert(Alert.AlertType.ERROR, "Database Error", "Could not create conversation.");
-                }
-
+                targetUserId = Integer.parseInt(userIdStr);
             } catch (NumberFormatException e) {
                 showAlert(Alert.AlertType.ERROR, "Invalid Input", "User ID must be a number.");
+                return;
+            }
+            int currentUserId = UserSession.getLoggedInUser().getId();
+
+            // Prevent users from messaging themselves
+            if (targetUserId == currentUserId) {
+                showAlert(Alert.AlertType.ERROR, "Invalid Input", "You can't message yourself.");
+                return;
             }
+
+            // Try to create or fetch an existing conversation
+            asyncDao.write(() -> dbManager.createOrGetConversation(currentUserId, targetUserId))
+                    .thenAccept(newConversationId -> openNewConversation(newConversationId, targetUserId))
+                    .exceptionally(this::logFailure);
         });
     }
 
+    /**
+     * Switches to a conversation that was just created or looked up from the "New Message" dialog.
+     *
+     * @param newConversationId The conversation ID, or -1 if it could not be created.
+     * @param targetUserId      The user the conversation is with.
+     */
+    private void openNewConversation(int newConversationId, int targetUserId) {
+        if (newConversationId > 0) {
+            showAlert(Alert.AlertType.INFORMATION, "Conversation Created",
+                    "New chat started with user ID: " + targetUserId);
+
+            // Set this as the current conversation
+            currentConversationId = newConversationId;
+            loadConversations();    // the refreshed list highlights the current conversation
+            loadMessages();
+
+            // Enable input and send button now that convo exists
+            messageInput.setDisable(false);
+            sendButton.setDisable(false);
+        } else {
+            showAlert(Alert.AlertType.ERROR, "Database Error", "Could not create conversation.");
+        }
+    }
+
     /**
      * Sends a message into the currently selected conversation.
      *
@@ -217,19 +417,15 @@ public class MessageController {
             return;
         }
 
-        String insert = "INSERT INTO messages (conversationID, senderID, content, timestamp) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
-
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(insert)) {
+        int conversationId = currentConversationId;
+        int senderId = UserSession.getLoggedInUser().getId();
 
-            stmt.setInt(1, currentConversationId);
-            stmt.setInt(2, UserSession.getLoggedInUser().getId());
-            stmt.setString(3, content);
-            stmt.executeUpdate();
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        // The message and its preview are added when the change bus announces it
+        asyncDao.write(() -> {
+                    dbManager.sendMessage(conversationId, senderId, content);
+                    return null;
+                })
+                .exceptionally(this::logFailure);
     }
 
     /**
@@ -239,46 +435,23 @@ public class MessageController {
     public void loadConversations() {
         int loggedInUserId = UserSession.getLoggedInUser().getId();
 
-        String sql = """
-                SELECT c.id,
-                CASE 
-                    WHEN c.userOneID = ? THEN 'User ' || c.userTwoID
-                    WHEN c.userTwoID = ? THEN 'User ' || c.userOneID
-                    ELSE 'Conversation' END AS name,
-                m.content, m.timestamp
-                FROM conversations c
-                LEFT JOIN messages m ON m.id = (
-                    SELECT id FROM messages WHERE conversationID = c.id ORDER BY timestamp DESC LIMIT 1
-                )
-                WHERE c.userOneID = ? OR c.userTwoID = ?
-                ORDER BY m.timestamp DESC
-                """;
-
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, loggedInUserId);
-            stmt.setInt(2, loggedInUserId);
-            stmt.setInt(3, loggedInUserId);
-            stmt.setInt(4, loggedInUserId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                conversationList.getChildren().clear();  // Clear old convos
-
-                while (rs.next()) {
-                    int conversationId = rs.getInt("id");
-                    String name = rs.getString("name");
-                    String lastMessage = rs.getString("content");
-                    String timestamp = rs.getString("timestamp");
-
-                    // Make a small preview box with name and snippet
-                    HBox convBox = createConversationPreviewBox(conversationId, name, lastMessage, timestamp);
-                    conversationList.getChildren().add(convBox);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        asyncDao.fetchLatest("conversations", () -> dbManager.getConversationSummaries(loggedInUserId))
+                .thenAccept(summaries -> {
+                    conversationList.getChildren().clear();  // Clear old convos
+                    conversationNames.clear();
+
+                    for (ConversationSummary summary : summaries) {
+                        conversationNames.put(summary.getConversationId(), summary.getName());
+                        // Make a small preview box with name and snippet
+                        HBox convBox = createConversationPreviewBox(summary.getConversationId(), summary.getName(),
+                                summary.getLastMessage(), summary.getLastMessageAt());
+                        if (summary.getConversationId() == currentConversationId) {
+                            highlightSelectedConversation(convBox);
+                        }
+                        conversationList.getChildren().add(convBox);
+                    }
+                })
+                .exceptionally(this::logFailure);
     }
 
     /**
@@ -0,0 +1,149 @@
+package com.example.teamalfred.controllers;
+
+import com.example.teamalfred.database.AsyncDao;
+import com.example.teamalfred.database.Message;
+import com.example.teamalfred.database.MessagingDatabaseManager;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The messages read so far for each conversation the user has opened, oldest first.
+ * <p>
+ * Opening a conversation reads only its latest page. Older pages are read one at a time,
+ * only when asked for (the message view asks when the user scrolls to the top), and newer
+ * messages are read past the last one loaded, so nothing is ever read twice.
+ * </p>
+ * <p>
+ * Not thread-safe: use it from the thread the {@link AsyncDao} delivers results on.
+ * </p>
+ */
+class MessageHistory {
+
+    /** How many messages are read at a time: the latest page on opening, older ones on request. */
+    static final int PAGE_SIZE = 50;
+
+    private final MessagingDatabaseManager dbManager;
+    private final AsyncDao asyncDao;
+
+    // The last message of each list is the high-water mark for fetchNew
+    private final Map<Integer, ObservableList<Message>> loaded = new HashMap<>();
+    // Conversations whose first message has been read, so there is nothing older to page in
+    private final Set<Integer> fullyLoaded = new HashSet<>();
+    // Conversations with an older page being read, so it is not requested twice
+    private final Set<Integer> loadingOlder = new HashSet<>();
+
+    /**
+     * @param dbManager Where the messages are read from.
+     * @param asyncDao  Runs the reads and delivers their results.
+     */
+    MessageHistory(MessagingDatabaseManager dbManager, AsyncDao asyncDao) {
+        this.dbManager = dbManager;
+        this.asyncDao = asyncDao;
+    }
+
+    /**
+     * @param conversationId A conversation.
+     * @return Its loaded messages, or null if it has not been opened.
+     */
+    ObservableList<Message> get(int conversationId) {
+        return loaded.get(conversationId);
+    }
+
+    /**
+     * Returns a conversation's messages, reading its latest page if it has not been opened
+     * before. Messages sent since it was last shown are not included; follow with
+     * {@link #fetchNew(int)}.
+     *
+     * @param conversationId The conversation to open.
+     * @return A future with the conversation's loaded messages.
+     */
+    CompletableFuture<ObservableList<Message>> open(int conversationId) {
+        ObservableList<Message> messages = loaded.get(conversationId);
+        if (messages != null) {
+            return CompletableFuture.completedFuture(messages);
+        }
+        return asyncDao.fetchLatest("messages-" + conversationId,
+                        () -> dbManager.getRecentMessages(conversationId, PAGE_SIZE))
+                .thenApply(page -> {
+                    if (page.size() < PAGE_SIZE) {
+                        fullyLoaded.add(conversationId);
+                    }
+                    return loaded.computeIfAbsent(conversationId, id -> FXCollections.observableArrayList(page));
+                });
+    }
+
+    /**
+     * Reads the messages of an opened conversation newer than the last one loaded and appends
+     * them. Messages at or below the high-water mark were added by an earlier fetch and are skipped.
+     *
+     * @param conversationId A conversation that has been opened.
+     * @return A future with the messages that were appended, possibly none.
+     */
+    CompletableFuture<List<Message>> fetchNew(int conversationId) {
+        ObservableList<Message> messages = loaded.get(conversationId);
+        if (messages == null) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        int lastSeenId = lastSeenId(messages);
+        return asyncDao.fetchLatest("messages-" + conversationId, () -> dbManager.getMessagesAfter(conversationId, lastSeenId))
+                .thenApply(found -> {
+                    int newest = lastSeenId(messages);
+                    List<Message> newer = found.stream().filter(message -> message.getId() > newest).toList();
+                    messages.addAll(newer);
+                    return newer;
+                });
+    }
+
+    /**
+     * Reads the page before the oldest loaded message of a conversation and prepends it.
+     * Does nothing if the conversation is fully loaded or a page is already being read.
+     *
+     * @param conversationId A conversation that has been opened.
+     * @return A future with the number of messages prepended, 0 if none were read.
+     */
+    CompletableFuture<Integer> loadOlder(int conversationId) {
+        ObservableList<Message> messages = loaded.get(conversationId);
+        if (messages == null || messages.isEmpty() || fullyLoaded.contains(conversationId)
+                || !loadingOlder.add(conversationId)) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        int oldestId = messages.get(0).getId();
+        return asyncDao.fetch(() -> dbManager.getMessagesBefore(conversationId, oldestId, PAGE_SIZE))
+                .whenComplete((older, error) -> loadingOlder.remove(conversationId)) // a failure can be retried
+                .thenApply(older -> {
+                    if (older.size() < PAGE_SIZE) {
+                        fullyLoaded.add(conversationId);
+                    }
+                    messages.addAll(0, older);
+                    return older.size();
+                });
+    }
+
+    /**
+     * @param conversationId A conversation.
+     * @return Whether it has been opened and older messages remain to be read.
+     */
+    boolean hasOlder(int conversationId) {
+        return loaded.containsKey(conversationId) && !fullyLoaded.contains(conversationId);
+    }
+
+    /**
+     * Forgets every conversation, e.g. when the user logs out.
+     */
+    void clear() {
+        loaded.clear();
+        fullyLoaded.clear();
+        loadingOlder.clear();
+    }
+
+    private static int lastSeenId(List<Message> messages) {
+        return messages.isEmpty() ? 0 : messages.get(messages.size() - 1).getId();
+    }
+}
@@ -10,12 +10,13 @@ public class Assessment {
     private String status;
     private String type;
     private int studentId;
+    private int definitionId;
 
     /**
      *
      * @param title
      * @param subject
-     * @param dueDate
+     * @param dueDate The due date as ISO {@code yyyy-MM-dd} text.
      * @param status
      * @param type
      */
@@ -27,6 +28,19 @@ public class Assessment {
         this.type = type;
     }
 
+    /**
+     * Creates a new, unsaved assessment. Its status is filled in when it is read back,
+     * as status is derived from the due date.
+     *
+     * @param title
+     * @param subject
+     * @param dueDate The due date as ISO {@code yyyy-MM-dd} text.
+     * @param type
+     */
+    public Assessment(String title, String subject, String dueDate, String type) {
+        this(title, subject, dueDate, null, type);
+    }
+
     public int getStudentId() {
         return studentId;
     }
@@ -35,6 +49,18 @@ public class Assessment {
         this.studentId = studentId;
     }
 
+    /**
+     * @return The ID of the shared definition (title, subject, due date and type) this assessment
+     *         is an assignment of, or 0 if it has not been saved yet.
+     */
+    public int getDefinitionId() {
+        return definitionId;
+    }
+
+    public void setDefinitionId(int definitionId) {
+        this.definitionId = definitionId;
+    }
+
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
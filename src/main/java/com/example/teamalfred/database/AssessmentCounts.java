@@ -0,0 +1,79 @@
+package com.example.teamalfred.database;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Assessment totals grouped by subject, status and type, read with one grouped query.
+ * Each assessment is counted once per student it is set for.
+ */
+public class AssessmentCounts {
+
+    /**
+     * The number of assessments sharing a subject, status and type.
+     *
+     * @param subject The subject name, or {@code null} for assessments without one.
+     * @param status  The status as of the day the counts were read.
+     * @param type    The assessment type, or {@code null}.
+     * @param count   The number of assessments in the group.
+     */
+    public record Group(String subject, AssessmentStatus status, String type, int count) {}
+
+    private final List<Group> groups;
+
+    /**
+     * Creates the totals from the grouped rows.
+     *
+     * @param groups One entry per (subject, status, type) combination that has assessments.
+     */
+    public AssessmentCounts(List<Group> groups) {
+        this.groups = List.copyOf(groups);
+    }
+
+    public List<Group> getGroups() { return groups; }
+
+    /**
+     * @return The number of assessments across all groups.
+     */
+    public int getTotal() {
+        return groups.stream().mapToInt(Group::count).sum();
+    }
+
+    /**
+     * @return The number of assessments with each status; statuses without any are 0.
+     */
+    public Map<AssessmentStatus, Integer> getByStatus() {
+        Map<AssessmentStatus, Integer> counts = new EnumMap<>(AssessmentStatus.class);
+        for (AssessmentStatus status : AssessmentStatus.values()) {
+            counts.put(status, 0);
+        }
+        groups.forEach(group -> counts.merge(group.status(), group.count(), Integer::sum));
+        return counts;
+    }
+
+    /**
+     * @return The number of assessments in each subject, by subject name.
+     */
+    public Map<String, Integer> getBySubject() {
+        return sum(Group::subject);
+    }
+
+    /**
+     * @return The number of assessments of each type, by type name.
+     */
+    public Map<String, Integer> getByType() {
+        return sum(Group::type);
+    }
+
+    private Map<String, Integer> sum(Function<Group, String> key) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Group group : groups) {
+            String name = key.apply(group);
+            counts.merge(name == null ? "None" : name, group.count(), Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -1,8 +1,84 @@
 package com.example.teamalfred.database;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface AssessmentDAO {
     List<Assessment> getAllAssessments() throws SQLException;
-}
\ No newline at end of file
+
+    /**
+     * Loads every student's assessments due in a date range, earliest first.
+     *
+     * @param from The first day of the range (inclusive).
+     * @param to   The last day of the range (inclusive).
+     * @return One {@link Assessment} per student the assessment is set for.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Assessment> getDueBetween(LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Loads the assessment definitions due in a date range, each with its number of students,
+     * earliest first. Reads one row per definition rather than one per student.
+     *
+     * @param from The first day of the range (inclusive).
+     * @param to   The last day of the range (inclusive).
+     * @return One {@link DueAssessment} per definition due in the range.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<DueAssessment> getDefinitionsDueBetween(LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Loads a student's next assessments, earliest first.
+     *
+     * @param studentId The ID of the student.
+     * @param from      The first due date to include, usually today.
+     * @param limit     The maximum number of assessments to return.
+     * @return Up to {@code limit} assessments due on or after {@code from}.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Assessment> getUpcomingForStudent(int studentId, LocalDate from, int limit) throws SQLException;
+
+    /**
+     * Loads the assessments that are overdue on a given day: not completed, and due that day
+     * or in the {@link AssessmentStatus#OVERDUE_DAYS} days before it. Older ones count as closed.
+     *
+     * @param today The day to check, usually today.
+     * @return The overdue assessments, earliest first.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Assessment> getOverdue(LocalDate today) throws SQLException;
+
+    /**
+     * Loads the assessments that have a status on a given day, earliest due first.
+     * The {@code status} of the returned assessments is always as of the current date.
+     *
+     * @param status The status to filter by.
+     * @param today  The day the status applies to, usually today.
+     * @return The matching assessments.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Assessment> getByStatus(AssessmentStatus status, LocalDate today) throws SQLException;
+
+    /**
+     * Counts today's assessments by subject, status and type in one grouped query.
+     * The result is cached until an assessment is written or the date changes.
+     *
+     * @return The grouped totals.
+     * @throws SQLException If a database access error occurs.
+     */
+    AssessmentCounts getCounts() throws SQLException;
+
+    /**
+     * Re-reads the rows of one student's assessments named in a batch of {@link ChangeEvent}s.
+     *
+     * @param studentId     The student whose assessments are shown.
+     * @param assessmentIds Assignment IDs that were inserted or updated.
+     * @param definitionIds Definition IDs that were inserted or updated.
+     * @return The student's current rows among those requested.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Assessment> getChangedForStudent(int studentId, Collection<Integer> assessmentIds,
+                                          Collection<Integer> definitionIds) throws SQLException;
+}
@@ -0,0 +1,68 @@
+package com.example.teamalfred.database;
+
+/**
+ * The status of a student's assessment.
+ * <p>
+ * Status is not stored. The {@code assessments} view derives it from the due date and the
+ * assignment's {@code completed} flag each time it is read, so it never goes stale:
+ * an assessment is {@link #DUE} until its due date, {@link #OVERDUE} from the due date for
+ * {@link #OVERDUE_DAYS} more days, and {@link #CLOSED} after that, unless the student has
+ * {@link #COMPLETED} it.
+ * </p>
+ */
+public enum AssessmentStatus {
+    DUE("Due"),
+    OVERDUE("Overdue"),
+    CLOSED("Closed"),
+    COMPLETED("Completed");
+
+    /** Days after its due date that an assessment is still overdue rather than closed. */
+    public static final int OVERDUE_DAYS = 2;
+
+    private final String label;
+
+    AssessmentStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return The status as shown to users and returned in the view's {@code status} column.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Looks up a status by its label, as read from the view's {@code status} column.
+     *
+     * @param label The status label.
+     * @return The matching status.
+     * @throws IllegalArgumentException if no status has that label.
+     */
+    public static AssessmentStatus fromLabel(String label) {
+        for (AssessmentStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown assessment status: " + label);
+    }
+
+    /**
+     * @return A SQL condition on the {@code assessments} view that is true for assessments with
+     *         this status. Due-date bounds are {@code ?} parameters; see {@link SqliteAssessmentDAO}.
+     */
+    String getPredicate() {
+        return switch (this) {
+            case DUE -> "completed = 0 AND dueDate > ?";
+            case OVERDUE -> "completed = 0 AND dueDate BETWEEN ? AND ?";
+            case CLOSED -> "completed = 0 AND dueDate < ?";
+            case COMPLETED -> "completed = 1";
+        };
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
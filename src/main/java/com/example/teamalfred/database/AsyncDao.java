@@ -0,0 +1,159 @@
+package com.example.teamalfred.database;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs DAO calls off the caller's thread and delivers their results on a chosen executor.
+ * <p>
+ * Controllers create one {@code AsyncDao} with {@code Platform::runLater} as the result
+ * executor, so JDBC never runs on the JavaFX Application Thread but callbacks do.
+ * Reads run on a small shared pool sized to the connection pool's readers; writes run on a
+ * single shared thread so they reach the one writer connection in submission order.
+ * Long jobs that commit in many short transactions of their own (such as a roster import)
+ * run on a separate thread, so ordinary writes are not queued behind the whole job.
+ * </p>
+ * <p>
+ * {@link #fetchLatest(String, SqlCall)} tags a read with a key. Starting a newer read with
+ * the same key cancels the older future, so a stale result (e.g. the roster of a class the
+ * user has already switched away from) is never delivered.
+ * </p>
+ */
+public class AsyncDao {
+
+    /** Worker threads for reads; matches the number of reader connections in the pool. */
+    private static final int READ_THREADS = 4;
+
+    private static final ExecutorService READ_EXECUTOR = newExecutor("db-read", READ_THREADS);
+    private static final ExecutorService WRITE_EXECUTOR = newExecutor("db-write", 1);
+    private static final ExecutorService BATCH_EXECUTOR = newExecutor("db-batch", 1);
+
+    private final Executor resultExecutor;
+    private final Map<String, CompletableFuture<?>> latestByKey = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an async facade whose futures complete on the given executor.
+     *
+     * @param resultExecutor Where results are delivered (e.g. {@code Platform::runLater}).
+     */
+    public AsyncDao(Executor resultExecutor) {
+        this.resultExecutor = resultExecutor;
+    }
+
+    /**
+     * Runs a read-only call on the read pool.
+     *
+     * @param call The DAO call to run.
+     * @param <T>  The result type.
+     * @return A future completed with the result on the result executor.
+     */
+    public <T> CompletableFuture<T> fetch(SqlCall<T> call) {
+        return submit(call, READ_EXECUTOR);
+    }
+
+    /**
+     * Runs a read-only call, cancelling any earlier call started with the same key that
+     * has not completed yet.
+     *
+     * @param key  Identifies the kind of request (e.g. "roster").
+     * @param call The DAO call to run.
+     * @param <T>  The result type.
+     * @return A future completed with the result, or cancelled if superseded by a newer call.
+     */
+    public <T> CompletableFuture<T> fetchLatest(String key, SqlCall<T> call) {
+        CompletableFuture<T> future = submit(call, READ_EXECUTOR);
+        CompletableFuture<?> previous = latestByKey.put(key, future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        future.whenComplete((result, error) -> latestByKey.remove(key, future));
+        return future;
+    }
+
+    /**
+     * Runs a call that modifies data. Writes are executed one at a time, in submission order.
+     *
+     * @param call The DAO call to run.
+     * @param <T>  The result type.
+     * @return A future completed with the result on the result executor.
+     */
+    public <T> CompletableFuture<T> write(SqlCall<T> call) {
+        return submit(call, WRITE_EXECUTOR);
+    }
+
+    /**
+     * Runs a long call that takes the writer lease itself, once per transaction, on a thread
+     * of its own. Writes submitted with {@link #write(SqlCall)} meanwhile get the writer
+     * between its transactions instead of waiting for the whole call. Batch calls run one at
+     * a time, in submission order.
+     *
+     * @param call The DAO call to run.
+     * @param <T>  The result type.
+     * @return A future completed with the result on the result executor.
+     */
+    public <T> CompletableFuture<T> writeInBatches(SqlCall<T> call) {
+        return submit(call, BATCH_EXECUTOR);
+    }
+
+    /**
+     * Tells whether a failure only means the request was superseded or cancelled,
+     * in which case callers should silently ignore it.
+     *
+     * @param error The throwable passed to an exception handler.
+     * @return {@code true} if it represents a cancellation.
+     */
+    public static boolean isCancellation(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof CancellationException;
+    }
+
+    /**
+     * Unwraps the {@link CompletionException} around a failed call so callers see the original error.
+     *
+     * @param error The throwable passed to an exception handler.
+     * @return The underlying cause, usually an {@link SQLException}.
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private <T> CompletableFuture<T> submit(SqlCall<T> call, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture.runAsync(() -> {
+            if (result.isDone()) {
+                return; // cancelled before it started
+            }
+            try {
+                T value = call.call();
+                resultExecutor.execute(() -> result.complete(value));
+            } catch (SQLException | RuntimeException e) {
+                resultExecutor.execute(() -> result.completeExceptionally(new CompletionException(e)));
+            }
+        }, executor);
+        return result;
+    }
+
+    private static ExecutorService newExecutor(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true); // never keep the JVM alive after the UI closes
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
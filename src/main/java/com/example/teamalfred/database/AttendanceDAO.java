@@ -1,6 +1,10 @@
 package com.example.teamalfred.database;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public interface AttendanceDAO {
@@ -28,6 +32,20 @@ public interface AttendanceDAO {
             String notes
     ) throws SQLException;
 
+    /**
+     * Saves a whole register for one class and date in a single transaction.
+     * Rows that fail {@link AttendanceEntry#isValid()} are skipped; if the database
+     * rejects any row, nothing from the register is saved and the exception is thrown.
+     *
+     * @param classId The ID of the class.
+     * @param date    The date of the register (ISO-8601, YYYY-MM-DD).
+     * @param entries One entry per student.
+     * @return One outcome per entry, in iteration order: the update count for saved rows,
+     *         or {@link java.sql.Statement#EXECUTE_FAILED} for rows that were rejected.
+     * @throws SQLException If a database access error occurs; the register is rolled back.
+     */
+    int[] saveAttendanceBatch(int classId, String date, Collection<AttendanceEntry> entries) throws SQLException;
+
     /**
      *
      * @param classId
@@ -38,13 +56,85 @@ public interface AttendanceDAO {
     Map<Integer, AttendanceRecord> getAttendanceMapForClassAndDate(int classId, String date) throws SQLException;
 
     /**
+     * Counts the days in a month on which a student had the given status.
      *
-     * @param studentId
-     * @param statusColumn
-     * @param month
-     * @return
-     * @throws SQLException
+     * @param studentId The ID of the student.
+     * @param status    The status to count.
+     * @param month     The month to check.
+     * @return The number of matching attendance records.
+     * @throws SQLException If a database access error occurs.
+     */
+    default int countByStatusInMonth(int studentId, AttendanceStatus status, YearMonth month) throws SQLException {
+        return getMonthlySummary(studentId, month).getCount(status);
+    }
+
+    /**
+     * Counts the days in a date range on which a student had the given status.
+     *
+     * @param studentId The ID of the student.
+     * @param status    The status to count.
+     * @param from      The first day of the range (inclusive).
+     * @param to        The last day of the range (inclusive).
+     * @return The number of matching attendance records.
+     * @throws SQLException If a database access error occurs.
+     */
+    int countByStatusBetween(int studentId, AttendanceStatus status, LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Loads a student's attendance records in a date range, across all classes, oldest first.
+     *
+     * @param studentId The ID of the student.
+     * @param from      The first day of the range (inclusive).
+     * @param to        The last day of the range (inclusive).
+     * @return The records, each with its class ID and date filled in.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<AttendanceRecord> getAttendanceForStudentBetween(int studentId, LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Counts present, absent, late and excused days for every student of a class over a
+     * date range in a single query, for showing a whole register's statistics at once.
+     *
+     * @param classId The ID of the class.
+     * @param from    The first day of the range (inclusive).
+     * @param to      The last day of the range (inclusive).
+     * @return Counts for every student with at least one record in the range.
+     * @throws SQLException If a database access error occurs.
+     */
+    ClassAttendanceStatistics getClassStatistics(int classId, LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Returns a student's attendance totals for one month, across all classes.
+     *
+     * @param studentId The ID of the student.
+     * @param month     The month to summarise.
+     * @return The totals; all zero if nothing was recorded.
+     * @throws SQLException If a database access error occurs.
+     */
+    default AttendanceSummary getMonthlySummary(int studentId, YearMonth month) throws SQLException {
+        return getSummaryBetween(studentId, month, month);
+    }
+
+    /**
+     * Returns a student's attendance totals over a range of whole months (e.g. a term),
+     * across all classes. Served from the monthly rollup rather than the raw records.
+     *
+     * @param studentId The ID of the student.
+     * @param from      The first month (inclusive).
+     * @param to        The last month (inclusive).
+     * @return The totals; all zero if nothing was recorded.
+     * @throws SQLException If a database access error occurs.
+     */
+    AttendanceSummary getSummaryBetween(int studentId, YearMonth from, YearMonth to) throws SQLException;
+
+    /**
+     * Recomputes the monthly rollups from the raw attendance records. The rollups are kept
+     * up to date on every save, so this is only needed to repair them (e.g. after editing
+     * the attendance table by hand).
+     *
+     * @return The number of rollup rows written.
+     * @throws SQLException If a database access error occurs.
      */
-    int countByStatusInMonth(int studentId, String statusColumn, java.time.YearMonth month) throws SQLException;
+    int rebuildMonthlyRollups() throws SQLException;
 
 }
\ No newline at end of file
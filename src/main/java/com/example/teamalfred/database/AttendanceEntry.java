@@ -0,0 +1,52 @@
+package com.example.teamalfred.database;
+
+/**
+ * One student's row of an attendance register, as passed to
+ * {@link AttendanceDAO#saveAttendanceBatch(int, String, java.util.Collection)}.
+ * The class and date are shared by the whole register, so they are not repeated here.
+ */
+public class AttendanceEntry {
+    private final int studentId;
+    private final boolean present;
+    private final boolean absent;
+    private final boolean late;
+    private final boolean excused;
+    private final String notes;
+
+    /**
+     * Creates a register row.
+     *
+     * @param studentId The ID of the student.
+     * @param present   Whether the student was present.
+     * @param absent    Whether the student was absent.
+     * @param late      Whether the student was late.
+     * @param excused   Whether the student's absence was excused.
+     * @param notes     Any additional notes, may be null.
+     */
+    public AttendanceEntry(int studentId, boolean present, boolean absent, boolean late, boolean excused, String notes) {
+        this.studentId = studentId;
+        this.present = present;
+        this.absent = absent;
+        this.late = late;
+        this.excused = excused;
+        this.notes = notes;
+    }
+
+    /**
+     * A row can be saved if it refers to a real student and marks at most one of
+     * present, absent and excused (late may be combined with present).
+     *
+     * @return {@code true} if the row is consistent.
+     */
+    public boolean isValid() {
+        int marks = (present ? 1 : 0) + (absent ? 1 : 0) + (excused ? 1 : 0);
+        return studentId > 0 && marks <= 1;
+    }
+
+    public int getStudentId() { return studentId; }
+    public boolean isPresent() { return present; }
+    public boolean isAbsent() { return absent; }
+    public boolean isLate() { return late; }
+    public boolean isExcused() { return excused; }
+    public String getNotes() { return notes; }
+}
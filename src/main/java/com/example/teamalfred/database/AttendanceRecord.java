@@ -1,18 +1,32 @@
 package com.example.teamalfred.database;
 
+/**
+ * One attendance row. Records loaded for a single class and date only fill in the status
+ * and notes; records loaded for a date range also carry the student, class and date.
+ * The exclusive present/absent/excused flags are held as one {@link AttendanceStatus} code.
+ */
 public class AttendanceRecord {
-    public boolean present;
-    public boolean absent;
+    public int studentId;
+    public int classId;
+    public String date; // ISO-8601 (YYYY-MM-DD)
+    public int status;  // AttendanceStatus code, or AttendanceStatus.UNMARKED
     public boolean late;
-    public boolean excused;
     public String notes;
 
-    public AttendanceRecord(boolean present, boolean absent, boolean late, boolean excused, String notes) {
-        this.present = present;
-        this.absent = absent;
+    public AttendanceRecord(int status, boolean late, String notes) {
+        this.status = status;
         this.late = late;
-        this.excused = excused;
         this.notes = notes;
     }
-}
 
+    public AttendanceRecord(int studentId, int classId, String date, int status, boolean late, String notes) {
+        this(status, late, notes);
+        this.studentId = studentId;
+        this.classId = classId;
+        this.date = date;
+    }
+
+    public boolean isPresent() { return status == AttendanceStatus.PRESENT.getCode(); }
+    public boolean isAbsent() { return status == AttendanceStatus.ABSENT.getCode(); }
+    public boolean isExcused() { return status == AttendanceStatus.EXCUSED.getCode(); }
+}
@@ -0,0 +1,57 @@
+package com.example.teamalfred.database;
+
+/**
+ * The attendance flags a student can have on a given day.
+ * <p>
+ * Present, absent and excused are mutually exclusive, so they are stored together as one
+ * small-integer code in the {@code status} column ({@link #UNMARKED} when none is set).
+ * Late is not exclusive (a student can be present and late), so it keeps its own
+ * {@code late} flag column and has no status code.
+ * </p>
+ */
+public enum AttendanceStatus {
+    PRESENT(1),
+    ABSENT(2),
+    LATE(-1),
+    EXCUSED(3);
+
+    /** Status code of a record with none of present, absent or excused set. */
+    public static final int UNMARKED = 0;
+
+    private final int code;
+
+    AttendanceStatus(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return The value stored in the status column, or -1 for {@link #LATE}, which is a separate flag.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return A SQL condition on the attendance table that is true for records with this status.
+     */
+    public String getPredicate() {
+        return this == LATE ? "late = 1" : "status = " + code;
+    }
+
+    /**
+     * Encodes the exclusive flags into a status code.
+     *
+     * @param present Whether the student was present.
+     * @param absent  Whether the student was absent.
+     * @param excused Whether the absence was excused.
+     * @return The status code, or {@link #UNMARKED} if no flag is set.
+     * @throws IllegalArgumentException if more than one flag is set.
+     */
+    public static int encode(boolean present, boolean absent, boolean excused) {
+        int set = (present ? 1 : 0) + (absent ? 1 : 0) + (excused ? 1 : 0);
+        if (set > 1) {
+            throw new IllegalArgumentException("Only one of present, absent and excused can be set.");
+        }
+        return present ? PRESENT.code : absent ? ABSENT.code : excused ? EXCUSED.code : UNMARKED;
+    }
+}
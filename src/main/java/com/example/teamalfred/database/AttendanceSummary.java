@@ -0,0 +1,50 @@
+package com.example.teamalfred.database;
+
+/**
+ * Attendance totals for a student over a period (a month or a term), read from the
+ * attendance_monthly rollup table.
+ */
+public class AttendanceSummary {
+    // Number of days with an attendance record
+    private final int recordedDays;
+    private final int present;
+    private final int absent;
+    private final int late;
+    private final int excused;
+
+    /**
+     * Creates a summary.
+     *
+     * @param recordedDays Number of attendance records in the period.
+     * @param present      Days marked present.
+     * @param absent       Days marked absent.
+     * @param late         Days marked late.
+     * @param excused      Days marked excused.
+     */
+    public AttendanceSummary(int recordedDays, int present, int absent, int late, int excused) {
+        this.recordedDays = recordedDays;
+        this.present = present;
+        this.absent = absent;
+        this.late = late;
+        this.excused = excused;
+    }
+
+    public int getRecordedDays() { return recordedDays; }
+    public int getPresent() { return present; }
+    public int getAbsent() { return absent; }
+    public int getLate() { return late; }
+    public int getExcused() { return excused; }
+
+    /**
+     * @param status The status to look up.
+     * @return The number of days with that status.
+     */
+    public int getCount(AttendanceStatus status) {
+        return switch (status) {
+            case PRESENT -> present;
+            case ABSENT -> absent;
+            case LATE -> late;
+            case EXCUSED -> excused;
+        };
+    }
+}
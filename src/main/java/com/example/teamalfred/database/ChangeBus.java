@@ -0,0 +1,172 @@
+package com.example.teamalfred.database;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * An in-process publish/subscribe bus for committed row changes.
+ * <p>
+ * DAOs publish a {@link ChangeEvent} after each write commits, and controllers subscribe
+ * so they can patch the rows they are showing instead of reloading whole lists.
+ * </p>
+ * <p>
+ * Events are not delivered one by one. The first event after a quiet period starts a short
+ * coalescing window; everything published during the window is merged per row (an insert
+ * followed by updates is still an insert, an insert followed by a delete disappears) and
+ * delivered to each subscriber as one batch, in the order the rows first changed. A burst
+ * of writes therefore causes one UI update, not one per row.
+ * </p>
+ */
+public final class ChangeBus {
+
+    /** How long a burst of events is collected before it is delivered. */
+    public static final long COALESCE_MILLIS = 50;
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "change-bus");
+        thread.setDaemon(true); // never keep the JVM alive after the UI closes
+        return thread;
+    });
+
+    private static final ChangeBus SHARED = new ChangeBus(COALESCE_MILLIS);
+
+    private final long coalesceMillis;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Guarded by this; keyed by row so repeated changes to a row merge
+    private Map<RowKey, ChangeEvent.Operation> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // Held while a batch is delivered, so flush() returns only once earlier batches are out
+    private final Object deliveryLock = new Object();
+
+    /**
+     * Creates a bus with its own subscribers and coalescing window.
+     *
+     * @param coalesceMillis How long to collect events before delivering them.
+     */
+    public ChangeBus(long coalesceMillis) {
+        this.coalesceMillis = coalesceMillis;
+    }
+
+    /**
+     * @return The bus every DAO publishes to.
+     */
+    public static ChangeBus shared() {
+        return SHARED;
+    }
+
+    /**
+     * Queues a change for delivery with the current batch.
+     *
+     * @param entity    The kind of row that changed.
+     * @param id        The row's primary key.
+     * @param operation What happened to it.
+     */
+    public void publish(ChangeEvent.Entity entity, int id, ChangeEvent.Operation operation) {
+        if (subscriptions.isEmpty()) {
+            return; // nobody is showing anything that could go stale
+        }
+        RowKey key = new RowKey(entity, id);
+        synchronized (this) {
+            ChangeEvent.Operation previous = pending.get(key);
+            ChangeEvent.Operation merged = previous == null ? operation : previous.then(operation);
+            if (merged == null) {
+                pending.remove(key);
+            } else {
+                pending.put(key, merged);
+            }
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        TIMER.schedule(this::flush, coalesceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to changes of some kinds of rows.
+     *
+     * @param entities The kinds of rows the listener cares about.
+     * @param executor Where the listener runs (e.g. {@code Platform::runLater}).
+     * @param listener Receives each coalesced batch that contains at least one matching event.
+     * @return A handle that stops delivery when closed.
+     */
+    public Subscription subscribe(Set<ChangeEvent.Entity> entities, Executor executor, Consumer<List<ChangeEvent>> listener) {
+        Subscription subscription = new Subscription(EnumSet.copyOf(entities), executor, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Delivers everything published so far without waiting for the coalescing window.
+     * Also waits for a batch that is already being delivered, so once this returns every
+     * event published before the call has been handed to the subscribers' executors.
+     */
+    public void flush() {
+        synchronized (deliveryLock) {
+            Map<RowKey, ChangeEvent.Operation> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                flushScheduled = false;
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<ChangeEvent> events = new ArrayList<>(batch.size());
+            batch.forEach((key, operation) -> events.add(new ChangeEvent(key.entity(), key.id(), operation)));
+            for (Subscription subscription : subscriptions) {
+                subscription.deliver(events);
+            }
+        }
+    }
+
+    private record RowKey(ChangeEvent.Entity entity, int id) {}
+
+    /**
+     * A listener registered with {@link #subscribe(Set, Executor, Consumer)}.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final Set<ChangeEvent.Entity> entities;
+        private final Executor executor;
+        private final Consumer<List<ChangeEvent>> listener;
+        private volatile boolean closed;
+
+        private Subscription(Set<ChangeEvent.Entity> entities, Executor executor, Consumer<List<ChangeEvent>> listener) {
+            this.entities = entities;
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        private void deliver(List<ChangeEvent> events) {
+            List<ChangeEvent> matching = events.stream().filter(e -> entities.contains(e.entity())).toList();
+            if (!matching.isEmpty()) {
+                executor.execute(() -> {
+                    if (!closed) { // closed while the batch was queued on the executor
+                        listener.accept(matching);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Stops delivery, including of batches already queued on the executor.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
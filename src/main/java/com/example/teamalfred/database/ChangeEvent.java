@@ -0,0 +1,54 @@
+package com.example.teamalfred.database;
+
+/**
+ * A committed change to one row, published on the {@link ChangeBus} by the DAO that made it.
+ * <p>
+ * Events carry only the row's identity, not its contents. Listeners that need the new
+ * values read the row back (usually a cache hit), so a burst of updates to the same row
+ * costs one read no matter how many writes it contained.
+ * </p>
+ *
+ * @param entity    The kind of row that changed.
+ * @param id        The row's primary key.
+ * @param operation Whether the row was inserted, updated or deleted.
+ */
+public record ChangeEvent(Entity entity, int id, Operation operation) {
+
+    /**
+     * The kinds of rows whose changes are published.
+     */
+    public enum Entity {
+        STUDENT,
+        CLASSROOM,
+        /** One student's assignment of an assessment; the id is the assignment id. */
+        ASSESSMENT,
+        /** An assessment definition shared by its assignments; the id is the definition id. */
+        ASSESSMENT_DEFINITION,
+        MESSAGE,
+        CONVERSATION
+    }
+
+    /**
+     * What happened to the row.
+     */
+    public enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE;
+
+        /**
+         * Combines two changes to the same row into the one change a listener needs to see.
+         *
+         * @param next The later change.
+         * @return The combined change, or {@code null} if the row was inserted and deleted
+         *         again, so listeners need not hear about it at all.
+         */
+        Operation then(Operation next) {
+            return switch (this) {
+                case INSERT -> next == DELETE ? null : INSERT;
+                case UPDATE -> next == DELETE ? DELETE : UPDATE;
+                case DELETE -> next == DELETE ? DELETE : UPDATE; // the id came back
+            };
+        }
+    }
+}
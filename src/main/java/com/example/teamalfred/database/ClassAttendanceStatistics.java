@@ -0,0 +1,98 @@
+package com.example.teamalfred.database;
+
+import java.util.Arrays;
+
+/**
+ * Per-student attendance counts for one class over a date range, as produced by a single
+ * grouped query.
+ * <p>
+ * The counts are held in flat {@code int} arrays (student IDs sorted ascending, and a fixed
+ * number of counters per student) rather than one object per student, so a class of any
+ * size costs two arrays. Lookups by student ID use a binary search.
+ * </p>
+ */
+public class ClassAttendanceStatistics {
+
+    // Offsets of each counter within a student's slot in counts
+    static final int RECORDED = 0;
+    static final int PRESENT = 1;
+    static final int ABSENT = 2;
+    static final int LATE = 3;
+    static final int EXCUSED = 4;
+    static final int ATTENDED = 5;
+    static final int STRIDE = 6;
+
+    private final int[] studentIds;
+    private final int[] counts;
+    private final int size;
+
+    /**
+     * Wraps arrays filled by the DAO. Only the first {@code size} students are used.
+     *
+     * @param studentIds Student IDs in ascending order.
+     * @param counts     {@link #STRIDE} counters per student, in the same order.
+     * @param size       The number of students.
+     */
+    ClassAttendanceStatistics(int[] studentIds, int[] counts, int size) {
+        this.studentIds = studentIds;
+        this.counts = counts;
+        this.size = size;
+    }
+
+    /**
+     * @return The number of students with at least one attendance record in the range.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index A position between 0 and {@link #size()} - 1.
+     * @return The student ID at that position (IDs are in ascending order).
+     */
+    public int getStudentId(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return studentIds[index];
+    }
+
+    /**
+     * @param studentId The ID of the student.
+     * @return The number of days the student was marked (present, absent, late or excused), 0 if none.
+     */
+    public int getRecordedDays(int studentId) {
+        return counter(studentId, RECORDED);
+    }
+
+    /**
+     * @param studentId The ID of the student.
+     * @param status    The status to count.
+     * @return The number of days the student had that status, 0 if none.
+     */
+    public int getCount(int studentId, AttendanceStatus status) {
+        return counter(studentId, switch (status) {
+            case PRESENT -> PRESENT;
+            case ABSENT -> ABSENT;
+            case LATE -> LATE;
+            case EXCUSED -> EXCUSED;
+        });
+    }
+
+    /**
+     * The share of recorded days on which the student attended, counting late arrivals as
+     * attended unless the student was also marked absent.
+     *
+     * @param studentId The ID of the student.
+     * @return A value between 0 and 1, or {@link Double#NaN} if the student has no records.
+     */
+    public double getAttendanceRate(int studentId) {
+        int recorded = getRecordedDays(studentId);
+        return recorded == 0 ? Double.NaN : (double) counter(studentId, ATTENDED) / recorded;
+    }
+
+    private int counter(int studentId, int offset) {
+        int index = Arrays.binarySearch(studentIds, 0, size, studentId);
+        return index < 0 ? 0 : counts[index * STRIDE + offset];
+    }
+}
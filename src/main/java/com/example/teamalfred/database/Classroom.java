@@ -1,5 +1,7 @@
 package com.example.teamalfred.database;
 
+import java.util.Objects;
+
 /**
  * Represents a Classroom entity from the database.
  * This class holds basic info about a classroom such as its unique ID and its name.
@@ -84,4 +86,24 @@ public class Classroom {
     public String getClassName() {
         return name;
     }
+
+    /**
+     * Two classrooms are equal if their ID and name match, so a cached classroom can be
+     * checked against a freshly read row.
+     *
+     * @param o Another object
+     * @return True if it is a Classroom with the same ID and name
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Classroom classroom = (Classroom) o;
+        return id == classroom.id && Objects.equals(name, classroom.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name);
+    }
 }
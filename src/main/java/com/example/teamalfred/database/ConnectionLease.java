@@ -0,0 +1,135 @@
+package com.example.teamalfred.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A borrowed connection from a {@link ConnectionPool}.
+ * <p>
+ * Use it with try-with-resources. Closing the lease hands the connection back to
+ * the pool; it never closes the underlying JDBC handle, so DAOs should not close
+ * the {@link Connection} returned by {@link #getConnection()} themselves.
+ * </p>
+ * <p>
+ * Statements obtained through {@link #prepare(String)} come from the connection's
+ * statement cache and must not be closed by the caller either; close only the
+ * {@link java.sql.ResultSet}s they produce.
+ * </p>
+ */
+public class ConnectionLease implements AutoCloseable {
+
+    private final ConnectionPool pool;
+    private final Connection connection;
+    private final StatementCache statementCache;
+    private final boolean writer;
+    private boolean released = false;
+
+    /**
+     * Creates a lease. Only the pool hands these out.
+     *
+     * @param pool       The pool the connection belongs to.
+     * @param connection The leased connection.
+     * @param statementCache The statement cache belonging to the connection.
+     * @param writer     Whether this lease holds the writer connection.
+     */
+    ConnectionLease(ConnectionPool pool, Connection connection, StatementCache statementCache, boolean writer) {
+        this.pool = pool;
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.writer = writer;
+    }
+
+    /**
+     * @return The leased JDBC connection. Valid until this lease is closed.
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Returns a cached prepared statement for the SQL, compiling it only on first use
+     * on this connection. Do not close the returned statement.
+     *
+     * @param sql The SQL text, with {@code ?} placeholders.
+     * @return A {@link PreparedStatement} with its parameters cleared.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        pool.statementPrepared(sql);
+        return statementCache.get(sql);
+    }
+
+    /**
+     * Same as {@link #prepare(String)}, but lets the caller request generated keys.
+     *
+     * @param sql               The SQL text, with {@code ?} placeholders.
+     * @param autoGeneratedKeys {@link java.sql.Statement#RETURN_GENERATED_KEYS} or
+     *                          {@link java.sql.Statement#NO_GENERATED_KEYS}.
+     * @return A {@link PreparedStatement} with its parameters cleared.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        pool.statementPrepared(sql);
+        return statementCache.get(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Prepares a statement outside the statement cache, for a result set that stays open
+     * while other statements may run on the same connection (e.g. a lazily read stream).
+     * The caller owns the statement and must close it.
+     *
+     * @param sql The SQL text, with {@code ?} placeholders.
+     * @return A new {@link PreparedStatement}.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    public PreparedStatement prepareUncached(String sql) throws SQLException {
+        pool.statementPrepared(sql);
+        return connection.prepareStatement(sql);
+    }
+
+    /**
+     * Runs the work in a single transaction on this connection: one commit if it succeeds,
+     * a rollback if it throws. If a transaction is already open on the connection (for
+     * example an outer call holding the same writer), the work simply joins it.
+     *
+     * @param work The statements to run.
+     * @param <T>  The result type.
+     * @return Whatever the work returns.
+     * @throws SQLException if the work or the commit fails; the transaction is rolled back.
+     */
+    public <T> T inTransaction(SqlCall<T> work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.call();
+        }
+        connection.setAutoCommit(false);
+        try {
+            T result = work.call();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * @return {@code true} if this lease holds the pool's writer connection.
+     */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns the connection to the pool. Calling this more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (!released) {
+            released = true;
+            pool.release(this);
+        }
+    }
+}
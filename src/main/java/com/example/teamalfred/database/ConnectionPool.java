@@ -0,0 +1,365 @@
+package com.example.teamalfred.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A small read/write-split pool of SQLite connections for one database URL.
+ * <p>
+ * SQLite allows a single writer at a time, so the pool keeps exactly one writer
+ * connection guarded by a lock, plus up to {@code readerCount} reader connections
+ * that run in WAL mode and can query while the writer is busy. Connections are
+ * handed out as {@link ConnectionLease}s; closing a lease returns the connection
+ * to the pool instead of closing the underlying handle.
+ * </p>
+ * <p>
+ * Each physical connection has its own {@link StatementCache}, so a DAO that runs the same
+ * SQL repeatedly only pays SQLite's compile cost once per connection.
+ * </p>
+ * <p>
+ * In-memory databases only exist inside the connection that created them, so for
+ * those URLs every lease (reader or writer) goes through the single writer connection.
+ * </p>
+ */
+public class ConnectionPool {
+
+    /** How long a caller waits for a free connection before giving up. */
+    private static final long LEASE_TIMEOUT_MS = 30_000;
+
+    /** How long SQLite itself retries on a locked database before returning SQLITE_BUSY. */
+    private static final int BUSY_TIMEOUT_MS = 5_000;
+
+    /** Maximum number of prepared statements cached per connection. */
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final String url;
+    private final int readerCount;
+    private final boolean sharedConnectionOnly;
+
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private Connection writer;
+
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> allReaders = new ArrayList<>();
+    // Looked up on every lease, so not guarded by the pool's monitor (connections compare by identity)
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+    private volatile Consumer<String> statementListener;
+
+    // --- Metrics ---
+    private final AtomicLong writerLeases = new AtomicLong();
+    private final AtomicLong readerLeases = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    /**
+     * Creates a pool for the given JDBC URL. No connections are opened until the first lease.
+     *
+     * @param url         The SQLite JDBC URL (e.g. "jdbc:sqlite:database.db").
+     * @param readerCount The maximum number of reader connections to open.
+     */
+    public ConnectionPool(String url, int readerCount) {
+        this.url = url;
+        this.sharedConnectionOnly = isInMemory(url);
+        this.readerCount = sharedConnectionOnly ? 0 : Math.max(0, readerCount);
+        this.idleReaders = new ArrayBlockingQueue<>(Math.max(1, this.readerCount));
+    }
+
+    /**
+     * @return The JDBC URL this pool connects to.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Leases the writer connection, blocking until it is free.
+     * The lock is re-entrant, so a thread that already holds the writer can lease it again.
+     *
+     * @return A lease on the writer connection. Close it to hand the writer back.
+     * @throws SQLException if the pool is closed, the wait times out, or the connection cannot be opened.
+     */
+    public ConnectionLease leaseWriter() throws SQLException {
+        ensureOpen();
+        long start = System.nanoTime();
+        try {
+            if (!writerLock.tryLock(LEASE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for the database writer connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer connection.", e);
+        }
+        waitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            Connection conn = writerConnection();
+            writerLeases.incrementAndGet();
+            return new ConnectionLease(this, conn, cacheFor(conn), true);
+        } catch (SQLException | RuntimeException e) {
+            writerLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Leases a reader connection, blocking until one is free.
+     * <p>
+     * If the calling thread already holds the writer (or the database is in-memory),
+     * the writer is leased instead so the caller sees its own uncommitted changes
+     * and never waits on itself.
+     * </p>
+     *
+     * @return A lease on a reader connection. Close it to hand the reader back.
+     * @throws SQLException if the pool is closed, the wait times out, or the connection cannot be opened.
+     */
+    public ConnectionLease leaseReader() throws SQLException {
+        if (sharedConnectionOnly || readerCount == 0 || writerLock.isHeldByCurrentThread()) {
+            return leaseWriter();
+        }
+        ensureOpen();
+        long start = System.nanoTime();
+        Connection conn = takeReader();
+        waitNanos.addAndGet(System.nanoTime() - start);
+        readerLeases.incrementAndGet();
+        return new ConnectionLease(this, conn, cacheFor(conn), false);
+    }
+
+    /**
+     * Returns the raw writer connection without leasing it, opening it if necessary.
+     * Only intended for single-threaded startup code and tests that need the handle directly.
+     *
+     * @return The writer {@link Connection}.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    synchronized Connection writerConnection() throws SQLException {
+        ensureOpen();
+        if (writer == null || writer.isClosed()) {
+            discardCache(writer);
+            writer = open(false);
+        }
+        return writer;
+    }
+
+    /**
+     * Registers a callback that receives the SQL text of every statement prepared through
+     * {@link ConnectionLease#prepare(String)}, cache hits included. Intended for tests and
+     * diagnostics (e.g. collecting every DAO query); pass {@code null} to remove it.
+     *
+     * @param listener The callback, or {@code null}.
+     */
+    public void setStatementListener(Consumer<String> listener) {
+        this.statementListener = listener;
+    }
+
+    /**
+     * Notifies the statement listener, if any. Called by {@link ConnectionLease}.
+     *
+     * @param sql The SQL being prepared.
+     */
+    void statementPrepared(String sql) {
+        Consumer<String> listener = statementListener;
+        if (listener != null) {
+            listener.accept(sql);
+        }
+    }
+
+    /**
+     * Hands a leased connection back to the pool. Called by {@link ConnectionLease#close()}.
+     *
+     * @param lease The lease being released.
+     */
+    void release(ConnectionLease lease) {
+        if (lease.isWriter()) {
+            writerLock.unlock();
+            return;
+        }
+        Connection conn = lease.getConnection();
+        if (closed) {
+            closeQuietly(conn);
+        } else if (!idleReaders.offer(conn)) {
+            closeQuietly(conn);
+        }
+    }
+
+    /**
+     * Closes every cached statement and every connection owned by the pool.
+     * Leases still in use are closed when they are released.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (StatementCache cache : statementCaches.values()) {
+            cache.clear();
+        }
+        statementCaches.clear();
+        closeQuietly(writer);
+        writer = null;
+        for (Connection reader : allReaders) {
+            closeQuietly(reader);
+        }
+        allReaders.clear();
+        idleReaders.clear();
+    }
+
+    /**
+     * @return {@code true} once {@link #close()} has been called.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns a snapshot of the pool's counters.
+     *
+     * @return The current {@link Metrics}.
+     */
+    public Metrics getMetrics() {
+        return new Metrics(writerLeases.get(), readerLeases.get(),
+                TimeUnit.NANOSECONDS.toMillis(waitNanos.get()), connectionsOpened.get(),
+                statementCacheHits.sum(), statementCacheMisses.sum());
+    }
+
+    /**
+     * Point-in-time pool counters.
+     *
+     * @param writerLeases      Number of writer leases handed out.
+     * @param readerLeases      Number of reader leases handed out (excluding those served by the writer).
+     * @param totalWaitMillis   Total time callers spent waiting for a connection.
+     * @param connectionsOpened Number of physical connections opened by this pool.
+     * @param statementCacheHits   Number of statements served from a connection's statement cache.
+     * @param statementCacheMisses Number of statements that had to be compiled.
+     */
+    public record Metrics(long writerLeases, long readerLeases, long totalWaitMillis, long connectionsOpened,
+                          long statementCacheHits, long statementCacheMisses) {}
+
+    // --- Helper Methods ---
+
+    private Connection takeReader() throws SQLException {
+        Connection conn = idleReaders.poll();
+        if (conn == null) {
+            synchronized (this) {
+                ensureOpen();
+                if (allReaders.size() < readerCount) {
+                    conn = open(true);
+                    allReaders.add(conn);
+                    return conn;
+                }
+            }
+            try {
+                conn = idleReaders.poll(LEASE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database reader connection.", e);
+            }
+            if (conn == null) {
+                throw new SQLException("Timed out waiting for a database reader connection.");
+            }
+        }
+        if (conn.isClosed()) {
+            // Someone closed the handle behind our back; replace it.
+            synchronized (this) {
+                allReaders.remove(conn);
+                discardCache(conn);
+                conn = open(true);
+                allReaders.add(conn);
+            }
+        }
+        return conn;
+    }
+
+    /**
+     * Opens a read-only connection that is not part of the pool, for a caller that keeps
+     * it for its own lifetime and closes it itself. Pooled readers are shared, so per-connection
+     * state such as {@code PRAGMA data_version} is only meaningful on a connection like this.
+     *
+     * @return A new read-only connection to this pool's database.
+     * @throws SQLException if the database is in-memory (a second connection would see an
+     *                      empty database of its own) or cannot be opened.
+     */
+    public Connection openDedicatedReader() throws SQLException {
+        ensureOpen();
+        if (sharedConnectionOnly) {
+            throw new SQLException("In-memory database " + url + " can only be used through the pool.");
+        }
+        return open(true);
+    }
+
+    /**
+     * @return Whether every lease shares the one connection, as for in-memory databases.
+     */
+    public boolean isSharedConnectionOnly() {
+        return sharedConnectionOnly;
+    }
+
+    private Connection open(boolean reader) throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        connectionsOpened.incrementAndGet();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+            if (!sharedConnectionOnly) {
+                // WAL lets readers see the last committed state while the writer is mid-transaction
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
+            if (reader) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        return conn;
+    }
+
+    private StatementCache cacheFor(Connection conn) {
+        return statementCaches.computeIfAbsent(conn,
+                c -> new StatementCache(c, STATEMENT_CACHE_SIZE, statementCacheHits, statementCacheMisses));
+    }
+
+    private void discardCache(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        StatementCache cache = statementCaches.remove(conn);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool for " + url + " has been closed.");
+        }
+    }
+
+    private static boolean isInMemory(String url) {
+        return url.contains(":memory:") || url.contains("mode=memory");
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            if (!conn.isClosed()) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled database connection: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.teamalfred.database;
+
+/**
+ * A row of the conversation sidebar: who the conversation is with and its most recent message.
+ */
+public class ConversationSummary {
+    // Unique ID of the conversation (conversations.id)
+    private final int conversationId;
+    // Display name of the other participant, e.g. "User 7"
+    private final String name;
+    // Start of the most recent message (see MessagingDatabaseManager.PREVIEW_LENGTH), or null if nothing has been sent yet
+    private final String lastMessage;
+    // Timestamp of the most recent message, or null if nothing has been sent yet
+    private final String lastMessageAt;
+
+    /**
+     * Creates a conversation summary.
+     *
+     * @param conversationId The conversation ID.
+     * @param name           Display name of the other participant.
+     * @param lastMessage    The preview of the most recent message, may be null.
+     * @param lastMessageAt  The most recent message timestamp, may be null.
+     */
+    public ConversationSummary(int conversationId, String name, String lastMessage, String lastMessageAt) {
+        this.conversationId = conversationId;
+        this.name = name;
+        this.lastMessage = lastMessage;
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public int getConversationId() { return conversationId; }
+    public String getName() { return name; }
+    public String getLastMessage() { return lastMessage; }
+    public String getLastMessageAt() { return lastMessageAt; }
+}
@@ -0,0 +1,115 @@
+package com.example.teamalfred.database;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads comma-separated records one at a time, so a file of any size is parsed in
+ * constant memory.
+ * <p>
+ * Supports the usual CSV quoting: fields may be wrapped in double quotes, a quote inside a
+ * quoted field is written twice, and quoted fields may contain commas and line breaks.
+ * Blank lines are skipped and a leading byte-order mark is ignored.
+ * </p>
+ */
+class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private int lineNumber = 0;
+    private int recordLine = 0;
+    private boolean first = true;
+
+    /**
+     * @param source The CSV text. It is closed when this reader is closed.
+     */
+    CsvReader(Reader source) {
+        this.reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The fields of the record, or {@code null} at the end of the input.
+     * @throws IOException If reading fails or the input ends inside a quoted field.
+     */
+    List<String> readRecord() throws IOException {
+        String line;
+        do {
+            line = nextLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        recordLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                // A quoted field continues on the next line
+                line = nextLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                field.append('\n');
+                i = 0;
+                continue;
+            }
+
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    /**
+     * @return The line on which the last record returned by {@link #readRecord()} started.
+     */
+    int getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+            if (first && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            first = false;
+        }
+        return line;
+    }
+}
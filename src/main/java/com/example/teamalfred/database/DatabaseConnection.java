@@ -1,43 +1,51 @@
 package com.example.teamalfred.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.function.Consumer;
 
 /**
- * Provides access to a singleton database Connection instance for an SQLite database.
+ * Provides access to the application's pool of SQLite connections.
  * <p>
- * This class uses the Singleton design pattern. By default, it connects to
+ * There is a single {@link ConnectionPool} per process with one writer connection and
+ * several WAL reader connections. DAOs borrow connections with {@link #leaseWriter()} or
+ * {@link #leaseReader()} and hand them back by closing the lease. By default, it connects to
  * "jdbc:sqlite:database.db". For testing, a different URL (like an in-memory DB)
  * can be specified using {@link #setTestDatabaseUrl(String)}.
  * </p>
  */
 public class DatabaseConnection {
 
+    /** Number of reader connections kept alongside the writer for file-backed databases. */
+    private static final int READER_CONNECTIONS = 4;
+
     private static String DEFAULT_DB_URL = "jdbc:sqlite:database.db";
-    private static Connection instance = null;
-    private static String activeDbUrl = null; // Store the URL of the *current* active instance
+    // Read without the class lock on every lease; only created and replaced under it
+    private static volatile ConnectionPool pool = null;
     private static String testDbUrlOverride = null; // Holds the override URL for testing
+    private static Consumer<String> statementListener = null; // Sees every SQL prepared through a lease
 
     /**
      * Sets the default database URL for new connections.
-     * Closes any existing connection to ensure the new URL is used on the next
-     * call to {@link #getInstance()} if no test URL is set.
+     * If the URL actually changes, the current pool is closed so the new URL is used
+     * on the next lease when no test URL is set.
      *
      * @param newUrl The new default database URL string (e.g., "jdbc:sqlite:another_database.db").
      */
-    public static void setDatabaseUrl(String newUrl) {
+    public static synchronized void setDatabaseUrl(String newUrl) {
+        if (newUrl.equals(DEFAULT_DB_URL)) {
+            return;
+        }
         DEFAULT_DB_URL = newUrl;
-        instance = null; // force reconnect on next use
+        closeInstance(); // force reconnect on next use
     }
     /** Private constructor to prevent instantiation. */
     private DatabaseConnection() {}
 
     /**
      * Sets a specific database URL to be used for the connection, typically for testing.
-     * This URL will be used the next time {@link #getInstance()} needs to establish
-     * or re-establish a connection. Closes any existing connection to ensure the
-     * new URL is used on the next getInstance() call.
+     * This URL will be used the next time a connection needs to be established.
+     * Closes any existing pool to ensure the new URL is used on the next lease.
      * Setting this to null reverts to the default URL for subsequent connections.
      * <p>
      * IMPORTANT: Call this BEFORE calling {@link #getInstance()} in your test setup.
@@ -47,82 +55,145 @@ public class DatabaseConnection {
      */
     public static synchronized void setTestDatabaseUrl(String url) {
         testDbUrlOverride = url;
-        // Close existing instance, if any, to force re-creation with the potentially new URL
+        // Close existing pool, if any, to force re-creation with the potentially new URL
         closeInstance();
     }
 
     /**
-     * Retrieves the singleton database Connection instance.
+     * Leases the writer connection. Use for INSERT/UPDATE/DELETE and DDL.
+     * Only one writer lease exists at a time; other writers block until it is closed.
+     *
+     * @return A {@link ConnectionLease} that must be closed when done (try-with-resources).
+     * @throws SQLException if a database access error occurs during connection.
+     */
+    public static ConnectionLease leaseWriter() throws SQLException {
+        return getPool().leaseWriter();
+    }
+
+    /**
+     * Leases a reader connection. Use for SELECT queries, which can then run
+     * concurrently with each other and with the writer.
+     *
+     * @return A {@link ConnectionLease} that must be closed when done (try-with-resources).
+     * @throws SQLException if a database access error occurs during connection.
+     */
+    public static ConnectionLease leaseReader() throws SQLException {
+        return getPool().leaseReader();
+    }
+
+    /**
+     * Retrieves the writer connection directly, without leasing it.
      * <p>
-     * Connects using the URL specified by {@link #setTestDatabaseUrl(String)} if set,
-     * otherwise uses the default URL ("jdbc:sqlite:database.db").
-     * If the instance is null or closed, it attempts to establish a new connection.
+     * Kept for startup code and tests that need the raw handle. Application code
+     * should use {@link #leaseWriter()} or {@link #leaseReader()} instead, and must
+     * never close the returned connection.
      * </p>
      *
-     * @return The singleton {@link Connection} instance.
+     * @return The writer {@link Connection} of the current pool.
      * @throws SQLException if a database access error occurs during connection.
      */
-    public static synchronized Connection getInstance() throws SQLException {
-        // Determine the URL that *should* be used for a new connection
-        String targetUrl = (testDbUrlOverride != null) ? testDbUrlOverride : DEFAULT_DB_URL;
+    public static Connection getInstance() throws SQLException {
+        return getPool().writerConnection();
+    }
 
-        try {
-            // Reconnect if:
-            // 1. No instance exists
-            // 2. Instance is closed
-            // 3. The target URL is different from the URL of the current active instance
-            if (instance == null || instance.isClosed() || !targetUrl.equals(activeDbUrl)) {
-
-                // Close the old instance if it exists and is open (e.g., URL changed)
-                if (instance != null && !instance.isClosed()) {
-                    instance.close();
-                }
-
-                // Establish new connection with the target URL
-                // System.out.println("DEBUG: Connecting to DB: " + targetUrl); // Optional debug line
-                instance = DriverManager.getConnection(targetUrl);
-                activeDbUrl = targetUrl; // Update the URL of the active instance
-            }
-        } catch (SQLException sqlEx) {
-            System.err.println("Error getting/creating database connection for URL: " + targetUrl);
-            sqlEx.printStackTrace();
-            // Ensure instance state is consistent on error
-            instance = null;
-            activeDbUrl = null;
-            throw sqlEx; // Re-throw the exception
+    /**
+     * Opens a read-only connection to the active database outside the pool. The caller owns
+     * it and must close it; it is not closed by {@link #closeInstance()}.
+     *
+     * @return A new read-only {@link Connection}.
+     * @throws SQLException if the database is in-memory or cannot be opened.
+     * @see ConnectionPool#openDedicatedReader()
+     */
+    public static Connection openDedicatedReader() throws SQLException {
+        return getPool().openDedicatedReader();
+    }
+
+    /**
+     * @return Whether the active database is in-memory, so no other connection or process can change it.
+     */
+    public static boolean isInMemory() {
+        return getPool().isSharedConnectionOnly();
+    }
+
+    /**
+     * Returns the current pool's counters (leases, wait time, connections opened,
+     * statement cache hits and misses).
+     *
+     * @return The pool metrics, or all zeros if no pool has been created yet.
+     */
+    public static synchronized ConnectionPool.Metrics getPoolMetrics() {
+        return pool != null ? pool.getMetrics() : new ConnectionPool.Metrics(0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Registers a callback that receives the SQL of every statement DAOs prepare through a lease.
+     * It stays registered across pool re-creation (e.g. URL switches) until replaced.
+     * Intended for tests and diagnostics, such as checking the query plan of every DAO query.
+     *
+     * @param listener The callback, or {@code null} to remove it.
+     */
+    public static synchronized void setStatementListener(Consumer<String> listener) {
+        statementListener = listener;
+        if (pool != null) {
+            pool.setStatementListener(listener);
         }
-        return instance;
     }
 
     /**
-     * Closes the singleton database connection instance if it's open and not null.
-     * Sets the internal instance variable and active URL to null.
+     * Closes the connection pool, every connection in it and their statement caches.
+     * The next lease will create a fresh pool for the active URL, so the entity caches
+     * are emptied as well.
      */
     public static synchronized void closeInstance() {
-        if (instance != null) {
-            try {
-                if (!instance.isClosed()) {
-                    // System.out.println("DEBUG: Closing DB connection: " + activeDbUrl); // Optional debug line
-                    instance.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection:");
-                e.printStackTrace();
-            } finally {
-                instance = null;
-                activeDbUrl = null; // Reset active URL tracking
-            }
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
+        EntityCache.clearAll();
     }
 
     /**
      * Resets the DatabaseConnection for testing.
-     * Closes any existing connection and removes the test database URL override.
-     * Subsequent calls to getInstance() will use the default URL unless
+     * Closes any existing pool and removes the test database URL override.
+     * Subsequent leases will use the default URL unless
      * setTestDatabaseUrl is called again.
      */
     public static synchronized void resetForTesting() {
-        closeInstance(); // Close any existing connection
+        closeInstance(); // Close any existing connections
         testDbUrlOverride = null; // Remove the test URL override
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the pool for the active URL, creating it if necessary.
+     * Every URL change closes the pool, so an open pool is always the right one and
+     * leases only take the class lock when a pool has to be created.
+     *
+     * @return The current {@link ConnectionPool}.
+     */
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current != null && !current.isClosed()) {
+            return current;
+        }
+        return createPool();
+    }
+
+    /**
+     * Creates the pool for the active URL, unless another thread did so first.
+     *
+     * @return The current {@link ConnectionPool}.
+     */
+    private static synchronized ConnectionPool createPool() {
+        // Determine the URL that *should* be used for a new connection
+        String targetUrl = (testDbUrlOverride != null) ? testDbUrlOverride : DEFAULT_DB_URL;
+        if (pool == null || pool.isClosed() || !targetUrl.equals(pool.getUrl())) {
+            if (pool != null) {
+                pool.close();
+            }
+            EntityCache.clearAll();
+            pool = new ConnectionPool(targetUrl, READER_CONNECTIONS);
+            pool.setStatementListener(statementListener);
+        }
+        return pool;
+    }
+}
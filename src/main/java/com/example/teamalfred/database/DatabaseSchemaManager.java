@@ -1,13 +1,12 @@
 package com.example.teamalfred.database;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
  * This class is responsible for managing the database schema,
  * such as creating or dropping the users table.
- * IMPORTANT: Assumes the connection lifecycle is managed externally (e.g., by DatabaseConnection singleton).
+ * IMPORTANT: Leases the writer from {@link DatabaseConnection}; the pool owns the connection lifecycle.
  */
 public class DatabaseSchemaManager {
 
@@ -22,17 +21,21 @@ public class DatabaseSchemaManager {
      *     <li><b>classes</b>: Stores class information including class IDs and names.</li>
      *     <li><b>students</b>: Stores student details, links to a class, and includes subject information.</li>
      *     <li><b>attendance</b>: Tracks attendance per student per class per date, with status flags (present, absent, etc.).</li>
-     *     <li><b>assessments</b>: Stores student assessments, including title, subject, due date, status, and type.</li>
+     *     <li><b>assessments</b>: Stores student assessments, including title, subject, due date, status, and type.
+     *     A later migration splits it into shared definitions and per-student assignments,
+     *     leaving a read-only view of the same name.</li>
      * </ul>
      * <p>
-     * Tables are only created if they do not already exist in the database.
+     * Tables are only created if they do not already exist in the database. The messaging
+     * tables are created as well, and then {@link SchemaMigrator} applies any pending
+     * migrations (indexes and later schema changes) on top of the base tables.
      *
      * @throws SQLException if a database access error occurs or the SQL execution fails
      */
 
     public void initializeSchema() throws SQLException {
-        Connection conn = getConnection();
-        try (Statement stmt = conn.createStatement())
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter();
+             Statement stmt = lease.getConnection().createStatement())
         {
 
             // 1. Preserve existing users table (uses TABLE_NAME constant)
@@ -91,23 +94,26 @@ public class DatabaseSchemaManager {
             stmt.execute(createAssessmentsTable);
 
         }
+
+        // Migrations also index the messaging tables, so they must exist first
+        new MessagingDatabaseManager().initializeSchema();
+        new SchemaMigrator().migrate();
     }
 
     /**
      * Drops the 'users' table if it exists.
-     * Does NOT close the connection obtained from DatabaseConnection.
+     * Does NOT close the connection leased from DatabaseConnection.
      *
      * @throws SQLException if the database connection cannot be established or the query fails.
      */
     public void dropTable() throws SQLException {
         String sql = "DROP TABLE IF EXISTS " + TABLE_NAME;
 
-        Connection conn = getConnection(); // Get the shared connection
-        // Use try-with-resources ONLY for the Statement
-        try (Statement stmt = conn.createStatement()) {
+        // Closing the lease hands the writer back to the pool without closing it
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
             stmt.execute(sql);
         }
-        // DO NOT close the connection here - it's managed by DatabaseConnection
     }
 
     /**
@@ -121,25 +127,4 @@ public class DatabaseSchemaManager {
         dropTable();
         initializeSchema();
     }
-
-    /**
-     * Retrieves the shared database connection instance.
-     *
-     * @return a valid SQL Connection.
-     * @throws SQLException if the connection is null or cannot be established by DatabaseConnection.
-     */
-    private Connection getConnection() throws SQLException {
-        Connection conn = DatabaseConnection.getInstance();
-        // getInstance() now throws SQLException if connection fails, so null check isn't strictly needed here
-        // but doesn't hurt.
-        if (conn == null) {
-            // This case should ideally not be reached if getInstance throws exception on failure
-            throw new SQLException("Database connection could not be established (returned null).");
-        }
-        // Check if connection is closed (optional, defensive check)
-        if (conn.isClosed()) {
-            throw new SQLException("Database connection is closed.");
-        }
-        return conn;
-    }
 }
@@ -0,0 +1,14 @@
+package com.example.teamalfred.database;
+
+/**
+ * An assessment definition due on a day, with the number of students it is set for.
+ * One of these stands for all the per-student {@link Assessment} rows of a definition.
+ *
+ * @param definitionId The definition's ID.
+ * @param title        The assessment title.
+ * @param subject      The subject name, or {@code null} for assessments without one.
+ * @param dueDate      The due date, as an ISO date (yyyy-MM-dd).
+ * @param type         The assessment type, or {@code null}.
+ * @param students     The number of students the assessment is set for.
+ */
+public record DueAssessment(int definitionId, String title, String subject, String dueDate, String type, int students) {}
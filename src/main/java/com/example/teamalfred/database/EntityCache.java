@@ -0,0 +1,352 @@
+package com.example.teamalfred.database;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A size-bounded, process-wide identity map for entities loaded by the DAOs.
+ * <p>
+ * Eviction follows W-TinyLFU: new entries go into a small LRU window, and an entry leaving
+ * the window only replaces the oldest entry of the main area if it has been asked for more
+ * often. Access frequencies are estimated by a small count-min sketch that is halved
+ * periodically, so old popularity fades. The main area is a segmented LRU: entries hit
+ * again while on probation move to a protected segment. This keeps a burst of one-off
+ * lookups (e.g. scrolling through a large list) from flushing out the rows every screen uses.
+ * </p>
+ * <p>
+ * DAOs invalidate entries on every write they make. Anything else that writes the cached
+ * tables directly must call {@link #clearAll()}. All caches are also cleared whenever the
+ * connection pool is closed, since their rows belong to the database they were read from.
+ * </p>
+ *
+ * @param <K> The key type, usually the primary key.
+ * @param <V> The cached entity type.
+ */
+public final class EntityCache<K, V> {
+
+    private static final List<EntityCache<?, ?>> CACHES = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final FrequencySketch sketch;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    // Bumped by every invalidation, so a load that raced with a write is not cached
+    private long generation;
+
+    /**
+     * Creates an empty cache and registers it for {@link #clearAll()} and {@link #getAllStats()}.
+     *
+     * @param name        Name reported in the statistics.
+     * @param maximumSize Maximum number of entries kept.
+     */
+    public EntityCache(String name, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.name = name;
+        this.windowCapacity = Math.max(1, maximumSize / 100);
+        this.mainCapacity = maximumSize - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+        CACHES.add(this);
+    }
+
+    /**
+     * Returns the cached value for a key, or loads and caches it on a miss.
+     * The loader runs without holding the cache lock. If another thread cached the key
+     * meanwhile, its instance is returned instead, so one key always maps to one instance.
+     *
+     * @param key    The key to look up.
+     * @param loader Reads the value from the database; may return {@code null} for "not found",
+     *               which is not cached.
+     * @return The cached or freshly loaded value, or {@code null}.
+     * @throws SQLException if the loader fails.
+     */
+    public V get(K key, SqlCall<V> loader) throws SQLException {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V loaded = loader.call();
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (generation != loadGeneration) {
+                return loaded;
+            }
+            V cached = peek(key);
+            return cached != null ? cached : insert(key, loaded);
+        }
+    }
+
+    /**
+     * Canonicalises a row read by a list query: returns the instance already cached for its
+     * key, or caches the given one. If the cached instance no longer {@code equals} the row
+     * (a write this cache was not told about, e.g. from another process), the row replaces it.
+     * Like {@link #get(Object, SqlCall)}, a row read before an invalidation is returned
+     * without being cached, so it cannot bring back what the write replaced.
+     *
+     * @param key             The entity's key.
+     * @param value           A freshly read instance.
+     * @param readGeneration  {@link #generation()} as read before the query ran.
+     * @return The instance to hand out for the key.
+     */
+    public synchronized V intern(K key, V value, long readGeneration) {
+        if (generation != readGeneration) {
+            return value;
+        }
+        V cached = lookup(key);
+        if (cached == null) {
+            return insert(key, value);
+        }
+        if (!cached.equals(value)) {
+            replace(key, value);
+            return value;
+        }
+        return cached;
+    }
+
+    /**
+     * @return A counter bumped by every invalidation; read it before a query whose rows
+     *         are passed to {@link #intern(Object, Object, long)}.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Removes one entry, after a write to its row.
+     *
+     * @param key The key to remove.
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedArea.remove(key);
+        }
+    }
+
+    /**
+     * Removes every entry of this cache.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        window.clear();
+        probation.clear();
+        protectedArea.clear();
+    }
+
+    /**
+     * @return A snapshot of this cache's counters.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(name, hits, misses, evictions, window.size() + probation.size() + protectedArea.size());
+    }
+
+    /**
+     * Empties every cache, e.g. after bulk writes that bypass the DAOs.
+     */
+    public static void clearAll() {
+        CACHES.forEach(EntityCache::invalidateAll);
+    }
+
+    /**
+     * @return The counters of every cache, keyed by cache name.
+     */
+    public static Map<String, Stats> getAllStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        CACHES.forEach(cache -> stats.put(cache.name, cache.getStats()));
+        return stats;
+    }
+
+    /**
+     * Point-in-time cache counters.
+     *
+     * @param name      The cache name.
+     * @param hits      Lookups answered from the cache.
+     * @param misses    Lookups that went to the database.
+     * @param evictions Entries dropped to stay within the size bound (invalidations excluded).
+     * @param size      Entries currently cached.
+     */
+    public record Stats(String name, long hits, long misses, long evictions, int size) {
+
+        /**
+         * @return The fraction of lookups answered from the cache, or 0 before the first lookup.
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Finds a key in any segment, recording the access and promoting probation hits.
+     */
+    private V lookup(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = protectedArea.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            protectedArea.put(key, value);
+            if (protectedArea.size() > protectedCapacity) {
+                // The oldest protected entry gets another chance on probation
+                Map.Entry<K, V> demoted = removeEldest(protectedArea);
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Adds a new entry to the window, moving the window's oldest entry towards the main area.
+     */
+    private V insert(K key, V value) {
+        window.put(key, value);
+        if (window.size() > windowCapacity) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+        return value;
+    }
+
+    /**
+     * Moves an entry leaving the window into probation if there is room, or if it is
+     * used more often than the entry it would evict.
+     */
+    private void admit(K key, V value) {
+        if (probation.size() + protectedArea.size() < mainCapacity) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedArea : probation;
+        if (victims.isEmpty()) {
+            evictions++; // no main area at all
+            return;
+        }
+        K victim = victims.keySet().iterator().next();
+        evictions++;
+        if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(key, value);
+        }
+    }
+
+    /**
+     * Swaps the value of a cached key in whichever segment holds it.
+     */
+    private void replace(K key, V value) {
+        if (window.replace(key, value) == null && probation.replace(key, value) == null) {
+            protectedArea.replace(key, value);
+        }
+    }
+
+    /**
+     * Finds a key in any segment without counting it as an access.
+     */
+    private V peek(K key) {
+        V value = window.get(key);
+        if (value == null) {
+            value = probation.get(key);
+        }
+        return value != null ? value : protectedArea.get(key);
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        Map.Entry<K, V> eldest = iterator.next();
+        Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+        return copy;
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters estimating how often each key was accessed.
+     * After ten times the cache size in accesses, every counter is halved.
+     */
+    private static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int resetAfter;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize) * 2 - 1);
+            counters = new byte[DEPTH][width];
+            mask = width - 1;
+            resetAfter = 10 * maximumSize;
+        }
+
+        void increment(Object key) {
+            int hash = key.hashCode();
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                }
+            }
+            if (++additions >= resetAfter) {
+                halve();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int min = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters[row][index(hash, row)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private void halve() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+    }
+}
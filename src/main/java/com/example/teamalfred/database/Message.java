@@ -0,0 +1,40 @@
+package com.example.teamalfred.database;
+
+/**
+ * Represents a single message in a conversation, as stored in the "messages" table.
+ */
+public class Message {
+    // Unique ID of the message (messages.id)
+    private final int id;
+    // The conversation this message belongs to
+    private final int conversationId;
+    // User ID of whoever sent the message
+    private final int senderId;
+    // The message text
+    private final String content;
+    // When the message was sent, as stored by SQLite (yyyy-MM-dd HH:mm:ss)
+    private final String timestamp;
+
+    /**
+     * Creates a message loaded from the database.
+     *
+     * @param id             The message ID.
+     * @param conversationId The conversation ID.
+     * @param senderId       The sender's user ID.
+     * @param content        The message text.
+     * @param timestamp      When the message was sent.
+     */
+    public Message(int id, int conversationId, int senderId, String content, String timestamp) {
+        this.id = id;
+        this.conversationId = conversationId;
+        this.senderId = senderId;
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+
+    public int getId() { return id; }
+    public int getConversationId() { return conversationId; }
+    public int getSenderId() { return senderId; }
+    public String getContent() { return content; }
+    public String getTimestamp() { return timestamp; }
+}
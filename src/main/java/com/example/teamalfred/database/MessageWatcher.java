@@ -0,0 +1,225 @@
+package com.example.teamalfred.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the database file for messages and conversations written by other app instances,
+ * and publishes the ones the watching user takes part in on a {@link ChangeBus} like the DAOs
+ * do for this one.
+ * <p>
+ * A dedicated read-only connection polls {@code PRAGMA data_version}, which changes only when
+ * another connection commits to the file. Only then are the messages and conversations past
+ * the last IDs seen read, as a primary key range, so an idle database costs one pragma per
+ * poll however large the tables are. Every new row moves the high-water mark, but rows
+ * between other users are not published, so instances sharing a file don't make each
+ * other reload. Polling starts at {@link #MIN_POLL_MILLIS} after any
+ * activity and backs off to {@link #MAX_POLL_MILLIS} while nothing changes.
+ * </p>
+ * <p>
+ * Commits from this process's own pool change the data version too, so rows this instance
+ * wrote may be announced twice: once by the DAO and again here. Listeners already skip rows
+ * they have applied.
+ * </p>
+ */
+public final class MessageWatcher implements AutoCloseable {
+
+    /** Poll interval right after the database changed. */
+    public static final long MIN_POLL_MILLIS = 100;
+
+    /** Poll interval once idle; keeps other instances' messages under a second away. */
+    public static final long MAX_POLL_MILLIS = 800;
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-watcher");
+        thread.setDaemon(true); // never keep the JVM alive after the UI closes
+        return thread;
+    });
+
+    private final int userId;
+    private final ChangeBus bus;
+    private final long minPollMillis;
+    private final long maxPollMillis;
+    private volatile boolean closed;
+
+    // Only used on the timer thread once start() has returned
+    private Connection connection;
+    private PreparedStatement dataVersionStmt;
+    private PreparedStatement newConversationsStmt;
+    private PreparedStatement newMessagesStmt;
+    private long dataVersion;
+    private int lastConversationId;
+    private int lastMessageId;
+    private long delayMillis;
+
+    private MessageWatcher(int userId, ChangeBus bus, long minPollMillis, long maxPollMillis) {
+        this.userId = userId;
+        this.bus = bus;
+        this.minPollMillis = minPollMillis;
+        this.maxPollMillis = maxPollMillis;
+        this.delayMillis = minPollMillis;
+    }
+
+    /**
+     * Starts watching the active database for a user and publishing to the shared bus.
+     *
+     * @param userId The user whose conversations and messages are published.
+     * @return The running watcher; close it when its view goes away.
+     * @throws SQLException if the watching connection cannot be opened.
+     * @see #start(int, ChangeBus, long, long)
+     */
+    public static MessageWatcher start(int userId) throws SQLException {
+        return start(userId, ChangeBus.shared(), MIN_POLL_MILLIS, MAX_POLL_MILLIS);
+    }
+
+    /**
+     * Starts watching the active database. The IDs already in the database are read before
+     * this returns, so everything committed afterwards is reported. An in-memory database
+     * cannot be written by anyone else, so for one the watcher does nothing.
+     *
+     * @param userId        The user whose conversations and messages are published.
+     * @param bus           Where new rows are published.
+     * @param minPollMillis Poll interval right after a change.
+     * @param maxPollMillis Longest poll interval while idle.
+     * @return The running watcher; close it when its view goes away.
+     * @throws SQLException if the watching connection cannot be opened.
+     */
+    public static MessageWatcher start(int userId, ChangeBus bus, long minPollMillis, long maxPollMillis)
+            throws SQLException {
+        MessageWatcher watcher = new MessageWatcher(userId, bus, minPollMillis, maxPollMillis);
+        if (DatabaseConnection.isInMemory()) {
+            watcher.closed = true;
+            return watcher;
+        }
+
+        watcher.connect();
+        try {
+            watcher.lastConversationId = watcher.readMaxId("SELECT COALESCE(MAX(id), 0) FROM conversations");
+            watcher.lastMessageId = watcher.readMaxId("SELECT COALESCE(MAX(id), 0) FROM messages");
+        } catch (SQLException e) {
+            watcher.disconnect();
+            throw e;
+        }
+        TIMER.schedule(watcher::poll, minPollMillis, TimeUnit.MILLISECONDS);
+        return watcher;
+    }
+
+    /**
+     * Stops polling and closes the watching connection.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        TIMER.execute(this::disconnect); // after a poll that may still be running
+    }
+
+    /**
+     * Opens the watching connection and takes its current data version as the baseline.
+     *
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private void connect() throws SQLException {
+        connection = DatabaseConnection.openDedicatedReader();
+        try {
+            dataVersionStmt = connection.prepareStatement("PRAGMA data_version");
+            // The second column says whether the watching user is in the row's conversation
+            newConversationsStmt = connection.prepareStatement(
+                    "SELECT id, ? IN (lowUserId, highUserId) FROM conversations WHERE id > ? ORDER BY id");
+            newMessagesStmt = connection.prepareStatement(
+                    "SELECT m.id, ? IN (c.lowUserId, c.highUserId) FROM messages m " +
+                    "JOIN conversations c ON c.id = m.conversationID WHERE m.id > ? ORDER BY m.id");
+            dataVersion = readDataVersion();
+        } catch (SQLException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks the data version, publishes any new rows, and schedules the next poll: soon
+     * after a change, and further apart each time nothing has changed.
+     */
+    private void poll() {
+        if (closed) {
+            return;
+        }
+        boolean changed = false;
+        try {
+            if (connection == null) {
+                // A previous poll failed. Data versions are per connection, so catch up by ID instead
+                connect();
+                changed = true;
+                publishNewRows();
+            }
+            long version = readDataVersion();
+            if (version != dataVersion) {
+                dataVersion = version;
+                changed = true;
+                publishNewRows();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            disconnect();
+        }
+
+        delayMillis = changed ? minPollMillis : Math.min(delayMillis * 2, maxPollMillis);
+        if (!closed) {
+            TIMER.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Publishes the watching user's conversations and messages past the last IDs seen,
+     * conversations first so a listener knows about a conversation before its first message.
+     *
+     * @throws SQLException if the reads fail.
+     */
+    private void publishNewRows() throws SQLException {
+        lastConversationId = publishAfter(newConversationsStmt, lastConversationId, ChangeEvent.Entity.CONVERSATION);
+        lastMessageId = publishAfter(newMessagesStmt, lastMessageId, ChangeEvent.Entity.MESSAGE);
+    }
+
+    private int publishAfter(PreparedStatement stmt, int lastId, ChangeEvent.Entity entity) throws SQLException {
+        stmt.setInt(1, userId);
+        stmt.setInt(2, lastId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                lastId = rs.getInt(1);
+                if (rs.getBoolean(2)) {
+                    bus.publish(entity, lastId, ChangeEvent.Operation.INSERT);
+                }
+            }
+        }
+        return lastId;
+    }
+
+    private long readDataVersion() throws SQLException {
+        try (ResultSet rs = dataVersionStmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private int readMaxId(String sql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void disconnect() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close(); // also closes its statements
+        } catch (SQLException e) {
+            System.err.println("Error closing message watcher connection: " + e.getMessage());
+        }
+        connection = null;
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.teamalfred.database;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class MessagingDatabaseManager {
 
+    /**
+     * Number of characters of the latest message kept on its conversation for the inbox.
+     * Must match the {@code substr} length in the {@code messages_update_conversation} trigger.
+     */
+    public static final int PREVIEW_LENGTH = 100;
+
     /**
      * Sets up the database tables if they don't already exist.
      * This includes the "conversations" and "messages" tables.
      */
     public void initializeSchema() throws SQLException {
-        try (Connection conn = DatabaseConnection.getInstance();
-             Statement stmt = conn.createStatement()) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
 
-            // Enable Write-Ahead Logging for better performance and concurrency
-            stmt.execute("PRAGMA journal_mode=WAL;");
+            // Write-Ahead Logging is enabled by the ConnectionPool when each connection opens
 
-            // Create the "conversations" table if it doesn't already exist
+            // Create the "conversations" table if it doesn't already exist.
+            // Migrations later rename the pair to (lowUserId, highUserId) and make it unique.
             String createConversations = "CREATE TABLE IF NOT EXISTS conversations (" +
                     "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +  // Unique ID for the conversation
                     "userOneID INT NOT NULL, " +                         // One participant's user ID
@@ -45,8 +57,8 @@ public class MessagingDatabaseManager {
      * Useful for resetting the database during development or testing.
      */
     public void dropTable() throws SQLException {
-        try (Connection conn = DatabaseConnection.getInstance();
-             Statement stmt = conn.createStatement()) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
 
             // Drop the messages table first due to foreign key dependency
             stmt.execute("DROP TABLE IF EXISTS messages;");
@@ -59,42 +71,58 @@ public class MessagingDatabaseManager {
     }
 
     /**
-     * Creates a new conversation between two users.
-     * Returns the ID of the newly created conversation.
-     */
-    /**
-     * Returns an existing conversation ID between two users, or creates a new one if none exists.
+     * Returns the conversation between two users, creating it if none exists.
+     * <p>
+     * A pair of users is stored once, lower user ID first, under a unique index. Opening an
+     * existing conversation is one probe of that index on a reader, with no write and no
+     * commit. Only on a miss is the pair inserted; the unique index makes the insert a no-op
+     * if another caller created it meanwhile, and the conversation is only announced on the
+     * {@link ChangeBus} by the caller that created it. The arguments may come in either order.
+     * </p>
+     * <p>
+     * A single {@code INSERT ... ON CONFLICT DO UPDATE SET lowUserId = lowUserId RETURNING id}
+     * would always return the ID in one statement, but it is a write even when the pair
+     * exists. Every open would then wait for the one writer (behind roster imports and
+     * attendance saves), commit, and bump the data version that other instances'
+     * {@link MessageWatcher}s poll, making each of them re-read. It also could not tell a new
+     * conversation from an old one, so it could not decide whether to publish. Opening an
+     * existing conversation is far more common than creating one, so this method reads first.
+     * A new pair costs one extra probe, and a second probe only if a concurrent caller wins
+     * the insert.
+     * </p>
+     *
+     * @param userOneID One participant's user ID.
+     * @param userTwoID The other participant's user ID.
+     * @return The conversation ID, or -1 if something fails.
      */
     public int createOrGetConversation(int userOneID, int userTwoID) {
-        String checkSql = "SELECT id FROM conversations WHERE " +
-                "(userOneID = ? AND userTwoID = ?) OR (userOneID = ? AND userTwoID = ?)";
-        String insertSql = "INSERT INTO conversations (userOneID, userTwoID) VALUES (?, ?)";
-
-        try (Connection conn = DatabaseConnection.getInstance()) {
-            // Check for existing conversation
-            try (PreparedStatement checkStmt = conn.prepareStatement(checkSql)) {
-                checkStmt.setInt(1, userOneID);
-                checkStmt.setInt(2, userTwoID);
-                checkStmt.setInt(3, userTwoID); // reverse check
-                checkStmt.setInt(4, userOneID);
-
-                ResultSet rs = checkStmt.executeQuery();
-                if (rs.next()) {
-                    return rs.getInt("id"); // Return existing conversation ID
+        String insertSql = "INSERT INTO conversations (lowUserId, highUserId) VALUES (min(?, ?), max(?, ?)) " +
+                "ON CONFLICT (lowUserId, highUserId) DO NOTHING RETURNING id";
+
+        try {
+            try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+                int existing = findConversation(lease, userOneID, userTwoID);
+                if (existing > 0) {
+                    return existing;
                 }
             }
 
-            // If no conversation exists, create a new one
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
-                insertStmt.setInt(1, userOneID);
-                insertStmt.setInt(2, userTwoID);
-                insertStmt.executeUpdate();
+            try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+                PreparedStatement stmt = lease.prepare(insertSql);
+                stmt.setInt(1, userOneID);
+                stmt.setInt(2, userTwoID);
+                stmt.setInt(3, userOneID);
+                stmt.setInt(4, userTwoID);
 
-                try (ResultSet generatedKeys = insertStmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        return generatedKeys.getInt(1); // Return new conversation ID
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        int conversationId = rs.getInt(1);
+                        ChangeBus.shared().publish(ChangeEvent.Entity.CONVERSATION, conversationId, ChangeEvent.Operation.INSERT);
+                        return conversationId;
                     }
                 }
+                // Created by someone else between the probe and the insert
+                return findConversation(lease, userOneID, userTwoID);
             }
 
         } catch (SQLException e) {
@@ -104,6 +132,24 @@ public class MessagingDatabaseManager {
         return -1; // If something fails
     }
 
+    /**
+     * Looks a pair of users up in idx_conversations_pair.
+     *
+     * @return The conversation ID, or -1 if the pair has none.
+     */
+    private static int findConversation(ConnectionLease lease, int userOneID, int userTwoID) throws SQLException {
+        String sql = "SELECT id FROM conversations WHERE lowUserId = min(?, ?) AND highUserId = max(?, ?)";
+        PreparedStatement stmt = lease.prepare(sql);
+        stmt.setInt(1, userOneID);
+        stmt.setInt(2, userTwoID);
+        stmt.setInt(3, userOneID);
+        stmt.setInt(4, userTwoID);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
 
     /**
      * Adds a new message to a conversation.
@@ -124,4 +170,232 @@ public class MessagingDatabaseManager {
             System.err.println("Error sending message: " + e.getMessage());
         }
     }
+
+    /**
+     * Adds a new message to a conversation using the pool's writer connection,
+     * and publishes it on the {@link ChangeBus}. The conversation's last-message ID, time and
+     * preview are updated by a trigger within the same INSERT, so they never disagree with
+     * the messages table.
+     *
+     * @param conversationId The conversation to post into.
+     * @param senderId       The user ID of the sender.
+     * @param messageContent The message text.
+     * @return The ID of the new message.
+     * @throws SQLException if the insert fails.
+     */
+    public int sendMessage(int conversationId, int senderId, String messageContent) throws SQLException {
+        String sql = "INSERT INTO messages (conversationID, senderID, content, timestamp) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+
+        int messageId;
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql, Statement.RETURN_GENERATED_KEYS);
+            stmt.setInt(1, conversationId);
+            stmt.setInt(2, senderId);
+            stmt.setString(3, messageContent);
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No ID returned for new message");
+                }
+                messageId = keys.getInt(1);
+            }
+        }
+        ChangeBus.shared().publish(ChangeEvent.Entity.MESSAGE, messageId, ChangeEvent.Operation.INSERT);
+        return messageId;
+    }
+
+    /**
+     * Loads one message by its ID, e.g. one announced by a {@link ChangeEvent}.
+     *
+     * @param messageId The message to load.
+     * @return The message, or empty if it does not exist.
+     * @throws SQLException if the query fails.
+     */
+    public Optional<Message> getMessage(int messageId) throws SQLException {
+        String sql = "SELECT id, conversationID, senderID, content, timestamp FROM messages WHERE id = ?";
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, messageId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRowToMessage(rs));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Loads several messages by ID in one query, e.g. a batch announced by the {@link ChangeBus}.
+     *
+     * @param messageIds The messages to load.
+     * @return The ones that exist, in ID order.
+     * @throws SQLException if the query fails.
+     */
+    public List<Message> getMessagesById(Collection<Integer> messageIds) throws SQLException {
+        String sql = "SELECT id, conversationID, senderID, content, timestamp FROM messages " +
+                "WHERE id IN (SELECT value FROM json_each(?)) ORDER BY id";
+        List<Message> messages = new ArrayList<>();
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setString(1, messageIds.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]")));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(mapRowToMessage(rs));
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Loads every message in a conversation, oldest first.
+     *
+     * @param conversationId The conversation to load.
+     * @return The messages in send order.
+     * @throws SQLException if the query fails.
+     */
+    public List<Message> getMessages(int conversationId) throws SQLException {
+        return getMessagesAfter(conversationId, 0);
+    }
+
+    /**
+     * Loads the messages of a conversation newer than the last one the caller has seen,
+     * oldest first. IDs only grow, so this is a range read of the (conversationID, id) index
+     * that returns nothing when the caller is up to date.
+     *
+     * @param conversationId The conversation to load.
+     * @param afterId        The ID of the newest message already seen, or 0 for all of them.
+     * @return The newer messages in send order.
+     * @throws SQLException if the query fails.
+     */
+    public List<Message> getMessagesAfter(int conversationId, int afterId) throws SQLException {
+        String sql = "SELECT id, conversationID, senderID, content, timestamp FROM messages " +
+                "WHERE conversationID = ? AND id > ? ORDER BY id";
+        List<Message> messages = new ArrayList<>();
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, conversationId);
+            stmt.setInt(2, afterId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(mapRowToMessage(rs));
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Loads the newest messages of a conversation, for showing it without reading its whole history.
+     *
+     * @param conversationId The conversation to load.
+     * @param limit          The most messages to return.
+     * @return Up to {@code limit} of the latest messages, oldest first.
+     * @throws SQLException if the query fails.
+     */
+    public List<Message> getRecentMessages(int conversationId, int limit) throws SQLException {
+        return getMessagesBefore(conversationId, Integer.MAX_VALUE, limit);
+    }
+
+    /**
+     * Loads the page of messages just older than the oldest one the caller already has.
+     * The page is found by seeking the (conversationID, id) index backwards from that ID,
+     * so every page costs the same however far back it is.
+     *
+     * @param conversationId The conversation to load.
+     * @param beforeId       The ID of the oldest message already loaded.
+     * @param limit          The most messages to return.
+     * @return Up to {@code limit} older messages, oldest first; fewer means the start was reached.
+     * @throws SQLException if the query fails.
+     */
+    public List<Message> getMessagesBefore(int conversationId, int beforeId, int limit) throws SQLException {
+        String sql = "SELECT id, conversationID, senderID, content, timestamp FROM messages " +
+                "WHERE conversationID = ? AND id < ? ORDER BY id DESC LIMIT ?";
+        List<Message> messages = new ArrayList<>();
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, conversationId);
+            stmt.setInt(2, beforeId);
+            stmt.setInt(3, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    messages.add(mapRowToMessage(rs));
+                }
+            }
+        }
+        Collections.reverse(messages); // read newest first to stop at the limit
+        return messages;
+    }
+
+    /**
+     * Loads the conversations a user takes part in, with a preview of the latest message of each.
+     * Most recent conversations come first.
+     * <p>
+     * The latest message is stored on the conversation itself, so this reads no messages.
+     * Each half of the UNION reads one participant column's index in {@code lastMessageAt}
+     * order, and the two ranges are merged rather than sorted.
+     * </p>
+     *
+     * @param userId The logged-in user's ID.
+     * @return One summary per conversation.
+     * @throws SQLException if the query fails.
+     */
+    public List<ConversationSummary> getConversationSummaries(int userId) throws SQLException {
+        String sql = """
+                SELECT id, 'User ' || highUserId AS name, lastMessagePreview, lastMessageAt
+                FROM conversations WHERE lowUserId = ?
+                UNION ALL
+                SELECT id, 'User ' || lowUserId AS name, lastMessagePreview, lastMessageAt
+                FROM conversations WHERE highUserId = ? AND lowUserId <> ?
+                ORDER BY lastMessageAt DESC
+                """;
+        List<ConversationSummary> summaries = new ArrayList<>();
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
+            stmt.setInt(3, userId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new ConversationSummary(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getString("lastMessagePreview"),
+                            rs.getString("lastMessageAt")));
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Shortens a message to the preview stored on its conversation.
+     *
+     * @param content The full message text.
+     * @return The first {@link #PREVIEW_LENGTH} characters of the message.
+     */
+    public static String preview(String content) {
+        int length = content.codePointCount(0, content.length());
+        return length <= PREVIEW_LENGTH ? content : content.substring(0, content.offsetByCodePoints(0, PREVIEW_LENGTH));
+    }
+
+    private static Message mapRowToMessage(ResultSet rs) throws SQLException {
+        return new Message(
+                rs.getInt("id"),
+                rs.getInt("conversationID"),
+                rs.getInt("senderID"),
+                rs.getString("content"),
+                rs.getString("timestamp"));
+    }
 }
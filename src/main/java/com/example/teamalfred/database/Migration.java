@@ -0,0 +1,55 @@
+package com.example.teamalfred.database;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * One step of the schema history, applied by {@link SchemaMigrator}.
+ * <p>
+ * A migration is identified by its version number and carries the SQL statements
+ * that take the schema from {@code version - 1} to {@code version}. Its checksum is
+ * recorded when it is applied, so editing a migration that has already shipped is
+ * detected at startup instead of silently leaving databases out of step.
+ * </p>
+ */
+public class Migration {
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+
+    /**
+     * Creates a migration.
+     *
+     * @param version     The schema version this migration produces (1, 2, 3, ...).
+     * @param description A short human-readable summary.
+     * @param statements  The SQL statements to run, in order.
+     */
+    public Migration(int version, String description, String... statements) {
+        this.version = version;
+        this.description = description;
+        this.statements = List.of(statements);
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+    public List<String> getStatements() { return statements; }
+
+    /**
+     * @return The SHA-256 of the migration's statements, as lowercase hex.
+     */
+    public String getChecksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String statement : statements) {
+                digest.update(statement.trim().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // required on every JVM
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.teamalfred.database;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Imports a student roster from CSV.
+ * <p>
+ * The file is parsed as a stream and handled in chunks. Each chunk is validated on a
+ * small worker pool while the next chunk is read, and valid rows are inserted with one
+ * batched statement and one commit per chunk. Classes named in the file are created on
+ * first use. An email that appears twice in the file, or already belongs to a student
+ * (ignoring case), is reported and skipped.
+ * </p>
+ * <p>
+ * Progress is stored in the import_checkpoints table in the same transaction as each chunk.
+ * If an import stops part-way (a crash, a bad row the database rejects), running it again
+ * with the same key skips the records that were already committed.
+ * </p>
+ * <p>
+ * Expected header (any order, case-insensitive): {@code first_name, last_name, email,
+ * class_name} and optionally {@code subject}.
+ * </p>
+ */
+public class RosterImporter {
+
+    /** Rows inserted per transaction. */
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** Chunks read ahead while an earlier one is being inserted; bounds memory use. */
+    private static final int MAX_PENDING_CHUNKS = 4;
+
+    /** Maximum number of row errors kept in the {@link Result}; all are sent to the listener. */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String INSERT_STUDENT_SQL =
+            "INSERT INTO students (first_name, last_name, email, class_id, subject) VALUES (?, ?, ?, ?, ?)";
+    // File emails are lowercased, so compare without case; uses idx_students_email_nocase
+    private static final String EMAIL_EXISTS_SQL = "SELECT 1 FROM students WHERE email = ? COLLATE NOCASE";
+    private static final String ALL_CLASSES_SQL = "SELECT class_id, class_name FROM classes";
+    private static final String INSERT_CLASS_SQL = "INSERT INTO classes (class_name) VALUES (?)";
+    private static final String LAST_INSERT_ID_SQL = "SELECT last_insert_rowid()";
+    private static final String LOAD_CHECKPOINT_SQL = "SELECT records_done FROM import_checkpoints WHERE import_key = ?";
+    private static final String SAVE_CHECKPOINT_SQL =
+            "INSERT INTO import_checkpoints (import_key, records_done, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (import_key) DO UPDATE SET records_done = excluded.records_done, updated_at = excluded.updated_at";
+    private static final String CLEAR_CHECKPOINT_SQL = "DELETE FROM import_checkpoints WHERE import_key = ?";
+
+    /**
+     * Receives progress while an import runs. Called on the importing thread.
+     */
+    public interface Listener {
+        /**
+         * Called after each chunk has been committed.
+         *
+         * @param progress Totals so far.
+         */
+        default void onProgress(Result progress) {}
+
+        /**
+         * Called for every row that is not imported.
+         *
+         * @param error Where and why.
+         */
+        default void onRowError(RowError error) {}
+    }
+
+    /**
+     * A row that was not imported.
+     *
+     * @param line   The line of the file the record starts on.
+     * @param reason Why it was rejected.
+     */
+    public record RowError(int line, String reason) {}
+
+    /**
+     * Totals for an import.
+     *
+     * @param recordsRead   Data records read in this run, excluding any skipped on resume.
+     * @param imported      Students inserted.
+     * @param duplicates    Rows skipped because the email was already used.
+     * @param rejected      Rows that failed validation.
+     * @param resumedAfter  Records skipped because a previous run had already committed them.
+     * @param classesCreated Classes created for class names not yet in the database.
+     * @param errors        The first row errors, in file order.
+     */
+    public record Result(int recordsRead, int imported, int duplicates, int rejected, int resumedAfter,
+                         int classesCreated, List<RowError> errors) {}
+
+    private final int chunkSize;
+    private final int validatorThreads;
+
+    /**
+     * Creates an importer with the default chunk size.
+     */
+    public RosterImporter() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Rows inserted per transaction.
+     */
+    public RosterImporter(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.validatorThreads = Math.max(1, Math.min(MAX_PENDING_CHUNKS, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Imports a CSV file. The checkpoint key is derived from the file's path, size and
+     * modification time, so re-running an interrupted import of the same file resumes it.
+     *
+     * @param file     The CSV file.
+     * @param listener Receives progress and row errors.
+     * @return The totals.
+     * @throws IOException  If the file cannot be read or its header is invalid.
+     * @throws SQLException If the database rejects a chunk; earlier chunks stay committed.
+     */
+    public Result importFile(Path file, Listener listener) throws IOException, SQLException {
+        String key = file.toAbsolutePath() + "|" + Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            return importCsv(reader, key, listener);
+        }
+    }
+
+    /**
+     * Imports CSV text.
+     *
+     * @param source    The CSV text, starting with the header row. Not closed by this method.
+     * @param importKey Identifies this import for resuming; use the same key to resume.
+     * @param listener  Receives progress and row errors.
+     * @return The totals.
+     * @throws IOException  If the text cannot be read or its header is invalid.
+     * @throws SQLException If the database rejects a chunk; earlier chunks stay committed.
+     */
+    public Result importCsv(Reader source, String importKey, Listener listener) throws IOException, SQLException {
+        CsvReader csv = new CsvReader(source);
+        Map<String, Integer> columns = readHeader(csv.readRecord());
+        int resumeAfter = loadCheckpoint(importKey);
+
+        for (int skipped = 0; skipped < resumeAfter; skipped++) {
+            if (csv.readRecord() == null) {
+                break;
+            }
+        }
+
+        Run run = new Run(importKey, resumeAfter, loadClasses(), listener);
+        ExecutorService validators = Executors.newFixedThreadPool(validatorThreads, daemonThreads());
+        try {
+            Deque<Future<List<Row>>> pending = new ArrayDeque<>();
+            boolean endOfInput = false;
+            while (!endOfInput || !pending.isEmpty()) {
+                while (!endOfInput && pending.size() < MAX_PENDING_CHUNKS) {
+                    List<Row> chunk = readChunk(csv);
+                    if (chunk.isEmpty()) {
+                        endOfInput = true;
+                    } else {
+                        pending.add(validators.submit(() -> validate(chunk, columns)));
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    insertChunk(run, await(pending.poll()));
+                }
+            }
+        } finally {
+            validators.shutdownNow();
+        }
+
+        clearCheckpoint(importKey);
+        return run.result();
+    }
+
+    /**
+     * Maps column names to positions and checks the required ones are there.
+     */
+    private static Map<String, Integer> readHeader(List<String> header) throws IOException {
+        if (header == null) {
+            throw new IOException("The roster file is empty.");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("first_name", "last_name", "email", "class_name")) {
+            if (!columns.containsKey(required)) {
+                throw new IOException("The roster header is missing the " + required + " column.");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Reads up to one chunk of raw records.
+     */
+    private List<Row> readChunk(CsvReader csv) throws IOException {
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        List<String> fields;
+        while (chunk.size() < chunkSize && (fields = csv.readRecord()) != null) {
+            chunk.add(new Row(csv.getRecordLine(), fields));
+        }
+        return chunk;
+    }
+
+    /**
+     * Checks each row of a chunk on its own; runs on a validator thread.
+     */
+    private static List<Row> validate(List<Row> chunk, Map<String, Integer> columns) {
+        for (Row row : chunk) {
+            row.firstName = field(row, columns, "first_name");
+            row.lastName = field(row, columns, "last_name");
+            row.email = field(row, columns, "email").toLowerCase(Locale.ROOT);
+            row.className = field(row, columns, "class_name");
+            String subject = field(row, columns, "subject");
+            row.subject = subject.isEmpty() ? "General" : subject;
+
+            if (row.firstName.isEmpty() || row.lastName.isEmpty()) {
+                row.error = "first and last name are required";
+            } else if (!EMAIL.matcher(row.email).matches()) {
+                row.error = "invalid email: " + row.email;
+            } else if (row.className.isEmpty()) {
+                row.error = "class_name is required";
+            }
+        }
+        return chunk;
+    }
+
+    private static String field(Row row, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < row.fields.size() ? row.fields.get(index).trim() : "";
+    }
+
+    /**
+     * Inserts the valid rows of a chunk and records the checkpoint, in one transaction.
+     * Duplicate checks happen here, in file order, so they do not depend on validator timing.
+     * Once the chunk commits, its new students and classes are published on the {@link ChangeBus}.
+     */
+    private void insertChunk(Run run, List<Row> chunk) throws SQLException {
+        List<RowError> chunkErrors = new ArrayList<>();
+        List<Integer> newClassIds = new ArrayList<>();
+        int[] newStudentIds = {1, 0}; // first and last, inclusive; empty until a batch runs
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            lease.inTransaction(() -> {
+                PreparedStatement exists = lease.prepare(EMAIL_EXISTS_SQL);
+                PreparedStatement insert = lease.prepare(INSERT_STUDENT_SQL);
+                int batched = 0;
+                for (Row row : chunk) {
+                    if (row.error != null) {
+                        run.rejected++;
+                        chunkErrors.add(new RowError(row.line, row.error));
+                        continue;
+                    }
+                    if (!run.seenEmails.add(row.email) || emailExists(exists, row.email)) {
+                        run.duplicates++;
+                        chunkErrors.add(new RowError(row.line, "duplicate email: " + row.email));
+                        continue;
+                    }
+                    insert.setString(1, row.firstName);
+                    insert.setString(2, row.lastName);
+                    insert.setString(3, row.email);
+                    insert.setInt(4, classIdFor(lease, run, row.className, newClassIds));
+                    insert.setString(5, row.subject);
+                    insert.addBatch();
+                    batched++;
+                }
+                if (batched > 0) {
+                    insert.executeBatch();
+                    // student_id is AUTOINCREMENT and this transaction holds the writer, so the batch got consecutive IDs
+                    int lastId = lastInsertId(lease);
+                    newStudentIds[0] = lastId - batched + 1;
+                    newStudentIds[1] = lastId;
+                }
+                run.imported += batched;
+                run.recordsRead += chunk.size();
+                saveCheckpoint(lease, run.importKey, run.resumedAfter + run.recordsRead);
+                return batched;
+            });
+        }
+        // New students and classes bypass the DAOs, so cached rosters and class lists are stale
+        EntityCache.clearAll();
+        ChangeBus bus = ChangeBus.shared();
+        for (int classId : newClassIds) {
+            bus.publish(ChangeEvent.Entity.CLASSROOM, classId, ChangeEvent.Operation.INSERT);
+        }
+        for (int studentId = newStudentIds[0]; studentId <= newStudentIds[1]; studentId++) {
+            bus.publish(ChangeEvent.Entity.STUDENT, studentId, ChangeEvent.Operation.INSERT);
+        }
+
+        for (RowError error : chunkErrors) {
+            if (run.errors.size() < MAX_REPORTED_ERRORS) {
+                run.errors.add(error);
+            }
+            run.listener.onRowError(error);
+        }
+        run.listener.onProgress(run.result());
+    }
+
+    private static boolean emailExists(PreparedStatement exists, String email) throws SQLException {
+        exists.setString(1, email);
+        try (ResultSet rs = exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private static int lastInsertId(ConnectionLease lease) throws SQLException {
+        try (ResultSet rs = lease.prepare(LAST_INSERT_ID_SQL).executeQuery()) {
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Looks up a class by name, creating it the first time the file mentions it.
+     * The IDs of classes created are added to {@code created}.
+     */
+    private static int classIdFor(ConnectionLease lease, Run run, String className, List<Integer> created)
+            throws SQLException {
+        Integer classId = run.classIds.get(className);
+        if (classId != null) {
+            return classId;
+        }
+        PreparedStatement stmt = lease.prepare(INSERT_CLASS_SQL, Statement.RETURN_GENERATED_KEYS);
+        stmt.setString(1, className);
+        stmt.executeUpdate();
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No ID returned for new class " + className);
+            }
+            classId = keys.getInt(1);
+        }
+        run.classIds.put(className, classId);
+        run.classesCreated++;
+        created.add(classId);
+        return classId;
+    }
+
+    private static Map<String, Integer> loadClasses() throws SQLException {
+        Map<String, Integer> classIds = new HashMap<>();
+        try (ConnectionLease lease = DatabaseConnection.leaseReader();
+             ResultSet rs = lease.prepare(ALL_CLASSES_SQL).executeQuery()) {
+            while (rs.next()) {
+                classIds.putIfAbsent(rs.getString("class_name"), rs.getInt("class_id"));
+            }
+        }
+        return classIds;
+    }
+
+    private static int loadCheckpoint(String importKey) throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(LOAD_CHECKPOINT_SQL);
+            stmt.setString(1, importKey);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static void saveCheckpoint(ConnectionLease lease, String importKey, int recordsDone) throws SQLException {
+        PreparedStatement stmt = lease.prepare(SAVE_CHECKPOINT_SQL);
+        stmt.setString(1, importKey);
+        stmt.setInt(2, recordsDone);
+        stmt.executeUpdate();
+    }
+
+    private static void clearCheckpoint(String importKey) throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(CLEAR_CHECKPOINT_SQL);
+            stmt.setString(1, importKey);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static List<Row> await(Future<List<Row>> validated) throws IOException {
+        try {
+            return validated.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Roster import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Roster validation failed", e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "roster-validate-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One CSV record, filled in by validation.
+     */
+    private static final class Row {
+        final int line;
+        final List<String> fields;
+        String firstName;
+        String lastName;
+        String email;
+        String className;
+        String subject;
+        String error;
+
+        Row(int line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Mutable state of one import; only touched by the importing thread.
+     */
+    private static final class Run {
+        final String importKey;
+        final int resumedAfter;
+        final Map<String, Integer> classIds;
+        final Listener listener;
+        final Set<String> seenEmails = new HashSet<>();
+        final List<RowError> errors = new ArrayList<>();
+        int recordsRead;
+        int imported;
+        int duplicates;
+        int rejected;
+        int classesCreated;
+
+        Run(String importKey, int resumedAfter, Map<String, Integer> classIds, Listener listener) {
+            this.importKey = importKey;
+            this.resumedAfter = resumedAfter;
+            this.classIds = classIds;
+            this.listener = listener != null ? listener : new Listener() {};
+        }
+
+        Result result() {
+            return new Result(recordsRead, imported, duplicates, rejected, resumedAfter, classesCreated,
+                    List.copyOf(errors));
+        }
+    }
+}
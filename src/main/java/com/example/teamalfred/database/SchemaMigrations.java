@@ -0,0 +1,437 @@
+package com.example.teamalfred.database;
+
+import java.util.List;
+
+/**
+ * The ordered list of schema migrations applied by {@link SchemaMigrator}.
+ * <p>
+ * Append new migrations at the end with the next version number. Never edit or
+ * reorder a migration once it has been released; add a new one instead.
+ * </p>
+ */
+public final class SchemaMigrations {
+
+    /** Private constructor to prevent instantiation. */
+    private SchemaMigrations() {}
+
+    /**
+     * @return Every migration, ordered by version.
+     */
+    public static List<Migration> all() {
+        return List.of(
+                new Migration(1, "Indexes for DAO lookups",
+                        "CREATE INDEX IF NOT EXISTS idx_students_class_id ON students (class_id)",
+                        "CREATE INDEX IF NOT EXISTS idx_students_subject ON students (subject)",
+                        "CREATE INDEX IF NOT EXISTS idx_students_email ON students (email)",
+                        "CREATE INDEX IF NOT EXISTS idx_attendance_class_date ON attendance (class_id, date)",
+                        "CREATE INDEX IF NOT EXISTS idx_assessments_student_id ON assessments (studentId)",
+                        "CREATE INDEX IF NOT EXISTS idx_assessments_subject ON assessments (subject)",
+                        "CREATE INDEX IF NOT EXISTS idx_messages_conversation_timestamp ON messages (conversationID, timestamp)",
+                        "CREATE INDEX IF NOT EXISTS idx_conversations_user_one ON conversations (userOneID, userTwoID)",
+                        "CREATE INDEX IF NOT EXISTS idx_conversations_user_two ON conversations (userTwoID, userOneID)"),
+                new Migration(2, "ISO attendance dates and (student_id, date) index",
+                        // dd/MM/yyyy -> yyyy-MM-dd; drop legacy rows that duplicate an ISO row first
+                        "DELETE FROM attendance WHERE date GLOB '[0-9][0-9]/[0-9][0-9]/[0-9][0-9][0-9][0-9]' " +
+                                "AND EXISTS (SELECT 1 FROM attendance a WHERE a.student_id = attendance.student_id " +
+                                "AND a.class_id = attendance.class_id " +
+                                "AND a.date = substr(attendance.date, 7, 4) || '-' || substr(attendance.date, 4, 2) " +
+                                "|| '-' || substr(attendance.date, 1, 2))",
+                        "UPDATE attendance SET date = substr(date, 7, 4) || '-' || substr(date, 4, 2) || '-' || substr(date, 1, 2) " +
+                                "WHERE date GLOB '[0-9][0-9]/[0-9][0-9]/[0-9][0-9][0-9][0-9]'",
+                        // timestamps such as yyyy-MM-ddTHH:mm:ss -> yyyy-MM-dd
+                        "DELETE FROM attendance WHERE date GLOB '[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]?*' " +
+                                "AND EXISTS (SELECT 1 FROM attendance a WHERE a.student_id = attendance.student_id " +
+                                "AND a.class_id = attendance.class_id AND a.date = substr(attendance.date, 1, 10))",
+                        "UPDATE attendance SET date = substr(date, 1, 10) " +
+                                "WHERE date GLOB '[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]?*'",
+                        "CREATE INDEX IF NOT EXISTS idx_attendance_student_date ON attendance (student_id, date)"),
+                new Migration(3, "Monthly attendance rollup maintained by triggers",
+                        // Built from scratch from whatever attendance exists now
+                        "DROP TRIGGER IF EXISTS trg_attendance_monthly_insert",
+                        "DROP TRIGGER IF EXISTS trg_attendance_monthly_delete",
+                        "DROP TRIGGER IF EXISTS trg_attendance_monthly_update",
+                        "DROP TABLE IF EXISTS attendance_monthly",
+                        """
+                        CREATE TABLE attendance_monthly (
+                            student_id INTEGER NOT NULL,
+                            month TEXT NOT NULL,
+                            class_id INTEGER NOT NULL,
+                            record_count INTEGER NOT NULL DEFAULT 0,
+                            present_count INTEGER NOT NULL DEFAULT 0,
+                            absent_count INTEGER NOT NULL DEFAULT 0,
+                            late_count INTEGER NOT NULL DEFAULT 0,
+                            excused_count INTEGER NOT NULL DEFAULT 0,
+                            PRIMARY KEY (student_id, month, class_id)
+                        ) WITHOUT ROWID""",
+                        """
+                        CREATE TRIGGER trg_attendance_monthly_insert AFTER INSERT ON attendance
+                        WHEN NEW.date IS NOT NULL
+                        BEGIN
+                            INSERT INTO attendance_monthly (student_id, month, class_id, record_count,
+                                    present_count, absent_count, late_count, excused_count)
+                            VALUES (NEW.student_id, substr(NEW.date, 1, 7), NEW.class_id, 1,
+                                    COALESCE(NEW.present, 0) <> 0, COALESCE(NEW.absent, 0) <> 0,
+                                    COALESCE(NEW.late, 0) <> 0, COALESCE(NEW.excused, 0) <> 0)
+                            ON CONFLICT (student_id, month, class_id) DO UPDATE SET
+                                record_count = record_count + 1,
+                                present_count = present_count + excluded.present_count,
+                                absent_count = absent_count + excluded.absent_count,
+                                late_count = late_count + excluded.late_count,
+                                excused_count = excused_count + excluded.excused_count;
+                        END""",
+                        """
+                        CREATE TRIGGER trg_attendance_monthly_delete AFTER DELETE ON attendance
+                        WHEN OLD.date IS NOT NULL
+                        BEGIN
+                            UPDATE attendance_monthly SET
+                                record_count = record_count - 1,
+                                present_count = present_count - (COALESCE(OLD.present, 0) <> 0),
+                                absent_count = absent_count - (COALESCE(OLD.absent, 0) <> 0),
+                                late_count = late_count - (COALESCE(OLD.late, 0) <> 0),
+                                excused_count = excused_count - (COALESCE(OLD.excused, 0) <> 0)
+                            WHERE student_id = OLD.student_id AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id;
+                            DELETE FROM attendance_monthly
+                            WHERE student_id = OLD.student_id AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id
+                              AND record_count <= 0;
+                        END""",
+                        """
+                        CREATE TRIGGER trg_attendance_monthly_update AFTER UPDATE ON attendance
+                        BEGIN
+                            UPDATE attendance_monthly SET
+                                record_count = record_count - 1,
+                                present_count = present_count - (COALESCE(OLD.present, 0) <> 0),
+                                absent_count = absent_count - (COALESCE(OLD.absent, 0) <> 0),
+                                late_count = late_count - (COALESCE(OLD.late, 0) <> 0),
+                                excused_count = excused_count - (COALESCE(OLD.excused, 0) <> 0)
+                            WHERE OLD.date IS NOT NULL AND student_id = OLD.student_id
+                              AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id;
+                            DELETE FROM attendance_monthly
+                            WHERE OLD.date IS NOT NULL AND student_id = OLD.student_id
+                              AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id AND record_count <= 0;
+                            INSERT INTO attendance_monthly (student_id, month, class_id, record_count,
+                                    present_count, absent_count, late_count, excused_count)
+                            SELECT NEW.student_id, substr(NEW.date, 1, 7), NEW.class_id, 1,
+                                    COALESCE(NEW.present, 0) <> 0, COALESCE(NEW.absent, 0) <> 0,
+                                    COALESCE(NEW.late, 0) <> 0, COALESCE(NEW.excused, 0) <> 0
+                            WHERE NEW.date IS NOT NULL
+                            ON CONFLICT (student_id, month, class_id) DO UPDATE SET
+                                record_count = record_count + 1,
+                                present_count = present_count + excluded.present_count,
+                                absent_count = absent_count + excluded.absent_count,
+                                late_count = late_count + excluded.late_count,
+                                excused_count = excused_count + excluded.excused_count;
+                        END""",
+                        """
+                        INSERT INTO attendance_monthly (student_id, month, class_id, record_count,
+                                present_count, absent_count, late_count, excused_count)
+                        SELECT student_id, substr(date, 1, 7), class_id, COUNT(*),
+                               SUM(COALESCE(present, 0) <> 0), SUM(COALESCE(absent, 0) <> 0),
+                               SUM(COALESCE(late, 0) <> 0), SUM(COALESCE(excused, 0) <> 0)
+                        FROM attendance WHERE date IS NOT NULL
+                        GROUP BY student_id, substr(date, 1, 7), class_id"""),
+                new Migration(4, "Store attendance as a status code plus a late flag",
+                        """
+                        CREATE TABLE attendance_compact (
+                            student_id INTEGER NOT NULL,
+                            class_id INTEGER NOT NULL,
+                            date TEXT NOT NULL,
+                            status INTEGER NOT NULL DEFAULT 0 CHECK (status BETWEEN 0 AND 3),
+                            late INTEGER NOT NULL DEFAULT 0 CHECK (late IN (0, 1)),
+                            notes TEXT,
+                            PRIMARY KEY (student_id, class_id, date),
+                            FOREIGN KEY (student_id) REFERENCES students(student_id),
+                            FOREIGN KEY (class_id) REFERENCES classes(class_id)
+                        ) WITHOUT ROWID""",
+                        // 0 unmarked, 1 present, 2 absent, 3 excused; a legacy row with several flags keeps the first
+                        """
+                        INSERT INTO attendance_compact (student_id, class_id, date, status, late, notes)
+                        SELECT student_id, class_id, date,
+                               CASE WHEN COALESCE(present, 0) <> 0 THEN 1
+                                    WHEN COALESCE(absent, 0) <> 0 THEN 2
+                                    WHEN COALESCE(excused, 0) <> 0 THEN 3
+                                    ELSE 0 END,
+                               COALESCE(late, 0) <> 0, notes
+                        FROM attendance
+                        WHERE student_id IS NOT NULL AND class_id IS NOT NULL AND date IS NOT NULL""",
+                        // Also drops the old rollup triggers and indexes
+                        "DROP TABLE attendance",
+                        "ALTER TABLE attendance_compact RENAME TO attendance",
+                        "CREATE INDEX idx_attendance_class_date ON attendance (class_id, date)",
+                        "CREATE INDEX idx_attendance_student_date ON attendance (student_id, date)",
+                        """
+                        CREATE TRIGGER trg_attendance_monthly_insert AFTER INSERT ON attendance
+                        BEGIN
+                            INSERT INTO attendance_monthly (student_id, month, class_id, record_count,
+                                    present_count, absent_count, late_count, excused_count)
+                            VALUES (NEW.student_id, substr(NEW.date, 1, 7), NEW.class_id, 1,
+                                    NEW.status = 1, NEW.status = 2, NEW.late, NEW.status = 3)
+                            ON CONFLICT (student_id, month, class_id) DO UPDATE SET
+                                record_count = record_count + 1,
+                                present_count = present_count + excluded.present_count,
+                                absent_count = absent_count + excluded.absent_count,
+                                late_count = late_count + excluded.late_count,
+                                excused_count = excused_count + excluded.excused_count;
+                        END""",
+                        """
+                        CREATE TRIGGER trg_attendance_monthly_delete AFTER DELETE ON attendance
+                        BEGIN
+                            UPDATE attendance_monthly SET
+                                record_count = record_count - 1,
+                                present_count = present_count - (OLD.status = 1),
+                                absent_count = absent_count - (OLD.status = 2),
+                                late_count = late_count - OLD.late,
+                                excused_count = excused_count - (OLD.status = 3)
+                            WHERE student_id = OLD.student_id AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id;
+                            DELETE FROM attendance_monthly
+                            WHERE student_id = OLD.student_id AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id
+                              AND record_count <= 0;
+                        END""",
+                        """
+                        CREATE TRIGGER trg_attendance_monthly_update AFTER UPDATE ON attendance
+                        BEGIN
+                            UPDATE attendance_monthly SET
+                                record_count = record_count - 1,
+                                present_count = present_count - (OLD.status = 1),
+                                absent_count = absent_count - (OLD.status = 2),
+                                late_count = late_count - OLD.late,
+                                excused_count = excused_count - (OLD.status = 3)
+                            WHERE student_id = OLD.student_id AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id;
+                            DELETE FROM attendance_monthly
+                            WHERE student_id = OLD.student_id AND month = substr(OLD.date, 1, 7) AND class_id = OLD.class_id
+                              AND record_count <= 0;
+                            INSERT INTO attendance_monthly (student_id, month, class_id, record_count,
+                                    present_count, absent_count, late_count, excused_count)
+                            VALUES (NEW.student_id, substr(NEW.date, 1, 7), NEW.class_id, 1,
+                                    NEW.status = 1, NEW.status = 2, NEW.late, NEW.status = 3)
+                            ON CONFLICT (student_id, month, class_id) DO UPDATE SET
+                                record_count = record_count + 1,
+                                present_count = present_count + excluded.present_count,
+                                absent_count = absent_count + excluded.absent_count,
+                                late_count = late_count + excluded.late_count,
+                                excused_count = excused_count + excluded.excused_count;
+                        END""",
+                        "DELETE FROM attendance_monthly",
+                        """
+                        INSERT INTO attendance_monthly (student_id, month, class_id, record_count,
+                                present_count, absent_count, late_count, excused_count)
+                        SELECT student_id, substr(date, 1, 7), class_id, COUNT(*),
+                               SUM(status = 1), SUM(status = 2), SUM(late), SUM(status = 3)
+                        FROM attendance
+                        GROUP BY student_id, substr(date, 1, 7), class_id"""),
+                new Migration(5, "Checkpoints for resumable roster imports",
+                        """
+                        CREATE TABLE IF NOT EXISTS import_checkpoints (
+                            import_key TEXT PRIMARY KEY,
+                            records_done INTEGER NOT NULL,
+                            updated_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                        )"""),
+                new Migration(6, "Full-text index over student names, email and subject",
+                        "DROP TRIGGER IF EXISTS students_fts_insert",
+                        "DROP TRIGGER IF EXISTS students_fts_delete",
+                        "DROP TRIGGER IF EXISTS students_fts_update",
+                        "DROP TABLE IF EXISTS students_fts",
+                        // External content: the index stores tokens only and reads the rows from students
+                        """
+                        CREATE VIRTUAL TABLE students_fts USING fts5(
+                            first_name, last_name, email, subject,
+                            content = 'students', content_rowid = 'student_id',
+                            tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'
+                        )""",
+                        // Names outrank email, which outranks subject
+                        "INSERT INTO students_fts (students_fts, rank) VALUES ('rank', 'bm25(10.0, 10.0, 4.0, 1.0)')",
+                        """
+                        CREATE TRIGGER students_fts_insert AFTER INSERT ON students BEGIN
+                            INSERT INTO students_fts (rowid, first_name, last_name, email, subject)
+                            VALUES (NEW.student_id, NEW.first_name, NEW.last_name, NEW.email, NEW.subject);
+                        END""",
+                        """
+                        CREATE TRIGGER students_fts_delete AFTER DELETE ON students BEGIN
+                            INSERT INTO students_fts (students_fts, rowid, first_name, last_name, email, subject)
+                            VALUES ('delete', OLD.student_id, OLD.first_name, OLD.last_name, OLD.email, OLD.subject);
+                        END""",
+                        """
+                        CREATE TRIGGER students_fts_update AFTER UPDATE OF first_name, last_name, email, subject ON students BEGIN
+                            INSERT INTO students_fts (students_fts, rowid, first_name, last_name, email, subject)
+                            VALUES ('delete', OLD.student_id, OLD.first_name, OLD.last_name, OLD.email, OLD.subject);
+                            INSERT INTO students_fts (rowid, first_name, last_name, email, subject)
+                            VALUES (NEW.student_id, NEW.first_name, NEW.last_name, NEW.email, NEW.subject);
+                        END""",
+                        "INSERT INTO students_fts (students_fts) VALUES ('rebuild')"),
+                new Migration(7, "Subjects and enrollments with integer keys",
+                        """
+                        CREATE TABLE IF NOT EXISTS subjects (
+                            subject_id INTEGER PRIMARY KEY,
+                            name TEXT NOT NULL UNIQUE COLLATE NOCASE
+                        )""",
+                        "INSERT OR IGNORE INTO subjects (name) VALUES ('English'), ('Maths'), ('Science'), ('History'), " +
+                                "('Geography'), ('Health'), ('Art'), ('Technology'), ('PE'), ('General')",
+                        "INSERT OR IGNORE INTO subjects (name) SELECT DISTINCT trim(subject) FROM students " +
+                                "WHERE trim(subject) <> ''",
+                        "INSERT OR IGNORE INTO subjects (name) SELECT DISTINCT trim(subject) FROM assessments " +
+                                "WHERE trim(subject) <> ''",
+                        """
+                        CREATE TABLE IF NOT EXISTS enrollments (
+                            subject_id INTEGER NOT NULL,
+                            student_id INTEGER NOT NULL,
+                            PRIMARY KEY (subject_id, student_id),
+                            FOREIGN KEY (subject_id) REFERENCES subjects(subject_id),
+                            FOREIGN KEY (student_id) REFERENCES students(student_id)
+                        ) WITHOUT ROWID""",
+                        "CREATE INDEX IF NOT EXISTS idx_enrollments_student ON enrollments (student_id)",
+                        "INSERT OR IGNORE INTO enrollments (subject_id, student_id) " +
+                                "SELECT subjects.subject_id, students.student_id FROM students " +
+                                "JOIN subjects ON subjects.name = trim(students.subject)",
+                        // students.subject stays as the subject a student was added with; enrollments are the membership
+                        """
+                        CREATE TRIGGER students_enroll_subject AFTER INSERT ON students
+                        WHEN trim(NEW.subject) <> '' BEGIN
+                            INSERT OR IGNORE INTO subjects (name) VALUES (trim(NEW.subject));
+                            INSERT OR IGNORE INTO enrollments (subject_id, student_id)
+                            SELECT subject_id, NEW.student_id FROM subjects WHERE name = trim(NEW.subject);
+                        END""",
+                        """
+                        CREATE TRIGGER students_drop_enrollments AFTER DELETE ON students BEGIN
+                            DELETE FROM enrollments WHERE student_id = OLD.student_id;
+                        END""",
+                        "ALTER TABLE assessments ADD COLUMN subject_id INTEGER REFERENCES subjects(subject_id)",
+                        "UPDATE assessments SET subject_id = (SELECT subject_id FROM subjects WHERE name = trim(assessments.subject))",
+                        "CREATE INDEX IF NOT EXISTS idx_assessments_subject_id ON assessments (subject_id)",
+                        // Subject lookups now go through the integer keys
+                        "DROP INDEX IF EXISTS idx_students_subject",
+                        "DROP INDEX IF EXISTS idx_assessments_subject"),
+                new Migration(8, "Assessment definitions with per-student assignments",
+                        """
+                        CREATE TABLE assessment_definitions (
+                            definition_id INTEGER PRIMARY KEY,
+                            title TEXT NOT NULL,
+                            subject_id INTEGER REFERENCES subjects(subject_id),
+                            dueDate TEXT NOT NULL,
+                            type TEXT
+                        )""",
+                        // Assignments keep the old assessment IDs, which the UI already refers to
+                        """
+                        CREATE TABLE assessment_assignments (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            definition_id INTEGER NOT NULL REFERENCES assessment_definitions(definition_id),
+                            student_id INTEGER NOT NULL REFERENCES students(student_id),
+                            status TEXT NOT NULL
+                        )""",
+                        // Identical copies become one definition, keyed by the lowest copy's ID
+                        """
+                        INSERT INTO assessment_definitions (definition_id, title, subject_id, dueDate, type)
+                        SELECT MIN(id), title, subject_id, dueDate, type FROM assessments
+                        WHERE studentId IS NOT NULL
+                        GROUP BY title, subject_id, dueDate, type""",
+                        """
+                        INSERT INTO assessment_assignments (id, definition_id, student_id, status)
+                        SELECT id, MIN(id) OVER (PARTITION BY title, subject_id, dueDate, type), studentId, status
+                        FROM assessments WHERE studentId IS NOT NULL""",
+                        "DROP TABLE assessments",
+                        "CREATE INDEX idx_assessment_definitions_subject ON assessment_definitions (subject_id)",
+                        "CREATE INDEX idx_assessment_assignments_definition ON assessment_assignments (definition_id)",
+                        "CREATE INDEX idx_assessment_assignments_student ON assessment_assignments (student_id)",
+                        // The old one-row-per-student shape, for reads
+                        """
+                        CREATE VIEW assessments AS
+                        SELECT assessment_assignments.id AS id, assessment_definitions.title AS title,
+                               subjects.name AS subject, assessment_definitions.subject_id AS subject_id,
+                               assessment_definitions.dueDate AS dueDate, assessment_assignments.status AS status,
+                               assessment_definitions.type AS type, assessment_assignments.student_id AS studentId,
+                               assessment_assignments.definition_id AS definition_id
+                        FROM assessment_assignments
+                        JOIN assessment_definitions ON assessment_definitions.definition_id = assessment_assignments.definition_id
+                        LEFT JOIN subjects ON subjects.subject_id = assessment_definitions.subject_id""",
+                        """
+                        CREATE TRIGGER assessment_assignments_drop_definition AFTER DELETE ON assessment_assignments
+                        BEGIN
+                            DELETE FROM assessment_definitions WHERE definition_id = OLD.definition_id
+                              AND NOT EXISTS (SELECT 1 FROM assessment_assignments WHERE definition_id = OLD.definition_id);
+                        END""",
+                        """
+                        CREATE TRIGGER students_drop_assessments AFTER DELETE ON students BEGIN
+                            DELETE FROM assessment_assignments WHERE student_id = OLD.student_id;
+                        END"""),
+                new Migration(9, "ISO assessment due dates with an index",
+                        // dd/MM/yyyy -> yyyy-MM-dd, so due dates sort and compare as text
+                        "UPDATE assessment_definitions SET dueDate = substr(dueDate, 7, 4) || '-' || substr(dueDate, 4, 2) " +
+                                "|| '-' || substr(dueDate, 1, 2) WHERE dueDate GLOB '[0-9][0-9]/[0-9][0-9]/[0-9][0-9][0-9][0-9]'",
+                        "CREATE INDEX IF NOT EXISTS idx_assessment_definitions_due ON assessment_definitions (dueDate)"),
+                new Migration(10, "Derive assessment status from the due date and a completed flag",
+                        "DROP VIEW assessments",
+                        "ALTER TABLE assessment_assignments ADD COLUMN completed INTEGER NOT NULL DEFAULT 0 " +
+                                "CHECK (completed IN (0, 1))",
+                        "UPDATE assessment_assignments SET completed = 1 WHERE status = 'Completed'",
+                        // The other stored statuses were only the due date as seen on the day of insert
+                        "ALTER TABLE assessment_assignments DROP COLUMN status",
+                        "CREATE INDEX idx_assessment_assignments_completed ON assessment_assignments (definition_id) " +
+                                "WHERE completed = 1",
+                        // Status thresholds must match AssessmentStatus (OVERDUE_DAYS = 2)
+                        """
+                        CREATE VIEW assessments AS
+                        SELECT assessment_assignments.id AS id, assessment_definitions.title AS title,
+                               subjects.name AS subject, assessment_definitions.subject_id AS subject_id,
+                               assessment_definitions.dueDate AS dueDate,
+                               CASE WHEN assessment_assignments.completed = 1 THEN 'Completed'
+                                    WHEN assessment_definitions.dueDate > date('now', 'localtime') THEN 'Due'
+                                    WHEN assessment_definitions.dueDate >= date('now', 'localtime', '-2 days') THEN 'Overdue'
+                                    ELSE 'Closed' END AS status,
+                               assessment_definitions.type AS type, assessment_assignments.student_id AS studentId,
+                               assessment_assignments.definition_id AS definition_id,
+                               assessment_assignments.completed AS completed
+                        FROM assessment_assignments
+                        JOIN assessment_definitions ON assessment_definitions.definition_id = assessment_assignments.definition_id
+                        LEFT JOIN subjects ON subjects.subject_id = assessment_definitions.subject_id"""),
+                new Migration(11, "Last-message pointer on conversations for the inbox",
+                        "ALTER TABLE conversations ADD COLUMN lastMessageId INTEGER",
+                        "ALTER TABLE conversations ADD COLUMN lastMessageAt TEXT",
+                        "ALTER TABLE conversations ADD COLUMN lastMessagePreview TEXT",
+                        "UPDATE conversations SET lastMessageId = (SELECT id FROM messages " +
+                                "WHERE messages.conversationID = conversations.id ORDER BY timestamp DESC, id DESC LIMIT 1)",
+                        // Preview length must match MessagingDatabaseManager.PREVIEW_LENGTH
+                        "UPDATE conversations SET lastMessageAt = (SELECT timestamp FROM messages WHERE id = lastMessageId), " +
+                                "lastMessagePreview = (SELECT substr(content, 1, 100) FROM messages WHERE id = lastMessageId) " +
+                                "WHERE lastMessageId IS NOT NULL",
+                        // Kept in the same statement as every message insert, whichever code path sends it
+                        """
+                        CREATE TRIGGER messages_update_conversation AFTER INSERT ON messages
+                        BEGIN
+                            UPDATE conversations SET lastMessageId = NEW.id, lastMessageAt = NEW.timestamp,
+                                   lastMessagePreview = substr(NEW.content, 1, 100)
+                            WHERE id = NEW.conversationID;
+                        END""",
+                        // One per participant column; the inbox merges the two ordered ranges
+                        "CREATE INDEX idx_conversations_user_one_recent ON conversations (userOneID, lastMessageAt DESC)",
+                        "CREATE INDEX idx_conversations_user_two_recent ON conversations (userTwoID, lastMessageAt DESC)"),
+                new Migration(12, "One conversation per ordered participant pair",
+                        // Store each pair low ID first, then fold duplicates into the oldest conversation
+                        "UPDATE conversations SET userOneID = userTwoID, userTwoID = userOneID WHERE userOneID > userTwoID",
+                        "UPDATE messages SET conversationID = (SELECT MIN(k.id) FROM conversations c " +
+                                "JOIN conversations k ON k.userOneID = c.userOneID AND k.userTwoID = c.userTwoID " +
+                                "WHERE c.id = messages.conversationID) " +
+                                "WHERE conversationID IN (SELECT id FROM conversations)",
+                        "DELETE FROM conversations WHERE id > (SELECT MIN(k.id) FROM conversations k " +
+                                "WHERE k.userOneID = conversations.userOneID AND k.userTwoID = conversations.userTwoID)",
+                        // A kept conversation may have gained newer messages from its duplicates
+                        "UPDATE conversations SET lastMessageId = (SELECT id FROM messages " +
+                                "WHERE messages.conversationID = conversations.id ORDER BY timestamp DESC, id DESC LIMIT 1)",
+                        "UPDATE conversations SET lastMessageAt = (SELECT timestamp FROM messages WHERE id = lastMessageId), " +
+                                "lastMessagePreview = (SELECT substr(content, 1, 100) FROM messages WHERE id = lastMessageId)",
+                        "DROP INDEX idx_conversations_user_one",
+                        "DROP INDEX idx_conversations_user_two",
+                        "DROP INDEX idx_conversations_user_one_recent",
+                        "DROP INDEX idx_conversations_user_two_recent",
+                        "ALTER TABLE conversations RENAME COLUMN userOneID TO lowUserId",
+                        "ALTER TABLE conversations RENAME COLUMN userTwoID TO highUserId",
+                        "CREATE UNIQUE INDEX idx_conversations_pair ON conversations (lowUserId, highUserId)",
+                        "CREATE INDEX idx_conversations_low_recent ON conversations (lowUserId, lastMessageAt DESC)",
+                        "CREATE INDEX idx_conversations_high_recent ON conversations (highUserId, lastMessageAt DESC)"),
+                new Migration(13, "Read messages in ID order within a conversation",
+                        // Messages are read and paged by ID, which also breaks same-second timestamp ties
+                        "CREATE INDEX idx_messages_conversation_id ON messages (conversationID, id)",
+                        "DROP INDEX idx_messages_conversation_timestamp"),
+                new Migration(14, "Case-insensitive student email lookups for roster imports",
+                        // Imported emails are lowercased; students added by hand may not be
+                        "CREATE INDEX idx_students_email_nocase ON students (email COLLATE NOCASE)")
+        );
+    }
+}
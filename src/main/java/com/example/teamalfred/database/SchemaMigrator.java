@@ -0,0 +1,149 @@
+package com.example.teamalfred.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings the database schema up to date by applying pending {@link Migration}s.
+ * <p>
+ * The current version is kept in SQLite's {@code PRAGMA user_version}. Every applied
+ * migration is also recorded in the {@code schema_migrations} table with its checksum.
+ * Each pending migration runs in its own transaction together with its bookkeeping,
+ * so a failure leaves the database at the previous version.
+ * </p>
+ */
+public class SchemaMigrator {
+
+    private static final String CREATE_HISTORY_TABLE = "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description TEXT NOT NULL, " +
+            "checksum TEXT NOT NULL, " +
+            "applied_at TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    private static final String INSERT_HISTORY =
+            "INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)";
+
+    private final List<Migration> migrations;
+
+    /**
+     * Creates a migrator for the application's migrations ({@link SchemaMigrations#all()}).
+     */
+    public SchemaMigrator() {
+        this(SchemaMigrations.all());
+    }
+
+    /**
+     * Creates a migrator for a custom list of migrations (mainly for tests).
+     *
+     * @param migrations The migrations; they are applied in version order.
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        this.migrations = List.copyOf(sorted);
+    }
+
+    /**
+     * Verifies already-applied migrations and applies the pending ones.
+     *
+     * @return The number of migrations applied.
+     * @throws SQLException if a migration fails, an applied migration was modified,
+     *                      or the database is newer than this application.
+     */
+    public int migrate() throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            Connection conn = lease.getConnection();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_HISTORY_TABLE);
+            }
+
+            int currentVersion = getVersion(conn);
+            int latestVersion = migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+            if (currentVersion > latestVersion) {
+                throw new SQLException("Database schema version " + currentVersion +
+                        " is newer than this application supports (" + latestVersion + ").");
+            }
+            verifyChecksums(conn);
+
+            int applied = 0;
+            for (Migration migration : migrations) {
+                if (migration.getVersion() <= currentVersion) {
+                    continue;
+                }
+                lease.inTransaction(() -> {
+                    apply(conn, migration);
+                    return null;
+                });
+                System.out.println("Applied schema migration " + migration.getVersion() + ": " + migration.getDescription());
+                applied++;
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * Reads the schema version from {@code PRAGMA user_version}.
+     *
+     * @return The current version, 0 for a database that has never been migrated.
+     * @throws SQLException if the pragma cannot be read.
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            return getVersion(lease.getConnection());
+        }
+    }
+
+    private static int getVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Fails if any migration recorded in schema_migrations no longer matches its source.
+     */
+    private void verifyChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> recorded = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                recorded.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        for (Migration migration : migrations) {
+            String checksum = recorded.get(migration.getVersion());
+            if (checksum != null && !checksum.equals(migration.getChecksum())) {
+                throw new SQLException("Schema migration " + migration.getVersion() + " (" +
+                        migration.getDescription() + ") was modified after it was applied.");
+            }
+        }
+    }
+
+    /**
+     * Runs one migration's statements, records it and bumps user_version.
+     * Must be called inside a transaction.
+     */
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.getStatements()) {
+                stmt.execute(sql);
+            }
+            // PRAGMA does not accept bound parameters; the version is an int from our own code
+            stmt.execute("PRAGMA user_version = " + migration.getVersion());
+        }
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_HISTORY)) {
+            insert.setInt(1, migration.getVersion());
+            insert.setString(2, migration.getDescription());
+            insert.setString(3, migration.getChecksum());
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.teamalfred.database;
+
+import java.sql.SQLException;
+
+/**
+ * A unit of database work that produces a result, typically a lambda over one or more DAOs.
+ *
+ * @param <T> The type of the result.
+ */
+@FunctionalInterface
+public interface SqlCall<T> {
+
+    /**
+     * Runs the database work.
+     *
+     * @return The result of the call.
+     * @throws SQLException if a database access error occurs.
+     */
+    T call() throws SQLException;
+}
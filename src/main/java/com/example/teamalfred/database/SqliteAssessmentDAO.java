@@ -1,19 +1,54 @@
 package com.example.teamalfred.database;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * SQLite implementation of the {@link AssessmentDAO} interface.
  * Provides CRUD operations for assessments stored in the database.
+ * <p>
+ * An assessment's title, subject, due date and type are stored once in
+ * {@code assessment_definitions}; each student it is set for gets a narrow row in
+ * {@code assessment_assignments} holding only whether they have completed it. Reads go
+ * through the {@code assessments} view, which joins the two back into one row per student
+ * and derives the {@link AssessmentStatus} as it reads.
+ * Due dates are stored as ISO {@code yyyy-MM-dd} text, so date ranges are index range scans.
+ * </p>
+ * <p>
+ * Every write is published on the {@link ChangeBus}: changes to one student's assessment as
+ * {@link ChangeEvent.Entity#ASSESSMENT} with the assignment ID, and changes to a definition
+ * shared by several students as {@link ChangeEvent.Entity#ASSESSMENT_DEFINITION}.
+ * </p>
  */
 public class SqliteAssessmentDAO implements AssessmentDAO {
 
-    private final Connection conn = DatabaseConnection.getInstance();
+    /** Resolves a subject name parameter to its integer key. */
+    private static final String SUBJECT_ID = "(SELECT subject_id FROM subjects WHERE name = ?)";
+
+    /** Today's grouped totals, keyed by date so they are recounted once the day changes. */
+    private static final EntityCache<LocalDate, AssessmentCounts> COUNTS = new EntityCache<>("assessment counts", 1);
+
+    private static final String DUE_BETWEEN_SQL =
+            "SELECT * FROM assessments WHERE dueDate BETWEEN ? AND ? ORDER BY dueDate, id";
+    // The student count is an index-only probe of assessment_assignments per definition
+    private static final String DEFINITIONS_DUE_BETWEEN_SQL =
+            "SELECT d.definition_id, d.title, s.name, d.dueDate, d.type, " +
+            "(SELECT COUNT(*) FROM assessment_assignments a WHERE a.definition_id = d.definition_id) " +
+            "FROM assessment_definitions d LEFT JOIN subjects s ON s.subject_id = d.subject_id " +
+            "WHERE d.dueDate BETWEEN ? AND ? ORDER BY d.dueDate, d.definition_id";
+
+    private static final String INSERT_DEFINITION_SQL =
+            "INSERT INTO assessment_definitions (title, subject_id, dueDate, type) VALUES (?, " + SUBJECT_ID + ", ?, ?)";
+    private static final String INSERT_ASSIGNMENT_SQL =
+            "INSERT INTO assessment_assignments (definition_id, student_id) VALUES (?, ?)";
 
     /**
      * Constructs a new {@code SqliteAssessmentDAO}.
+     * Connections are leased per call from {@link DatabaseConnection}.
      *
      * @throws SQLException If the database connection cannot be established.
      */
@@ -30,82 +65,261 @@ public class SqliteAssessmentDAO implements AssessmentDAO {
         List<Assessment> list = new ArrayList<>();
         String sql = "SELECT * FROM assessments";
 
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
             while (rs.next()) {
-                Assessment a = new Assessment(
-                        rs.getString("title"),
-                        rs.getString("subject"),
-                        rs.getString("dueDate"),
-                        rs.getString("status"),
-                        rs.getString("type")
-                );
-                a.setId(rs.getInt("id"));
-                a.setStudentId(rs.getInt("studentId"));
-                list.add(a);
+                list.add(mapRowToAssessment(rs));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Retrieves every student's assessments due in a date range, through the due date index.
+     *
+     * @param from The first day of the range (inclusive).
+     * @param to   The last day of the range (inclusive).
+     * @return The matching {@link Assessment} records, earliest first.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Assessment> getDueBetween(LocalDate from, LocalDate to) throws SQLException {
+        return queryDueBetween(from, to);
+    }
+
+    /**
+     * Retrieves the assessment definitions due in a date range, through the due date index,
+     * counting each one's students instead of reading a row per student.
+     *
+     * @param from The first day of the range (inclusive).
+     * @param to   The last day of the range (inclusive).
+     * @return One {@link DueAssessment} per definition, earliest first.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<DueAssessment> getDefinitionsDueBetween(LocalDate from, LocalDate to) throws SQLException {
+        List<DueAssessment> list = new ArrayList<>();
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(DEFINITIONS_DUE_BETWEEN_SQL);
+            stmt.setString(1, from.toString());
+            stmt.setString(2, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new DueAssessment(rs.getInt(1), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getString(5), rs.getInt(6)));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Retrieves a student's assessments due on or after a day, earliest first.
+     *
+     * @param studentId The ID of the student.
+     * @param from      The first due date to include.
+     * @param limit     The maximum number of assessments to return.
+     * @return Up to {@code limit} {@link Assessment} records.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Assessment> getUpcomingForStudent(int studentId, LocalDate from, int limit) throws SQLException {
+        List<Assessment> list = new ArrayList<>();
+        String sql = "SELECT * FROM assessments WHERE studentId = ? AND dueDate >= ? ORDER BY dueDate, id LIMIT ?";
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, studentId);
+            stmt.setString(2, from.toString());
+            stmt.setInt(3, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRowToAssessment(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Retrieves the uncompleted assessments due on the given day or in the
+     * {@link AssessmentStatus#OVERDUE_DAYS} days before it.
+     *
+     * @param today The day to check.
+     * @return The overdue {@link Assessment} records, earliest first.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Assessment> getOverdue(LocalDate today) throws SQLException {
+        return getByStatus(AssessmentStatus.OVERDUE, today);
+    }
+
+    /**
+     * Retrieves the assessments with a status on a given day. The status becomes a due-date
+     * range, so every status except {@link AssessmentStatus#COMPLETED} is read through the
+     * due date index; completed assignments have a partial index of their own.
+     *
+     * @param status The status to filter by.
+     * @param today  The day the status applies to.
+     * @return The matching {@link Assessment} records, earliest first.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Assessment> getByStatus(AssessmentStatus status, LocalDate today) throws SQLException {
+        List<Assessment> list = new ArrayList<>();
+        String sql = "SELECT * FROM assessments WHERE " + status.getPredicate() + " ORDER BY dueDate, id";
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            switch (status) {
+                case DUE -> stmt.setString(1, today.toString());
+                case OVERDUE -> {
+                    stmt.setString(1, today.minusDays(AssessmentStatus.OVERDUE_DAYS).toString());
+                    stmt.setString(2, today.toString());
+                }
+                case CLOSED -> stmt.setString(1, today.minusDays(AssessmentStatus.OVERDUE_DAYS).toString());
+                case COMPLETED -> { }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRowToAssessment(rs));
+                }
             }
         }
         return list;
     }
 
     /**
-     * Inserts a new assessment into the database, including the student ID.
+     * Counts assessments by subject, status and type with one grouped query over the
+     * {@code assessments} view, so each status is derived once per row in SQL.
+     * The result is cached until the next assessment write or the next day.
+     *
+     * @return The grouped totals as of today.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public AssessmentCounts getCounts() throws SQLException {
+        return COUNTS.get(LocalDate.now(), () -> {
+            List<AssessmentCounts.Group> groups = new ArrayList<>();
+            String sql = "SELECT subject, status, type, COUNT(*) FROM assessments GROUP BY subject, status, type";
+
+            try (ConnectionLease lease = DatabaseConnection.leaseReader();
+                 ResultSet rs = lease.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    groups.add(new AssessmentCounts.Group(rs.getString(1),
+                            AssessmentStatus.fromLabel(rs.getString(2)), rs.getString(3), rs.getInt(4)));
+                }
+            }
+            return new AssessmentCounts(groups);
+        });
+    }
+
+    /**
+     * Drops the cached totals. For writes outside this DAO that add or remove
+     * assignments, such as deleting a student.
+     */
+    static void invalidateCounts() {
+        COUNTS.invalidateAll();
+    }
+
+    /**
+     * Inserts a new assessment for one student, as a definition with a single assignment.
+     * The assessment's ID and definition ID are set from the new rows; its status is ignored,
+     * as status is derived when assessments are read.
      *
      * @param a The {@link Assessment} object to insert.
      * @throws SQLException If a database access error occurs.
      */
     public void insertAssessment(Assessment a) throws SQLException {
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "INSERT INTO assessments (title, subject, dueDate, status, type, studentId) VALUES (?, ?, ?, ?, ?, ?)")) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            lease.inTransaction(() -> {
+                int definitionId = insertDefinition(lease, a.getTitle(), a.getSubject(), a.getDueDate(), a.getType());
 
-            stmt.setString(1, a.getTitle());
-            stmt.setString(2, a.getSubject());
-            stmt.setString(3, a.getDueDate());
-            stmt.setString(4, a.getStatus());
-            stmt.setString(5, a.getType());
-            stmt.setInt(6, a.getStudentId());
-
-            stmt.executeUpdate();
+                PreparedStatement stmt = lease.prepare(INSERT_ASSIGNMENT_SQL, Statement.RETURN_GENERATED_KEYS);
+                stmt.setInt(1, definitionId);
+                stmt.setInt(2, a.getStudentId());
+                stmt.executeUpdate();
+                a.setId(generatedKey(stmt));
+                a.setDefinitionId(definitionId);
+                return null;
+            });
         }
+        COUNTS.invalidateAll();
+        ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT, a.getId(), ChangeEvent.Operation.INSERT);
     }
 
     /**
-     * Deletes an assessment by its ID.
+     * Deletes an assessment by its ID. Its definition is deleted along with its last assignment.
      *
      * @param assessmentId The ID of the assessment to delete.
      * @throws SQLException If a database access error occurs.
      */
     public void deleteAssessment(int assessmentId) throws SQLException {
-        String sql = "DELETE FROM assessments WHERE id = ?";
+        String sql = "DELETE FROM assessment_assignments WHERE id = ?";
 
-        // ✅ Get a fresh connection every time
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+
+            PreparedStatement stmt = lease.prepare(sql);
 
             stmt.setInt(1, assessmentId);
             stmt.executeUpdate();
         }
+        COUNTS.invalidateAll();
+        ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT, assessmentId, ChangeEvent.Operation.DELETE);
     }
 
     /**
      * Updates an existing assessment in the database.
+     * Title, subject, due date and type belong to the assessment's definition, so they change
+     * for every student it is set for in a single row update; the student is per assignment.
+     * Status is derived, so it is not written; use {@link #setCompleted(int, boolean)}.
      *
      * @param a The {@link Assessment} object with updated fields.
      * @throws SQLException If a database access error occurs.
      */
     public void updateAssessment(Assessment a) throws SQLException {
-        String sql = "UPDATE assessments SET title = ?, subject = ?, dueDate = ?, status = ?, type = ?, studentId = ? WHERE id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, a.getTitle());
-            stmt.setString(2, a.getSubject());
-            stmt.setString(3, a.getDueDate());
-            stmt.setString(4, a.getStatus());
-            stmt.setString(5, a.getType());
-            stmt.setInt(6, a.getStudentId());
-            stmt.setInt(7, a.getId());
+        String definitionSql = "UPDATE assessment_definitions SET title = ?, subject_id = " + SUBJECT_ID + ", " +
+                "dueDate = ?, type = ? WHERE definition_id = ?";
+        String assignmentSql = "UPDATE assessment_assignments SET student_id = ? WHERE id = ?";
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            lease.inTransaction(() -> {
+                PreparedStatement definition = lease.prepare(definitionSql);
+                definition.setString(1, a.getTitle());
+                definition.setString(2, a.getSubject());
+                definition.setString(3, a.getDueDate());
+                definition.setString(4, a.getType());
+                definition.setInt(5, a.getDefinitionId());
+                definition.executeUpdate();
+
+                PreparedStatement assignment = lease.prepare(assignmentSql);
+                assignment.setInt(1, a.getStudentId());
+                assignment.setInt(2, a.getId());
+                assignment.executeUpdate();
+                return null;
+            });
+        }
+        COUNTS.invalidateAll();
+        ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT_DEFINITION, a.getDefinitionId(), ChangeEvent.Operation.UPDATE);
+        ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT, a.getId(), ChangeEvent.Operation.UPDATE);
+    }
+
+    /**
+     * Marks a student's assessment as completed, or no longer completed.
+     *
+     * @param assessmentId The ID of the assessment.
+     * @param completed    Whether the student has completed it.
+     * @throws SQLException If a database access error occurs.
+     */
+    public void setCompleted(int assessmentId, boolean completed) throws SQLException {
+        String sql = "UPDATE assessment_assignments SET completed = ? WHERE id = ?";
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setBoolean(1, completed);
+            stmt.setInt(2, assessmentId);
             stmt.executeUpdate();
         }
+        COUNTS.invalidateAll();
+        ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT, assessmentId, ChangeEvent.Operation.UPDATE);
     }
 
     /**
@@ -119,22 +333,14 @@ public class SqliteAssessmentDAO implements AssessmentDAO {
         List<Assessment> list = new ArrayList<>();
         String sql = "SELECT * FROM assessments WHERE studentId = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+
+            PreparedStatement stmt = lease.prepare(sql);
 
             stmt.setInt(1, studentId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Assessment a = new Assessment(
-                            rs.getString("title"),
-                            rs.getString("subject"),
-                            rs.getString("dueDate"),
-                            rs.getString("status"),
-                            rs.getString("type")
-                    );
-                    a.setId(rs.getInt("id"));
-                    a.setStudentId(studentId);
-                    list.add(a);
+                    list.add(mapRowToAssessment(rs));
                 }
             }
         }
@@ -143,48 +349,172 @@ public class SqliteAssessmentDAO implements AssessmentDAO {
     }
 
     /**
-     * Inserts the same assessment for all students enrolled in a specific subject.
+     * Re-reads the rows of one student's assessments named in a batch of change events: the
+     * given assignments, plus the student's assignments of the given definitions. Listeners
+     * use it to patch the assessments they show instead of reloading them all; a requested
+     * assignment that is not returned no longer belongs to the student.
+     *
+     * @param studentId     The student whose assessments are shown.
+     * @param assessmentIds Assignment IDs that were inserted or updated.
+     * @param definitionIds Definition IDs that were inserted or updated.
+     * @return The student's current rows among those requested.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Assessment> getChangedForStudent(int studentId, Collection<Integer> assessmentIds,
+                                                 Collection<Integer> definitionIds) throws SQLException {
+        String sql = "SELECT * FROM assessments WHERE studentId = ? " +
+                "AND (id IN (SELECT value FROM json_each(?)) OR definition_id IN (SELECT value FROM json_each(?)))";
+        List<Assessment> list = new ArrayList<>();
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, studentId);
+            stmt.setString(2, jsonArray(assessmentIds));
+            stmt.setString(3, jsonArray(definitionIds));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRowToAssessment(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Sets the same assessment for all students enrolled in a specific subject: one definition
+     * row, plus one assignment row per enrolled student inserted by a single INSERT ... SELECT.
      *
      * @param title    The title of the assessment.
      * @param subject  The subject associated with the assessment.
      * @param dueDate  The due date of the assessment.
-     * @param status   The current status (e.g., "Pending", "Completed").
      * @param type     The type of assessment (e.g., "Quiz", "Assignment").
+     * @return The ID of the new definition.
      * @throws SQLException If a database access error occurs.
      */
-    public void insertAssessmentForSubject(String title, String subject, String dueDate, String status, String type) throws SQLException {
-        String getStudentsSql = "SELECT student_id FROM students WHERE subject = ?";
-        String insertSql = "INSERT INTO assessments (title, subject, dueDate, status, type, studentId) VALUES (?, ?, ?, ?, ?, ?)";
-
-        try (
-                PreparedStatement getStudentsStmt = conn.prepareStatement(getStudentsSql);
-                PreparedStatement insertStmt = conn.prepareStatement(insertSql)
-        ) {
-            getStudentsStmt.setString(1, subject);
-            ResultSet rs = getStudentsStmt.executeQuery();
+    public int insertAssessmentForSubject(String title, String subject, String dueDate, String type) throws SQLException {
+        String sql = "INSERT INTO assessment_assignments (definition_id, student_id) " +
+                "SELECT assessment_definitions.definition_id, enrollments.student_id FROM assessment_definitions " +
+                "JOIN enrollments ON enrollments.subject_id = assessment_definitions.subject_id " +
+                "WHERE assessment_definitions.definition_id = ?";
 
-            while (rs.next()) {
-                insertStmt.setString(1, title);
-                insertStmt.setString(2, subject);
-                insertStmt.setString(3, dueDate);
-                insertStmt.setString(4, status);
-                insertStmt.setString(5, type);
-                insertStmt.setInt(6, rs.getInt("student_id"));
-
-                insertStmt.addBatch();
-            }
+        int definitionId;
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            definitionId = lease.inTransaction(() -> {
+                int newId = insertDefinition(lease, title, subject, dueDate, type);
 
-            insertStmt.executeBatch();
+                PreparedStatement stmt = lease.prepare(sql);
+                stmt.setInt(1, newId);
+                stmt.executeUpdate();
+                return newId;
+            });
         }
+        COUNTS.invalidateAll();
+        ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT_DEFINITION, definitionId, ChangeEvent.Operation.INSERT);
+        return definitionId;
     }
 
+    /**
+     * Deletes every assessment of a subject, with their definitions.
+     *
+     * @param subject The subject whose assessments are deleted.
+     * @throws SQLException If a database access error occurs.
+     */
     public void deleteAssessmentsBySubject(String subject) throws SQLException {
-        String sql = "DELETE FROM assessments WHERE subject = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String idsSql = "SELECT definition_id FROM assessment_definitions WHERE subject_id = " + SUBJECT_ID;
+        String assignmentsSql = "DELETE FROM assessment_assignments WHERE definition_id IN " +
+                "(SELECT definition_id FROM assessment_definitions WHERE subject_id = " + SUBJECT_ID + ")";
+        // Also removes definitions that never had an assignment
+        String definitionsSql = "DELETE FROM assessment_definitions WHERE subject_id = " + SUBJECT_ID;
+        List<Integer> deleted = new ArrayList<>();
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            lease.inTransaction(() -> {
+                PreparedStatement ids = lease.prepare(idsSql);
+                ids.setString(1, subject);
+                try (ResultSet rs = ids.executeQuery()) {
+                    while (rs.next()) {
+                        deleted.add(rs.getInt(1));
+                    }
+                }
 
-            stmt.setString(1, subject);
-            stmt.executeUpdate();
+                PreparedStatement assignments = lease.prepare(assignmentsSql);
+                assignments.setString(1, subject);
+                assignments.executeUpdate();
+
+                PreparedStatement definitions = lease.prepare(definitionsSql);
+                definitions.setString(1, subject);
+                definitions.executeUpdate();
+                return null;
+            });
+        }
+        COUNTS.invalidateAll();
+        for (int definitionId : deleted) {
+            ChangeBus.shared().publish(ChangeEvent.Entity.ASSESSMENT_DEFINITION, definitionId, ChangeEvent.Operation.DELETE);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private List<Assessment> queryDueBetween(LocalDate from, LocalDate to) throws SQLException {
+        List<Assessment> list = new ArrayList<>();
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(DUE_BETWEEN_SQL);
+            stmt.setString(1, from.toString());
+            stmt.setString(2, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRowToAssessment(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Inserts an assessment definition and returns its ID.
+     */
+    private static int insertDefinition(ConnectionLease lease, String title, String subject,
+                                        String dueDate, String type) throws SQLException {
+        PreparedStatement stmt = lease.prepare(INSERT_DEFINITION_SQL, Statement.RETURN_GENERATED_KEYS);
+        stmt.setString(1, title);
+        stmt.setString(2, subject);
+        stmt.setString(3, dueDate);
+        stmt.setString(4, type);
+        stmt.executeUpdate();
+        return generatedKey(stmt);
+    }
+
+    /**
+     * Writes IDs as a JSON array, so a list of any length binds to one cached statement
+     * through {@code json_each}.
+     */
+    private static String jsonArray(Collection<Integer> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static int generatedKey(PreparedStatement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (!keys.next()) {
+                throw new SQLException("No ID returned for new assessment");
+            }
+            return keys.getInt(1);
         }
     }
+
+    /**
+     * Maps a row of the {@code assessments} view to an {@link Assessment}.
+     */
+    private static Assessment mapRowToAssessment(ResultSet rs) throws SQLException {
+        Assessment a = new Assessment(
+                rs.getString("title"),
+                rs.getString("subject"),
+                rs.getString("dueDate"),
+                rs.getString("status"),
+                rs.getString("type")
+        );
+        a.setId(rs.getInt("id"));
+        a.setStudentId(rs.getInt("studentId"));
+        a.setDefinitionId(rs.getInt("definition_id"));
+        return a;
+    }
 }
@@ -1,11 +1,18 @@
 package com.example.teamalfred.database;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,13 +21,67 @@ import java.util.Map;
  */
 public class SqliteAttendanceDAO implements AttendanceDAO {
 
+    /**
+     * An upsert rather than INSERT OR REPLACE: a correction must run as an UPDATE so the
+     * attendance_monthly triggers subtract the old status before adding the new one
+     * (REPLACE deletes the old row without firing delete triggers).
+     */
+    private static final String SAVE_SQL =
+            "INSERT INTO attendance (student_id, class_id, date, status, late, notes) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (student_id, class_id, date) DO UPDATE SET status = excluded.status, " +
+            "late = excluded.late, notes = excluded.notes";
+
+    /** Reads the rollup by primary-key prefix (student_id, month); one row per class. */
+    private static final String SUMMARY_SQL =
+            "SELECT COALESCE(SUM(record_count), 0), COALESCE(SUM(present_count), 0), COALESCE(SUM(absent_count), 0), " +
+            "COALESCE(SUM(late_count), 0), COALESCE(SUM(excused_count), 0) FROM attendance_monthly " +
+            "WHERE student_id = ? AND month BETWEEN ? AND ?";
+
+    private static final String CLEAR_ROLLUP_SQL = "DELETE FROM attendance_monthly";
+
+    /**
+     * Deliberately reads the whole attendance table; only used to repair the rollup.
+     * Status codes are those of {@link AttendanceStatus} (1 present, 2 absent, 3 excused).
+     */
+    private static final String REBUILD_ROLLUP_SQL =
+            "INSERT INTO attendance_monthly (student_id, month, class_id, record_count, " +
+            "present_count, absent_count, late_count, excused_count) " +
+            "SELECT student_id, substr(date, 1, 7), class_id, COUNT(*), " +
+            "SUM(status = 1), SUM(status = 2), SUM(late), SUM(status = 3) " +
+            "FROM attendance GROUP BY student_id, substr(date, 1, 7), class_id";
+
+    /** Served by idx_attendance_student_date as a range scan on (student_id, date). */
+    private static final String RANGE_SQL =
+            "SELECT student_id, class_id, date, status, late, notes FROM attendance " +
+            "WHERE student_id = ? AND date BETWEEN ? AND ? ORDER BY date";
+
+    /**
+     * One pass over idx_attendance_class_date for the whole class, grouped per student.
+     * The counters are selected in the slot order of {@link ClassAttendanceStatistics}.
+     * Rows saved for unmarked roster entries (status 0, not late) are not recorded days, and
+     * a late mark only counts as attended when the student was not also marked absent.
+     */
+    private static final String CLASS_STATS_SQL =
+            "SELECT student_id, SUM(status <> 0 OR late = 1), SUM(status = 1), SUM(status = 2), SUM(late), " +
+            "SUM(status = 3), SUM(status = 1 OR (late = 1 AND status <> 2)) FROM attendance " +
+            "WHERE class_id = ? AND date BETWEEN ? AND ? GROUP BY student_id ORDER BY student_id";
+
+    /** One count query per status; the condition comes from the enum, never from the caller. */
+    private static final Map<AttendanceStatus, String> COUNT_SQL = new EnumMap<>(AttendanceStatus.class);
+    static {
+        for (AttendanceStatus status : AttendanceStatus.values()) {
+            COUNT_SQL.put(status, "SELECT COUNT(*) FROM attendance WHERE student_id = ? AND date BETWEEN ? AND ? AND "
+                    + status.getPredicate());
+        }
+    }
+
     /**
      * Saves or updates an attendance record for a given student and date.
      * If a record already exists for that student and date, it is replaced.
      *
      * @param studentId The ID of the student.
      * @param classId   The ID of the class.
-     * @param date      The date of the attendance record (YYYY-MM-DD).
+     * @param date      The date of the attendance record (ISO-8601, YYYY-MM-DD).
      * @param present   Whether the student was present.
      * @param absent    Whether the student was absent.
      * @param late      Whether the student was late.
@@ -30,23 +91,75 @@ public class SqliteAttendanceDAO implements AttendanceDAO {
      */
     @Override
     public void saveAttendance(int studentId, int classId, String date, boolean present, boolean absent, boolean late, boolean excused, String notes) throws SQLException {
-        String sql = "INSERT OR REPLACE INTO attendance (student_id, class_id, date, present, absent, late, excused, notes) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        requireIsoDate(date);
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(SAVE_SQL);
+            bindRow(stmt, studentId, classId, date, present, absent, late, excused, notes);
+            stmt.executeUpdate();
+        }
+    }
 
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Saves a whole register with one batched statement and one commit,
+     * instead of an auto-committed insert per student.
+     *
+     * @param classId The ID of the class.
+     * @param date    The date of the register (YYYY-MM-DD).
+     * @param entries One entry per student.
+     * @return One outcome per entry: the update count, or {@link Statement#EXECUTE_FAILED} if rejected.
+     * @throws SQLException If a database access error occurs; the register is rolled back.
+     */
+    @Override
+    public int[] saveAttendanceBatch(int classId, String date, Collection<AttendanceEntry> entries) throws SQLException {
+        requireIsoDate(date);
+        int[] outcomes = new int[entries.size()];
+        List<Integer> batchedRows = new ArrayList<>(entries.size());
 
-            stmt.setInt(1, studentId);
-            stmt.setInt(2, classId);
-            stmt.setString(3, date);
-            stmt.setBoolean(4, present);
-            stmt.setBoolean(5, absent);
-            stmt.setBoolean(6, late);
-            stmt.setBoolean(7, excused);
-            stmt.setString(8, notes);
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(SAVE_SQL);
+            return lease.inTransaction(() -> {
+                int row = 0;
+                for (AttendanceEntry entry : entries) {
+                    if (entry == null || !entry.isValid()) {
+                        outcomes[row++] = Statement.EXECUTE_FAILED;
+                        continue;
+                    }
+                    bindRow(stmt, entry.getStudentId(), classId, date, entry.isPresent(), entry.isAbsent(),
+                            entry.isLate(), entry.isExcused(), entry.getNotes());
+                    stmt.addBatch();
+                    batchedRows.add(row++);
+                }
 
-            stmt.executeUpdate();
+                if (!batchedRows.isEmpty()) {
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        outcomes[batchedRows.get(i)] = counts[i];
+                    }
+                }
+                return outcomes;
+            });
+        }
+    }
+
+    /**
+     * Binds one attendance row to {@link #SAVE_SQL}, encoding the exclusive flags as a status code.
+     *
+     * @throws SQLException If more than one of present, absent and excused is set.
+     */
+    private static void bindRow(PreparedStatement stmt, int studentId, int classId, String date, boolean present,
+                                boolean absent, boolean late, boolean excused, String notes) throws SQLException {
+        int status;
+        try {
+            status = AttendanceStatus.encode(present, absent, excused);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Conflicting attendance for student " + studentId + ": " + e.getMessage(), e);
         }
+        stmt.setInt(1, studentId);
+        stmt.setInt(2, classId);
+        stmt.setString(3, date);
+        stmt.setInt(4, status);
+        stmt.setBoolean(5, late);
+        stmt.setString(6, notes);
     }
 
     /**
@@ -59,25 +172,24 @@ public class SqliteAttendanceDAO implements AttendanceDAO {
      */
     @Override
     public Map<Integer, AttendanceRecord> getAttendanceMapForClassAndDate(int classId, String date) throws SQLException {
-        String sql = "SELECT student_id, present, absent, late, excused, notes FROM attendance WHERE class_id = ? AND date = ?";
+        String sql = "SELECT student_id, status, late, notes FROM attendance WHERE class_id = ? AND date = ?";
         Map<Integer, AttendanceRecord> map = new HashMap<>();
 
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
             stmt.setInt(1, classId);
             stmt.setString(2, date);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                int studentId = rs.getInt("student_id");
-                AttendanceRecord record = new AttendanceRecord(
-                        rs.getBoolean("present"),
-                        rs.getBoolean("absent"),
-                        rs.getBoolean("late"),
-                        rs.getBoolean("excused"),
-                        rs.getString("notes")
-                );
-                map.put(studentId, record);
+            try (ResultSet rs = stmt.executeQuery()) {
+
+                while (rs.next()) {
+                    int studentId = rs.getInt("student_id");
+                    AttendanceRecord record = new AttendanceRecord(
+                            rs.getInt("status"),
+                            rs.getBoolean("late"),
+                            rs.getString("notes")
+                    );
+                    map.put(studentId, record);
+                }
             }
         }
 
@@ -85,26 +197,155 @@ public class SqliteAttendanceDAO implements AttendanceDAO {
     }
 
     /**
-     * Counts the number of attendance records for a student in a given month where a specific status is true.
-     * For example, counting how many times a student was absent or excused in a month.
+     * Counts the attendance records of a student in a date range where the given status is set.
+     * Dates are stored as ISO-8601 text, so the range compiles to an index range scan.
      *
-     * @param studentId    The ID of the student.
-     * @param statusColumn The column name to filter by (e.g., "absent", "excused").
-     * @param month        The month to check (as {@link YearMonth}).
-     * @return The count of attendance records where the given status is true.
+     * @param studentId The ID of the student.
+     * @param status    The status to count.
+     * @param from      The first day of the range (inclusive).
+     * @param to        The last day of the range (inclusive).
+     * @return The count of matching attendance records.
      * @throws SQLException If a database access error occurs.
      */
     @Override
-    public int countByStatusInMonth(int studentId, String statusColumn, YearMonth month) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM attendance WHERE student_id = ? AND strftime('%Y-%m', date) = ? AND " + statusColumn + " = 1";
-        String monthStr = month.toString();
+    public int countByStatusBetween(int studentId, AttendanceStatus status, LocalDate from, LocalDate to) throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(COUNT_SQL.get(status));
+            stmt.setInt(1, studentId);
+            stmt.setString(2, from.toString());
+            stmt.setString(3, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
 
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Loads a student's attendance records in a date range, oldest first.
+     *
+     * @param studentId The ID of the student.
+     * @param from      The first day of the range (inclusive).
+     * @param to        The last day of the range (inclusive).
+     * @return The records, with class ID and date filled in.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<AttendanceRecord> getAttendanceForStudentBetween(int studentId, LocalDate from, LocalDate to) throws SQLException {
+        List<AttendanceRecord> records = new ArrayList<>();
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(RANGE_SQL);
+            stmt.setInt(1, studentId);
+            stmt.setString(2, from.toString());
+            stmt.setString(3, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    records.add(new AttendanceRecord(
+                            rs.getInt("student_id"),
+                            rs.getInt("class_id"),
+                            rs.getString("date"),
+                            rs.getInt("status"),
+                            rs.getBoolean("late"),
+                            rs.getString("notes")
+                    ));
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Computes every student's attendance counts for a class in one grouped query,
+     * instead of one count query per student and status.
+     *
+     * @param classId The ID of the class.
+     * @param from    The first day of the range (inclusive).
+     * @param to      The last day of the range (inclusive).
+     * @return Counts for every student with a record in the range.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public ClassAttendanceStatistics getClassStatistics(int classId, LocalDate from, LocalDate to) throws SQLException {
+        int[] studentIds = new int[32];
+        int[] counts = new int[studentIds.length * ClassAttendanceStatistics.STRIDE];
+        int size = 0;
+
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(CLASS_STATS_SQL);
+            stmt.setInt(1, classId);
+            stmt.setString(2, from.toString());
+            stmt.setString(3, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (size == studentIds.length) {
+                        studentIds = Arrays.copyOf(studentIds, size * 2);
+                        counts = Arrays.copyOf(counts, studentIds.length * ClassAttendanceStatistics.STRIDE);
+                    }
+                    studentIds[size] = rs.getInt(1);
+                    int base = size * ClassAttendanceStatistics.STRIDE;
+                    for (int i = 0; i < ClassAttendanceStatistics.STRIDE; i++) {
+                        counts[base + i] = rs.getInt(i + 2);
+                    }
+                    size++;
+                }
+            }
+        }
+        return new ClassAttendanceStatistics(studentIds, counts, size);
+    }
+
+    /**
+     * Sums a student's attendance over a range of months from the attendance_monthly rollup,
+     * touching one row per class and month instead of every attendance record.
+     *
+     * @param studentId The ID of the student.
+     * @param from      The first month (inclusive).
+     * @param to        The last month (inclusive).
+     * @return The totals; all zero if nothing was recorded.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public AttendanceSummary getSummaryBetween(int studentId, YearMonth from, YearMonth to) throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(SUMMARY_SQL);
             stmt.setInt(1, studentId);
-            stmt.setString(2, monthStr);
-            ResultSet rs = stmt.executeQuery();
-            return rs.next() ? rs.getInt(1) : 0;
+            stmt.setString(2, from.toString());
+            stmt.setString(3, to.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return new AttendanceSummary(0, 0, 0, 0, 0);
+                }
+                return new AttendanceSummary(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5));
+            }
+        }
+    }
+
+    /**
+     * Recomputes attendance_monthly from the raw attendance table in one transaction.
+     *
+     * @return The number of rollup rows written.
+     * @throws SQLException If a database access error occurs; the old rollups are kept.
+     */
+    @Override
+    public int rebuildMonthlyRollups() throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            return lease.inTransaction(() -> {
+                lease.prepare(CLEAR_ROLLUP_SQL).executeUpdate();
+                return lease.prepare(REBUILD_ROLLUP_SQL).executeUpdate();
+            });
+        }
+    }
+
+    /**
+     * Attendance dates must be stored as ISO-8601 (YYYY-MM-DD) so they sort and range-scan correctly.
+     *
+     * @param date The date to check.
+     * @throws SQLException If the date is not a valid ISO-8601 date.
+     */
+    private static void requireIsoDate(String date) throws SQLException {
+        try {
+            LocalDate.parse(date);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new SQLException("Attendance date must be YYYY-MM-DD, got: " + date, e);
         }
     }
 }
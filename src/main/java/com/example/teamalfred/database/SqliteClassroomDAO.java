@@ -7,11 +7,16 @@ import java.util.List;
 /**
  * SQLite implementation of the {@link ClassroomDAO} interface.
  * Provides methods for interacting with the 'classes' table in the database.
+ * Classrooms and the list of all classrooms are cached process-wide in {@link EntityCache}s.
  */
 public class SqliteClassroomDAO implements ClassroomDAO {
 
+    private static final String ALL = "all";
+    private static final EntityCache<Integer, Classroom> CLASSROOMS = new EntityCache<>("classrooms", 500);
+    private static final EntityCache<String, List<Classroom>> CLASSROOM_LIST = new EntityCache<>("classroom list", 1);
+
     /**
-     * Inserts a new classroom into the database.
+     * Inserts a new classroom into the database and sets the classroom's ID from the new row.
      *
      * @param classroom The {@link Classroom} object containing the name of the class to be created.
      * @throws SQLException If a database access error occurs or the SQL statement is invalid.
@@ -19,39 +24,48 @@ public class SqliteClassroomDAO implements ClassroomDAO {
     @Override
     public void createClassroom(Classroom classroom) throws SQLException {
         String sql = "INSERT INTO classes (class_name) VALUES (?)";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql, Statement.RETURN_GENERATED_KEYS);
             stmt.setString(1, classroom.getClassName());
             stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    classroom.setId(keys.getInt(1));
+                }
+            }
         }
+        CLASSROOM_LIST.invalidateAll();
+        ChangeBus.shared().publish(ChangeEvent.Entity.CLASSROOM, classroom.getId(), ChangeEvent.Operation.INSERT);
     }
 
     /**
-     * Retrieves all classrooms from the database.
+     * Retrieves all classrooms, reading the database only after a classroom was created.
      *
-     * @return A list of {@link Classroom} objects representing all classrooms stored in the database.
+     * @return An unmodifiable list of {@link Classroom} objects representing all classrooms stored in the database.
      * @throws SQLException If a database access error occurs.
      */
     @Override
     public List<Classroom> getAllClassrooms() throws SQLException {
-        List<Classroom> classrooms = new ArrayList<>();
-        String sql = "SELECT class_id, class_name FROM classes";
+        return CLASSROOM_LIST.get(ALL, () -> {
+            List<Classroom> classrooms = new ArrayList<>();
+            String sql = "SELECT class_id, class_name FROM classes";
+            long generation = CLASSROOMS.generation();
 
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+            try (ConnectionLease lease = DatabaseConnection.leaseReader();
+                 ResultSet rs = lease.prepare(sql).executeQuery()) {
 
-            while (rs.next()) {
-                int id = rs.getInt("class_id");
-                String name = rs.getString("class_name");
-                classrooms.add(new Classroom(id, name));
+                while (rs.next()) {
+                    int id = rs.getInt("class_id");
+                    String name = rs.getString("class_name");
+                    classrooms.add(CLASSROOMS.intern(id, new Classroom(id, name), generation));
+                }
             }
-        }
-        return classrooms;
+            return List.copyOf(classrooms);
+        });
     }
 
     /**
-     * Retrieves a specific classroom from the database by its ID.
+     * Retrieves a specific classroom by its ID, reading the database only if it is not cached.
      *
      * @param classId The ID of the classroom to retrieve.
      * @return A {@link Classroom} object if found, otherwise {@code null}.
@@ -59,17 +73,21 @@ public class SqliteClassroomDAO implements ClassroomDAO {
      */
     @Override
     public Classroom getClassroomById(int classId) throws SQLException {
-        String sql = "SELECT * FROM classes WHERE class_id = ?";
-        try (PreparedStatement stmt = DatabaseConnection.getInstance().prepareStatement(sql)) {
-            stmt.setInt(1, classId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return new Classroom(
-                        rs.getInt("class_id"),
-                        rs.getString("class_name")
-                );
+        return CLASSROOMS.get(classId, () -> {
+            String sql = "SELECT * FROM classes WHERE class_id = ?";
+            try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+                PreparedStatement stmt = lease.prepare(sql);
+                stmt.setInt(1, classId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return new Classroom(
+                                rs.getInt("class_id"),
+                                rs.getString("class_name")
+                        );
+                    }
+                }
             }
-        }
-        return null;
+            return null;
+        });
     }
 }
@@ -4,15 +4,35 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * SQLite implementation of the {@link StudentDAO} interface for interacting with the 'students' table.
  * Provides CRUD operations and query methods for retrieving student records by class, subject, email, or ID.
+ * <p>
+ * Lookups by ID and class rosters are served from process-wide {@link EntityCache}s shared by
+ * every instance, and every other query maps its rows through the student cache too, so the
+ * same student is always the same {@link Student} object. Writes made
+ * through this DAO invalidate the affected entries and are published on the {@link ChangeBus}.
+ * </p>
  */
 public class SqliteStudentDAO implements StudentDAO {
 
+    /** Students enrolled in a subject, found by subject name through the integer join keys. */
+    private static final String BY_SUBJECT = "SELECT students.* FROM subjects " +
+            "JOIN enrollments ON enrollments.subject_id = subjects.subject_id " +
+            "JOIN students ON students.student_id = enrollments.student_id " +
+            "WHERE subjects.name = ?";
+
+    private static final EntityCache<Integer, Student> STUDENTS = new EntityCache<>("students", 2000);
+    private static final EntityCache<Integer, List<Student>> CLASS_ROSTERS = new EntityCache<>("class rosters", 64);
+
     /**
-     * Inserts a new student into the database.
+     * Inserts a new student into the database and sets the student's ID from the new row.
      *
      * @param student The {@link Student} object containing the student's data.
      * @throws SQLException If a database access error occurs.
@@ -20,15 +40,22 @@ public class SqliteStudentDAO implements StudentDAO {
     @Override
     public void createStudent(Student student) throws SQLException {
         String sql = "INSERT INTO students (first_name, last_name, email, class_id, subject) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql, Statement.RETURN_GENERATED_KEYS);
             stmt.setString(1, student.getFirstName());
             stmt.setString(2, student.getLastName());
             stmt.setString(3, student.getEmail());
             stmt.setInt(4, student.getClassId());
             stmt.setString(5, student.getSubject() != null ? student.getSubject() : "General");
             stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    student.setId(keys.getInt(1));
+                }
+            }
         }
+        CLASS_ROSTERS.invalidate(student.getClassId());
+        ChangeBus.shared().publish(ChangeEvent.Entity.STUDENT, student.getId(), ChangeEvent.Operation.INSERT);
     }
 
     /**
@@ -40,8 +67,8 @@ public class SqliteStudentDAO implements StudentDAO {
     @Override
     public void updateStudent(Student student) throws SQLException {
         String sql = "UPDATE students SET first_name = ?, last_name = ?, email = ?, class_id = ? WHERE student_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql);
             stmt.setString(1, student.getFirstName());
             stmt.setString(2, student.getLastName());
             stmt.setString(3, student.getEmail());
@@ -49,6 +76,9 @@ public class SqliteStudentDAO implements StudentDAO {
             stmt.setInt(5, student.getId());
             stmt.executeUpdate();
         }
+        STUDENTS.invalidate(student.getId());
+        CLASS_ROSTERS.invalidateAll(); // the student may have changed class
+        ChangeBus.shared().publish(ChangeEvent.Entity.STUDENT, student.getId(), ChangeEvent.Operation.UPDATE);
     }
 
     /**
@@ -60,11 +90,15 @@ public class SqliteStudentDAO implements StudentDAO {
     @Override
     public void deleteStudent(int id) throws SQLException {
         String sql = "DELETE FROM students WHERE student_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql);
             stmt.setInt(1, id);
             stmt.executeUpdate();
         }
+        STUDENTS.invalidate(id);
+        CLASS_ROSTERS.invalidateAll();
+        SqliteAssessmentDAO.invalidateCounts(); // the student's assignments went with them
+        ChangeBus.shared().publish(ChangeEvent.Entity.STUDENT, id, ChangeEvent.Operation.DELETE);
     }
 
     /**
@@ -77,19 +111,21 @@ public class SqliteStudentDAO implements StudentDAO {
     @Override
     public Optional<Student> findStudentByEmail(String email) throws SQLException {
         String sql = "SELECT * FROM students WHERE email = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        long generation = STUDENTS.generation(); // before the read, so rows racing a write are not cached
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
             stmt.setString(1, email);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapRowToStudent(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(internRow(rs, generation));
+                }
             }
         }
         return Optional.empty();
     }
 
     /**
-     * Finds a student in the database by their ID.
+     * Finds a student by their ID, reading the database only if the student is not cached.
      *
      * @param id The ID of the student.
      * @return An {@link Optional} containing the {@link Student} if found, otherwise empty.
@@ -97,16 +133,16 @@ public class SqliteStudentDAO implements StudentDAO {
      */
     @Override
     public Optional<Student> findStudentById(int id) throws SQLException {
-        String sql = "SELECT * FROM students WHERE student_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapRowToStudent(rs));
+        return Optional.ofNullable(STUDENTS.get(id, () -> {
+            String sql = "SELECT * FROM students WHERE student_id = ?";
+            try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+                PreparedStatement stmt = lease.prepare(sql);
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? mapRowToStudent(rs) : null;
+                }
             }
-        }
-        return Optional.empty();
+        }));
     }
 
     /**
@@ -119,18 +155,18 @@ public class SqliteStudentDAO implements StudentDAO {
     public List<Student> getAllStudents() throws SQLException {
         List<Student> students = new ArrayList<>();
         String sql = "SELECT * FROM students";
-        try (Connection conn = DatabaseConnection.getInstance();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        long generation = STUDENTS.generation();
+        try (ConnectionLease lease = DatabaseConnection.leaseReader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
             while (rs.next()) {
-                students.add(mapRowToStudent(rs));
+                students.add(internRow(rs, generation));
             }
         }
         return students;
     }
 
     /**
-     * Retrieves students associated with a specific subject.
+     * Retrieves the students enrolled in a subject.
      *
      * @param subject The subject to filter by.
      * @return A list of {@link Student} objects enrolled in the subject.
@@ -139,13 +175,15 @@ public class SqliteStudentDAO implements StudentDAO {
     @Override
     public List<Student> getStudentsBySubject(String subject) throws SQLException {
         List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students WHERE subject = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        String sql = BY_SUBJECT;
+        long generation = STUDENTS.generation();
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
             stmt.setString(1, subject);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                students.add(mapRowToStudent(rs));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(internRow(rs, generation));
+                }
             }
         }
         return students;
@@ -153,26 +191,249 @@ public class SqliteStudentDAO implements StudentDAO {
 
     /**
      * Retrieves students associated with a specific class ID.
+     * The roster is cached until a student is added, changed or removed.
      *
      * @param classId The class ID to filter by.
-     * @return A list of {@link Student} objects in the specified class.
+     * @return An unmodifiable list of {@link Student} objects in the specified class.
      * @throws SQLException If a database access error occurs.
      */
     @Override
     public List<Student> getStudentsByClassId(int classId) throws SQLException {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students WHERE class_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return CLASS_ROSTERS.get(classId, () -> {
+            List<Student> students = new ArrayList<>();
+            String sql = "SELECT * FROM students WHERE class_id = ?";
+            long generation = STUDENTS.generation();
+            try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+                PreparedStatement stmt = lease.prepare(sql);
+                stmt.setInt(1, classId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        students.add(internRow(rs, generation));
+                    }
+                }
+            }
+            return List.copyOf(students);
+        });
+    }
+
+    /**
+     * Retrieves one page of all students using the primary key as the cursor,
+     * so every page costs the same no matter how deep into the table it is.
+     *
+     * @param afterId Only students with a greater ID are returned (0 for the first page).
+     * @param limit   The maximum number of students to return.
+     * @return Up to {@code limit} students ordered by ID.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Student> getStudentsPage(int afterId, int limit) throws SQLException {
+        String sql = "SELECT * FROM students WHERE student_id > ? ORDER BY student_id LIMIT ?";
+        return queryPage(sql, stmt -> {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+        });
+    }
+
+    /**
+     * Retrieves one page of the students enrolled in a subject, ordered by ID.
+     *
+     * @param subject The subject to filter by.
+     * @param afterId Only students with a greater ID are returned (0 for the first page).
+     * @param limit   The maximum number of students to return.
+     * @return Up to {@code limit} students ordered by ID.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Student> getStudentsBySubjectPage(String subject, int afterId, int limit) throws SQLException {
+        String sql = BY_SUBJECT + " AND enrollments.student_id > ? ORDER BY enrollments.student_id LIMIT ?";
+        return queryPage(sql, stmt -> {
+            stmt.setString(1, subject);
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+        });
+    }
+
+    /**
+     * Retrieves one page of the students of a class, ordered by ID.
+     *
+     * @param classId The class ID to filter by.
+     * @param afterId Only students with a greater ID are returned (0 for the first page).
+     * @param limit   The maximum number of students to return.
+     * @return Up to {@code limit} students ordered by ID.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Student> getStudentsByClassIdPage(int classId, int afterId, int limit) throws SQLException {
+        String sql = "SELECT * FROM students WHERE class_id = ? AND student_id > ? ORDER BY student_id LIMIT ?";
+        return queryPage(sql, stmt -> {
             stmt.setInt(1, classId);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                students.add(mapRowToStudent(rs));
+            stmt.setInt(2, afterId);
+            stmt.setInt(3, limit);
+        });
+    }
+
+    /**
+     * Streams all students ordered by ID. Close the stream to release its connection.
+     *
+     * @return A lazily read stream of {@link Student}s.
+     * @throws SQLException If the query cannot be started.
+     */
+    @Override
+    public Stream<Student> streamAllStudents() throws SQLException {
+        return streamQuery("SELECT * FROM students ORDER BY student_id", stmt -> {});
+    }
+
+    /**
+     * Streams the students enrolled in a subject ordered by ID. Close the stream to release its connection.
+     *
+     * @param subject The subject to filter by.
+     * @return A lazily read stream of {@link Student}s.
+     * @throws SQLException If the query cannot be started.
+     */
+    @Override
+    public Stream<Student> streamStudentsBySubject(String subject) throws SQLException {
+        return streamQuery(BY_SUBJECT + " ORDER BY enrollments.student_id",
+                stmt -> stmt.setString(1, subject));
+    }
+
+    /**
+     * Searches the {@code students_fts} full-text index, which triggers keep in step with
+     * the students table. Each word of the query becomes a quoted prefix term, so what the
+     * user types can never be parsed as FTS5 syntax.
+     *
+     * @param query The search text.
+     * @param limit The maximum number of students to return.
+     * @return Up to {@code limit} students ordered by relevance.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Student> search(String query, int limit) throws SQLException {
+        String match = toMatchExpression(query);
+        if (match.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT students.* FROM students_fts JOIN students ON students.student_id = students_fts.rowid " +
+                "WHERE students_fts MATCH ? ORDER BY rank LIMIT ?";
+        return queryPage(sql, stmt -> {
+            stmt.setString(1, match);
+            stmt.setInt(2, limit);
+        });
+    }
+
+    /**
+     * Turns free text into an FTS5 query of prefix terms that must all match,
+     * e.g. {@code jo "sm} becomes {@code "jo"* """sm"*}.
+     * Words without a letter or digit are dropped, as the tokenizer would index nothing for them.
+     */
+    static String toMatchExpression(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.codePoints().noneMatch(Character::isLetterOrDigit)) {
+                continue;
+            }
+            if (!match.isEmpty()) {
+                match.append(' ');
+            }
+            match.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return match.toString();
+    }
+
+    /**
+     * Runs a bounded query on a cached statement and collects the rows.
+     */
+    private List<Student> queryPage(String sql, StatementBinder binder) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        long generation = STUDENTS.generation();
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    students.add(internRow(rs, generation));
+                }
             }
         }
         return students;
     }
 
+    /**
+     * Starts a query whose rows are mapped one at a time as the returned stream is consumed.
+     * The lease and an uncached statement stay open until the stream is closed: a cached
+     * statement could be reset by another call on the same connection while the rows are
+     * still being read.
+     */
+    private Stream<Student> streamQuery(String sql, StatementBinder binder) throws SQLException {
+        long generation = STUDENTS.generation();
+        ConnectionLease lease = DatabaseConnection.leaseReader();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = lease.prepareUncached(sql);
+            binder.bind(stmt);
+            rs = stmt.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            if (stmt != null) {
+                stmt.close();
+            }
+            lease.close();
+            throw e;
+        }
+
+        Spliterator<Student> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Student> action) {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(internRow(rs, generation));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to read the next student", e);
+                }
+            }
+        };
+
+        PreparedStatement owned = stmt;
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                owned.close(); // also closes the result set
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to close the student query", e);
+            } finally {
+                lease.close();
+            }
+        });
+    }
+
+    /**
+     * Sets the parameters of a prepared statement.
+     */
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Maps a row to the {@link Student} instance held for its ID, so every query hands out
+     * the same object for the same student. A cached student that no longer matches its row
+     * (changed by the importer or another process) is replaced by the row.
+     *
+     * @param rs         The {@link ResultSet} positioned on a student row.
+     * @param generation The cache generation read before the query ran.
+     * @return The cached {@link Student} for the row's ID, or the row itself if a write raced the query.
+     * @throws SQLException If a column read error occurs.
+     */
+    private Student internRow(ResultSet rs, long generation) throws SQLException {
+        Student student = mapRowToStudent(rs);
+        return STUDENTS.intern(student.getId(), student, generation);
+    }
+
     /**
      * Maps a row from a {@link ResultSet} to a {@link Student} object.
      *
@@ -0,0 +1,134 @@
+package com.example.teamalfred.database;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQLite implementation of the {@link SubjectDAO} interface.
+ * <p>
+ * Students are enrolled in the subject they are created with by a trigger on the
+ * {@code students} table, so this DAO is only needed to list subjects and to manage
+ * additional enrollments.
+ * </p>
+ */
+public class SqliteSubjectDAO implements SubjectDAO {
+
+    /**
+     * Retrieves all subjects ordered by ID, which keeps the default subjects in their usual order.
+     *
+     * @return A list of all {@link Subject}s.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Subject> getAllSubjects() throws SQLException {
+        List<Subject> subjects = new ArrayList<>();
+        String sql = "SELECT subject_id, name FROM subjects ORDER BY subject_id";
+        try (ConnectionLease lease = DatabaseConnection.leaseReader();
+             ResultSet rs = lease.prepare(sql).executeQuery()) {
+            while (rs.next()) {
+                subjects.add(mapRowToSubject(rs));
+            }
+        }
+        return subjects;
+    }
+
+    /**
+     * Looks up a subject by name and inserts it if missing, in one transaction.
+     *
+     * @param name The subject name.
+     * @return The existing or new {@link Subject}.
+     * @throws SQLException If a database access error occurs or the name is blank.
+     */
+    @Override
+    public Subject findOrCreateSubject(String name) throws SQLException {
+        String trimmed = name == null ? "" : name.trim();
+        if (trimmed.isEmpty()) {
+            throw new SQLException("Subject name must not be blank");
+        }
+        String insertSql = "INSERT OR IGNORE INTO subjects (name) VALUES (?)";
+        String selectSql = "SELECT subject_id, name FROM subjects WHERE name = ?";
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            return lease.inTransaction(() -> {
+                PreparedStatement insert = lease.prepare(insertSql);
+                insert.setString(1, trimmed);
+                insert.executeUpdate();
+
+                PreparedStatement select = lease.prepare(selectSql);
+                select.setString(1, trimmed);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    return mapRowToSubject(rs);
+                }
+            });
+        }
+    }
+
+    /**
+     * Retrieves the subjects a student is enrolled in, ordered by subject ID.
+     *
+     * @param studentId The ID of the student.
+     * @return The student's {@link Subject}s.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public List<Subject> getSubjectsForStudent(int studentId) throws SQLException {
+        List<Subject> subjects = new ArrayList<>();
+        String sql = "SELECT subjects.subject_id, subjects.name FROM enrollments " +
+                "JOIN subjects ON subjects.subject_id = enrollments.subject_id " +
+                "WHERE enrollments.student_id = ? ORDER BY subjects.subject_id";
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, studentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    subjects.add(mapRowToSubject(rs));
+                }
+            }
+        }
+        return subjects;
+    }
+
+    /**
+     * Enrolls a student in a subject, ignoring existing enrollments.
+     *
+     * @param studentId The ID of the student.
+     * @param subjectId The ID of the subject.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public void enrollStudent(int studentId, int subjectId) throws SQLException {
+        String sql = "INSERT OR IGNORE INTO enrollments (subject_id, student_id) VALUES (?, ?)";
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, subjectId);
+            stmt.setInt(2, studentId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes a student's enrollment in a subject.
+     *
+     * @param studentId The ID of the student.
+     * @param subjectId The ID of the subject.
+     * @throws SQLException If a database access error occurs.
+     */
+    @Override
+    public void unenrollStudent(int studentId, int subjectId) throws SQLException {
+        String sql = "DELETE FROM enrollments WHERE subject_id = ? AND student_id = ?";
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement stmt = lease.prepare(sql);
+            stmt.setInt(1, subjectId);
+            stmt.setInt(2, studentId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Maps a row with {@code subject_id} and {@code name} columns to a {@link Subject}.
+     */
+    private Subject mapRowToSubject(ResultSet rs) throws SQLException {
+        return new Subject(rs.getInt("subject_id"), rs.getString("name"));
+    }
+}
@@ -1,10 +1,8 @@
 package com.example.teamalfred.database;
 
-import java.sql.Connection; // Import required JDBC classes
-import java.sql.PreparedStatement;
+import java.sql.PreparedStatement; // Import required JDBC classes
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +25,25 @@ public class SqliteUserDAO implements UserDAO {
     private static final String COL_GRADE = "grade";
     private static final String COL_CLASS_NAME = "className";
 
+    // --- SQL, built once so the statement cache sees identical text on every call ---
+    private static final String SELECT_COLUMNS = String.join(", ",
+            COL_ID, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
+            COL_USER_TYPE, COL_GRADE, COL_CLASS_NAME);
+
+    // Exclude the grade and className columns from the INSERT statement
+    private static final String INSERT_SQL = String.format("INSERT INTO %s (%s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?)",
+            TABLE_NAME, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
+            COL_USER_TYPE);
+    private static final String UPDATE_SQL = String.format("UPDATE %s SET %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ? WHERE %s = ?",
+            TABLE_NAME, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
+            COL_USER_TYPE, COL_GRADE, COL_CLASS_NAME, COL_ID);
+    private static final String DELETE_SQL = String.format("DELETE FROM %s WHERE %s = ?", TABLE_NAME, COL_ID);
+    private static final String SELECT_BY_EMAIL_SQL = String.format("SELECT %s FROM %s WHERE %s = ?",
+            SELECT_COLUMNS, TABLE_NAME, COL_EMAIL);
+    private static final String SELECT_BY_ID_SQL = String.format("SELECT %s FROM %s WHERE %s = ?",
+            SELECT_COLUMNS, TABLE_NAME, COL_ID);
+    private static final String SELECT_ALL_SQL = String.format("SELECT %s FROM %s", SELECT_COLUMNS, TABLE_NAME);
+
 
     /**
      * Creates a new user record in the database.
@@ -35,24 +52,14 @@ public class SqliteUserDAO implements UserDAO {
      */
     @Override
     public void createUser(User user) throws SQLException {
-        // Exclude the grade and className columns from the INSERT statement
-        String sql = String.format("INSERT INTO %s (%s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?)",
-                TABLE_NAME, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
-                COL_USER_TYPE);
-
-        // Get connection for this operation
-        Connection conn = DatabaseConnection.getInstance();
-        if (conn == null) {
-            throw new SQLException("Database connection could not be established.");
-        }
-
         // Check if email is already registered
         if (findUserByEmail(user.getEmail()).isPresent()) {
             throw new SQLException("A user with this email already exists.");
         }
 
-        // Use try-with-resources for PreparedStatement (automatically closes statement)
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // Lease the writer for this operation; closing the lease hands it back to the pool
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement pstmt = lease.prepare(INSERT_SQL);
             // Set parameters based on the User object
             pstmt.setString(1, user.getFirstName());
             pstmt.setString(2, user.getLastName());
@@ -75,16 +82,8 @@ public class SqliteUserDAO implements UserDAO {
      */
     @Override
     public void updateUser(User user) throws SQLException {
-        String sql = String.format("UPDATE %s SET %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ?, %s = ? WHERE %s = ?",
-                TABLE_NAME, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
-                COL_USER_TYPE, COL_GRADE, COL_CLASS_NAME, COL_ID);
-
-        Connection conn = DatabaseConnection.getInstance();
-        if (conn == null) {
-            throw new SQLException("Database connection could not be established.");
-        }
-
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement pstmt = lease.prepare(UPDATE_SQL);
             pstmt.setString(1, user.getFirstName());
             pstmt.setString(2, user.getLastName());
             pstmt.setString(3, user.getMobile());
@@ -106,14 +105,8 @@ public class SqliteUserDAO implements UserDAO {
      */
     @Override
     public void deleteUser(int id) throws SQLException {
-        String sql = String.format("DELETE FROM %s WHERE %s = ?", TABLE_NAME, COL_ID);
-
-        Connection conn = DatabaseConnection.getInstance();
-        if (conn == null) {
-            throw new SQLException("Database connection could not be established.");
-        }
-
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter()) {
+            PreparedStatement pstmt = lease.prepare(DELETE_SQL);
             // Use the 'id' parameter passed to the method
             pstmt.setInt(1, id);
 
@@ -129,19 +122,9 @@ public class SqliteUserDAO implements UserDAO {
      */
     @Override
     public Optional<User> findUserByEmail(String email) throws SQLException {
-        // Select all columns needed to reconstruct a User object
-        String sql = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
-                COL_ID, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
-                COL_USER_TYPE, COL_GRADE, COL_CLASS_NAME, TABLE_NAME, COL_EMAIL);
-
-        Connection conn = DatabaseConnection.getInstance();
-        if (conn == null) {
-            throw new SQLException("Database connection could not be established.");
-        }
-
-
-        // Use try-with-resources for PreparedStatement and ResultSet
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // Use try-with-resources for the lease, PreparedStatement and ResultSet
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement pstmt = lease.prepare(SELECT_BY_EMAIL_SQL);
             pstmt.setString(1, email);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -164,16 +147,8 @@ public class SqliteUserDAO implements UserDAO {
      */
     @Override
     public Optional<User> findUserById(int id) throws SQLException {
-        String sql = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s WHERE %s = ?",
-                COL_ID, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
-                COL_USER_TYPE, COL_GRADE, COL_CLASS_NAME, TABLE_NAME, COL_ID);
-
-        Connection conn = DatabaseConnection.getInstance();
-        if (conn == null) {
-            throw new SQLException("Database connection could not be established.");
-        }
-
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            PreparedStatement pstmt = lease.prepare(SELECT_BY_ID_SQL);
             pstmt.setInt(1, id); // Set the ID parameter
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -194,19 +169,9 @@ public class SqliteUserDAO implements UserDAO {
     @Override
     public List<User> getAllUsers() throws SQLException {
         List<User> users = new ArrayList<>();
-        // Select all columns needed
-        String sql = String.format("SELECT %s, %s, %s, %s, %s, %s, %s, %s, %s FROM %s",
-                COL_ID, COL_FIRST_NAME, COL_LAST_NAME, COL_MOBILE, COL_EMAIL, COL_PASSWORD,
-                COL_USER_TYPE, COL_GRADE, COL_CLASS_NAME, TABLE_NAME);
-
-        Connection conn = DatabaseConnection.getInstance();
-        if (conn == null) {
-            throw new SQLException("Database connection could not be established.");
-        }
-
-        // Use try-with-resources for Statement and ResultSet
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        // Use try-with-resources for the lease, Statement and ResultSet
+        try (ConnectionLease lease = DatabaseConnection.leaseReader();
+             ResultSet rs = lease.prepare(SELECT_ALL_SQL).executeQuery()) {
 
             // Loop through all rows in the result set
             while (rs.next()) {
@@ -0,0 +1,116 @@
+package com.example.teamalfred.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An LRU cache of {@link PreparedStatement}s for a single connection, keyed by SQL text.
+ * <p>
+ * SQLite compiles a statement every time {@code prepareStatement} is called, so reusing
+ * the compiled statement saves that cost on every repeated DAO call. A cache is only ever
+ * used by whoever currently holds the lease on its connection, so it is not thread-safe.
+ * Callers must not close statements obtained from the cache; the cache closes them on
+ * eviction and when the pool is closed.
+ * </p>
+ */
+class StatementCache {
+
+    private final Connection connection;
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Creates an empty cache for a connection.
+     *
+     * @param connection The connection statements are prepared on.
+     * @param capacity   Maximum number of statements kept before the least recently used is closed.
+     * @param hits       Shared counter incremented on every cache hit.
+     * @param misses     Shared counter incremented on every cache miss.
+     */
+    StatementCache(Connection connection, int capacity, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        // Access-ordered so iteration starts at the least recently used entry
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a ready-to-use statement for the given SQL, preparing it on a miss.
+     * Parameters and pending batches from the previous use are cleared.
+     *
+     * @param sql The SQL text.
+     * @return A cached {@link PreparedStatement}.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    PreparedStatement get(String sql) throws SQLException {
+        return get(sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Returns a ready-to-use statement for the given SQL and generated-keys flag.
+     *
+     * @param sql               The SQL text.
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or {@link Statement#NO_GENERATED_KEYS}.
+     * @return A cached {@link PreparedStatement}.
+     * @throws SQLException if the statement cannot be prepared.
+     */
+    PreparedStatement get(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "keys:" + sql : sql;
+        PreparedStatement stmt = statements.get(key);
+        if (stmt != null && !stmt.isClosed()) {
+            hits.increment();
+            stmt.clearParameters();
+            stmt.clearBatch();
+            return stmt;
+        }
+
+        misses.increment();
+        stmt = connection.prepareStatement(sql, autoGeneratedKeys);
+        statements.put(key, stmt);
+        evictIfFull();
+        return stmt;
+    }
+
+    /**
+     * @return Number of statements currently cached.
+     */
+    int size() {
+        return statements.size();
+    }
+
+    /**
+     * Closes and forgets every cached statement.
+     */
+    void clear() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+    }
+
+    private void evictIfFull() {
+        Iterator<Map.Entry<String, PreparedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            closeQuietly(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+}
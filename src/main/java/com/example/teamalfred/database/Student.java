@@ -1,5 +1,7 @@
 package com.example.teamalfred.database;
 
+import java.util.Objects;
+
 /**
  * This class represents a student in the system.
  * It's used as a data model to store info like name, email, and what class they're in.
@@ -100,6 +102,39 @@ public class Student {
         return id;
     }
 
+    /**
+     * Sets the student's ID, once the database has assigned one.
+     *
+     * @param id The generated student ID
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Two students are equal if every field matches, so a cached student can be checked
+     * against a freshly read row.
+     *
+     * @param o Another object
+     * @return True if it is a Student with the same ID and details
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Student student = (Student) o;
+        return id == student.id && classId == student.classId
+                && Objects.equals(firstName, student.firstName)
+                && Objects.equals(lastName, student.lastName)
+                && Objects.equals(email, student.email)
+                && Objects.equals(subject, student.subject);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, firstName, lastName, email, classId, subject);
+    }
+
     /**
      *
      * @return
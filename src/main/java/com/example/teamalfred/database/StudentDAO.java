@@ -3,6 +3,7 @@ package com.example.teamalfred.database;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Defines the contract for Student Data Access Object (DAO) operations.
@@ -70,5 +71,64 @@ public interface StudentDAO {
      * @throws SQLException if a database access error occurs.
      */
     List<Student> getStudentsByClassId(int classId) throws SQLException;
+
+    /**
+     * Retrieves one page of all students, ordered by ID.
+     * Pass 0 for the first page, then the ID of the last student of the previous page.
+     * @param afterId Only students with a greater ID are returned.
+     * @param limit The maximum number of students to return.
+     * @return Up to {@code limit} students; fewer means this was the last page.
+     * @throws SQLException if a database access error occurs.
+     */
+    List<Student> getStudentsPage(int afterId, int limit) throws SQLException;
+
+    /**
+     * Retrieves one page of the students of a subject, ordered by ID.
+     * @param subject The subject name to filter students by.
+     * @param afterId Only students with a greater ID are returned.
+     * @param limit The maximum number of students to return.
+     * @return Up to {@code limit} students; fewer means this was the last page.
+     * @throws SQLException if a database access error occurs.
+     */
+    List<Student> getStudentsBySubjectPage(String subject, int afterId, int limit) throws SQLException;
+
+    /**
+     * Retrieves one page of the students of a class, ordered by ID.
+     * @param classId The class ID to filter students by.
+     * @param afterId Only students with a greater ID are returned.
+     * @param limit The maximum number of students to return.
+     * @return Up to {@code limit} students; fewer means this was the last page.
+     * @throws SQLException if a database access error occurs.
+     */
+    List<Student> getStudentsByClassIdPage(int classId, int afterId, int limit) throws SQLException;
+
+    /**
+     * Streams all students, ordered by ID, reading rows from the database only as the
+     * stream is consumed. The stream holds a database connection until it is closed,
+     * so always use it in a try-with-resources block.
+     * @return A lazily populated stream of students.
+     * @throws SQLException if the query cannot be started. Errors while reading rows are
+     *         thrown as {@link IllegalStateException}s wrapping the {@link SQLException}.
+     */
+    Stream<Student> streamAllStudents() throws SQLException;
+
+    /**
+     * Streams the students of a subject, ordered by ID. Same rules as {@link #streamAllStudents()}.
+     * @param subject The subject name to filter students by.
+     * @return A lazily populated stream of students; close it when done.
+     * @throws SQLException if the query cannot be started.
+     */
+    Stream<Student> streamStudentsBySubject(String subject) throws SQLException;
+
+    /**
+     * Searches students by first name, last name, email and subject.
+     * Every word of the query must match the start of a word in one of those fields,
+     * so "jo sm" finds "John Smith". Name matches rank above email and subject matches.
+     * @param query The text typed by the user; punctuation and search operators are treated as plain text.
+     * @param limit The maximum number of students to return.
+     * @return Up to {@code limit} students, best match first; empty if the query has no searchable words.
+     * @throws SQLException if a database access error occurs.
+     */
+    List<Student> search(String query, int limit) throws SQLException;
 }
 
@@ -0,0 +1,43 @@
+package com.example.teamalfred.database;
+
+/**
+ * Represents a subject students can be enrolled in, from the {@code subjects} table.
+ * Subject names are unique, ignoring case.
+ */
+public class Subject {
+    private final int id;
+    private final String name;
+
+    /**
+     * @param id   The subject's primary key.
+     * @param name The subject's name, e.g. "Maths".
+     */
+    public Subject(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * @return The subject's primary key.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The subject's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the name, so subjects display properly in ComboBoxes and lists.
+     *
+     * @return The subject name.
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
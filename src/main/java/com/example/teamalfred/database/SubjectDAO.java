@@ -0,0 +1,56 @@
+package com.example.teamalfred.database;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) interface for subjects and the enrollments of students in them.
+ * Defines methods to interact with the {@code subjects} and {@code enrollments} tables.
+ */
+public interface SubjectDAO {
+
+    /**
+     * Retrieves all subjects, in the order they were created.
+     *
+     * @return A list of all {@link Subject}s.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Subject> getAllSubjects() throws SQLException;
+
+    /**
+     * Returns the subject with the given name, creating it if it does not exist yet.
+     * Names are matched ignoring case and surrounding whitespace.
+     *
+     * @param name The subject name.
+     * @return The existing or new {@link Subject}.
+     * @throws SQLException If a database access error occurs.
+     */
+    Subject findOrCreateSubject(String name) throws SQLException;
+
+    /**
+     * Retrieves the subjects a student is enrolled in.
+     *
+     * @param studentId The ID of the student.
+     * @return The student's subjects; empty if the student takes none.
+     * @throws SQLException If a database access error occurs.
+     */
+    List<Subject> getSubjectsForStudent(int studentId) throws SQLException;
+
+    /**
+     * Enrolls a student in a subject. Enrolling twice has no effect.
+     *
+     * @param studentId The ID of the student.
+     * @param subjectId The ID of the subject.
+     * @throws SQLException If a database access error occurs.
+     */
+    void enrollStudent(int studentId, int subjectId) throws SQLException;
+
+    /**
+     * Removes a student from a subject.
+     *
+     * @param studentId The ID of the student.
+     * @param subjectId The ID of the subject.
+     * @throws SQLException If a database access error occurs.
+     */
+    void unenrollStudent(int studentId, int subjectId) throws SQLException;
+}
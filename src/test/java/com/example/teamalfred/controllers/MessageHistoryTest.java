@@ -0,0 +1,120 @@
+package com.example.teamalfred.controllers;
+
+import com.example.teamalfred.database.AsyncDao;
+import com.example.teamalfred.database.DatabaseConnection;
+import com.example.teamalfred.database.DatabaseSchemaManager;
+import com.example.teamalfred.database.Message;
+import com.example.teamalfred.database.MessagingDatabaseManager;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MessageHistory}. A single thread stands in for the JavaFX Application Thread.
+ */
+public class MessageHistoryTest {
+
+    private static final int MESSAGES = MessageHistory.PAGE_SIZE * 2 + 20;
+
+    private ExecutorService resultExecutor;
+    private MessagingDatabaseManager messaging;
+    private MessageHistory history;
+    private int conversationId;
+    private final List<String> messageQueries = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Creates an in-memory database with one conversation longer than two pages.
+     *
+     * @throws SQLException if the schema or messages cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl("jdbc:sqlite::memory:");
+        new DatabaseSchemaManager().initializeSchema();
+        messaging = new MessagingDatabaseManager();
+        messaging.initializeSchema();
+        conversationId = messaging.createOrGetConversation(1, 2);
+        for (int i = 1; i <= MESSAGES; i++) {
+            messaging.sendMessage(conversationId, 1 + i % 2, "Message " + i);
+        }
+        DatabaseConnection.setStatementListener(sql -> {
+            if (sql.contains("FROM messages")) {
+                messageQueries.add(sql);
+            }
+        });
+
+        resultExecutor = Executors.newSingleThreadExecutor();
+        history = new MessageHistory(messaging, new AsyncDao(resultExecutor));
+    }
+
+    /**
+     * Stops the result thread and closes the in-memory database.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.setStatementListener(null);
+        resultExecutor.shutdownNow();
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Opening a long conversation reads exactly one page, the latest, with one query;
+     * reopening it reads nothing.
+     */
+    @Test
+    public void testOpeningReadsOnePage() throws Exception {
+        ObservableList<Message> messages = history.open(conversationId).get(5, TimeUnit.SECONDS);
+
+        assertEquals(MessageHistory.PAGE_SIZE, messages.size());
+        assertEquals("Message " + MESSAGES, messages.get(messages.size() - 1).getContent());
+        assertEquals(1, messageQueries.size());
+        assertTrue(history.hasOlder(conversationId));
+
+        assertSame(messages, history.open(conversationId).get(5, TimeUnit.SECONDS));
+        assertEquals(1, messageQueries.size());
+    }
+
+    /**
+     * Older pages are read one per request until the start, then no more queries are made.
+     */
+    @Test
+    public void testOlderPagesAreReadOnRequest() throws Exception {
+        ObservableList<Message> messages = history.open(conversationId).get(5, TimeUnit.SECONDS);
+
+        assertEquals(MessageHistory.PAGE_SIZE, history.loadOlder(conversationId).get(5, TimeUnit.SECONDS));
+        assertEquals(20, history.loadOlder(conversationId).get(5, TimeUnit.SECONDS));
+        assertEquals(MESSAGES, messages.size());
+        assertEquals("Message 1", messages.get(0).getContent());
+        assertFalse(history.hasOlder(conversationId));
+
+        int queries = messageQueries.size();
+        assertEquals(0, history.loadOlder(conversationId).get(5, TimeUnit.SECONDS));
+        assertEquals(queries, messageQueries.size());
+    }
+
+    /**
+     * New messages are appended once, past the last one loaded.
+     */
+    @Test
+    public void testNewMessagesAreAppendedOnce() throws Exception {
+        ObservableList<Message> messages = history.open(conversationId).get(5, TimeUnit.SECONDS);
+        int sent = messaging.sendMessage(conversationId, 2, "Latest");
+
+        assertEquals(List.of(sent), history.fetchNew(conversationId).get(5, TimeUnit.SECONDS)
+                .stream().map(Message::getId).toList());
+        assertTrue(history.fetchNew(conversationId).get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals(MessageHistory.PAGE_SIZE + 1, messages.size());
+        assertEquals(sent, messages.get(messages.size() - 1).getId());
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link AsyncDao}. A single named thread stands in for the JavaFX Application Thread.
+ */
+public class AsyncDaoTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+    private static final String RESULT_THREAD = "result-thread";
+
+    private ExecutorService resultExecutor;
+    private AsyncDao asyncDao;
+
+    /**
+     * Creates a fresh in-memory database and an AsyncDao delivering to a dedicated thread.
+     *
+     * @throws SQLException if the schema cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        resultExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, RESULT_THREAD));
+        asyncDao = new AsyncDao(resultExecutor);
+    }
+
+    /**
+     * Stops the result thread and closes the in-memory database.
+     */
+    @AfterEach
+    public void tearDown() {
+        resultExecutor.shutdownNow();
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * DAO calls run on a worker thread and their results arrive on the result executor.
+     */
+    @Test
+    public void testCallsRunOffCallerAndCompleteOnResultExecutor() throws Exception {
+        String caller = Thread.currentThread().getName();
+        StudentDAO studentDAO = new SqliteStudentDAO();
+
+        String workerName = asyncDao.fetch(() -> {
+            studentDAO.getStudentsByClassId(1);
+            return Thread.currentThread().getName();
+        }).get(5, TimeUnit.SECONDS);
+        assertNotEquals(caller, workerName);
+        assertTrue(workerName.startsWith("db-read"), "Reads should run on the DB read pool.");
+
+        // Hold the call until the callback is attached, so it cannot run on the test thread
+        CountDownLatch attached = new CountDownLatch(1);
+        CompletableFuture<String> callback = asyncDao.fetch(() -> {
+                    awaitQuietly(attached);
+                    return 1;
+                })
+                .thenApply(ignored -> Thread.currentThread().getName());
+        attached.countDown();
+        String callbackThread = callback.get(5, TimeUnit.SECONDS);
+        assertEquals(RESULT_THREAD, callbackThread);
+    }
+
+    /**
+     * A newer request with the same key cancels the older one, which never delivers its result.
+     */
+    @Test
+    public void testNewerRequestCancelsStaleOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> stale = asyncDao.fetchLatest("roster", () -> {
+            awaitQuietly(release);
+            return "class A";
+        });
+        CompletableFuture<String> latest = asyncDao.fetchLatest("roster", () -> "class B");
+        release.countDown();
+
+        assertEquals("class B", latest.get(5, TimeUnit.SECONDS));
+        assertTrue(stale.isCancelled(), "The superseded request should be cancelled.");
+    }
+
+    /**
+     * Requests with different keys do not cancel each other.
+     */
+    @Test
+    public void testDifferentKeysAreIndependent() throws Exception {
+        CompletableFuture<Integer> first = asyncDao.fetchLatest("students", () -> 1);
+        CompletableFuture<Integer> second = asyncDao.fetchLatest("assessments", () -> 2);
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(2, second.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Writes are applied one at a time in the order they were submitted.
+     */
+    @Test
+    public void testWritesRunInSubmissionOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            futures.add(asyncDao.write(() -> {
+                order.add(n);
+                return n;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    /**
+     * Ordinary writes are not queued behind a long batch job that is still running.
+     */
+    @Test
+    public void testWritesDoNotWaitForBatchJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> batch = asyncDao.writeInBatches(() -> {
+            awaitQuietly(release);
+            return "imported";
+        });
+
+        assertEquals(1, asyncDao.write(() -> 1).get(5, TimeUnit.SECONDS));
+        assertFalse(batch.isDone());
+        release.countDown();
+        assertEquals("imported", batch.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * An SQLException from the DAO surfaces as the cause of the failed future.
+     */
+    @Test
+    public void testSqlExceptionIsDeliveredToCaller() {
+        CompletableFuture<Object> failing = asyncDao.fetch(() -> {
+            throw new SQLException("boom");
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, failing::join);
+        assertInstanceOf(SQLException.class, AsyncDao.unwrap(error));
+        assertFalse(AsyncDao.isCancellation(error));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.teamalfred.database;
+
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares saving an attendance register row by row with
+ * {@link AttendanceDAO#saveAttendanceBatch(int, String, java.util.Collection)}.
+ * <p>
+ * Uses a temporary file-backed database so each commit pays for a real WAL write.
+ * Not a unit test; run it by hand, e.g. from the IDE, and read the printed table.
+ * </p>
+ */
+public class AttendanceSaveBenchmark {
+
+    private static final int[] REGISTER_SIZES = {30, 300, 3000};
+    private static final int CLASS_ID = 1;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("attendance-benchmark");
+        DatabaseConnection.setTestDatabaseUrl("jdbc:sqlite:" + dir.resolve("benchmark.db"));
+        try {
+            new DatabaseSchemaManager().initializeSchema();
+            AttendanceDAO dao = new SqliteAttendanceDAO();
+            AtomicInteger commits = countCommits();
+
+            System.out.printf("%-8s %-10s %8s %12s%n", "rows", "method", "commits", "wall (ms)");
+            int day = 1;
+            for (int size : REGISTER_SIZES) {
+                List<AttendanceEntry> register = register(size);
+
+                String date = String.format("2025-01-%02d", day++);
+                commits.set(0);
+                long start = System.nanoTime();
+                for (AttendanceEntry e : register) {
+                    dao.saveAttendance(e.getStudentId(), CLASS_ID, date, e.isPresent(), e.isAbsent(),
+                            e.isLate(), e.isExcused(), e.getNotes());
+                }
+                print(size, "per-row", commits.get(), start);
+
+                date = String.format("2025-01-%02d", day++);
+                commits.set(0);
+                start = System.nanoTime();
+                dao.saveAttendanceBatch(CLASS_ID, date, register);
+                print(size, "batch", commits.get(), start);
+            }
+        } finally {
+            DatabaseConnection.resetForTesting();
+        }
+    }
+
+    private static AtomicInteger countCommits() throws SQLException {
+        AtomicInteger commits = new AtomicInteger();
+        DatabaseConnection.getInstance().unwrap(SQLiteConnection.class).addCommitListener(new SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                commits.incrementAndGet();
+            }
+
+            @Override
+            public void onRollback() {
+            }
+        });
+        return commits;
+    }
+
+    private static List<AttendanceEntry> register(int size) {
+        List<AttendanceEntry> register = new ArrayList<>(size);
+        for (int studentId = 1; studentId <= size; studentId++) {
+            boolean absent = studentId % 7 == 0;
+            register.add(new AttendanceEntry(studentId, !absent, absent, studentId % 11 == 0, false, ""));
+        }
+        return register;
+    }
+
+    private static void print(int size, String method, int commits, long startNanos) {
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.printf("%-8d %-10s %8d %12d%n", size, method, commits, millis);
+    }
+}
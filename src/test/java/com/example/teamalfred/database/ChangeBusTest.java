@@ -0,0 +1,128 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.teamalfred.database.ChangeEvent.Entity.*;
+import static com.example.teamalfred.database.ChangeEvent.Operation.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ChangeBus} and the events the DAOs publish on it.
+ */
+public class ChangeBusTest {
+
+    /**
+     * Clears the test URL override for tests that opened a database.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Changes to the same row within one window merge into the one change listeners need,
+     * and each subscriber only sees the kinds of rows it asked for.
+     */
+    @Test
+    public void testBurstsAreCoalescedPerRow() {
+        ChangeBus bus = new ChangeBus(TimeUnit.HOURS.toMillis(1)); // only flush() delivers
+        List<List<ChangeEvent>> students = new ArrayList<>();
+        List<List<ChangeEvent>> messages = new ArrayList<>();
+        ChangeBus.Subscription studentSubscription = bus.subscribe(EnumSet.of(STUDENT), Runnable::run, students::add);
+        bus.subscribe(EnumSet.of(MESSAGE), Runnable::run, messages::add);
+
+        bus.publish(STUDENT, 1, INSERT);
+        bus.publish(STUDENT, 2, UPDATE);
+        bus.publish(STUDENT, 1, UPDATE);
+        bus.publish(STUDENT, 3, INSERT);
+        bus.publish(STUDENT, 3, DELETE);
+        bus.publish(STUDENT, 2, UPDATE);
+        bus.publish(STUDENT, 4, UPDATE);
+        bus.publish(STUDENT, 4, DELETE);
+        bus.flush();
+
+        assertEquals(List.of(List.of(
+                new ChangeEvent(STUDENT, 1, INSERT),
+                new ChangeEvent(STUDENT, 2, UPDATE),
+                new ChangeEvent(STUDENT, 4, DELETE))), students);
+        assertTrue(messages.isEmpty());
+
+        studentSubscription.close();
+        bus.publish(STUDENT, 5, INSERT);
+        bus.flush();
+        assertEquals(1, students.size());
+    }
+
+    /**
+     * Without an explicit flush, a burst is delivered once its window has passed, as one batch.
+     */
+    @Test
+    public void testBurstIsDeliveredOnceAfterWindow() throws InterruptedException {
+        ChangeBus bus = new ChangeBus(200);
+        List<List<ChangeEvent>> batches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch delivered = new CountDownLatch(1);
+        bus.subscribe(EnumSet.of(ASSESSMENT), Runnable::run, batch -> {
+            batches.add(batch);
+            delivered.countDown();
+        });
+
+        for (int id = 1; id <= 50; id++) {
+            bus.publish(ASSESSMENT, id, UPDATE);
+        }
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        bus.flush(); // waits for a delivery still in progress
+        assertEquals(1, batches.size());
+        assertEquals(50, batches.get(0).size());
+    }
+
+    /**
+     * DAO writes publish their rows once they have committed, with generated IDs filled in.
+     */
+    @Test
+    public void testDaoWritesArePublished() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl("jdbc:sqlite::memory:");
+        new DatabaseSchemaManager().initializeSchema();
+        MessagingDatabaseManager messaging = new MessagingDatabaseManager();
+        messaging.initializeSchema();
+        StudentDAO studentDAO = new SqliteStudentDAO();
+        SqliteAssessmentDAO assessmentDAO = new SqliteAssessmentDAO();
+
+        List<ChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+        try (ChangeBus.Subscription ignored = ChangeBus.shared().subscribe(EnumSet.allOf(ChangeEvent.Entity.class),
+                Runnable::run, events::addAll)) {
+            Student ada = new Student("Ada", "Lovelace", "ada@example.com", 1, "Maths");
+            studentDAO.createStudent(ada);
+            assertTrue(ada.getId() > 0);
+            int definitionId = assessmentDAO.insertAssessmentForSubject("Algebra", "Maths", "2025-05-01", "Exam");
+            int conversationId = messaging.createOrGetConversation(1, 2);
+            int messageId = messaging.sendMessage(conversationId, 1, "Hello");
+            ChangeBus.shared().flush();
+
+            assertEquals(List.of(
+                    new ChangeEvent(STUDENT, ada.getId(), INSERT),
+                    new ChangeEvent(ASSESSMENT_DEFINITION, definitionId, INSERT),
+                    new ChangeEvent(CONVERSATION, conversationId, INSERT),
+                    new ChangeEvent(MESSAGE, messageId, INSERT)), events);
+
+            events.clear();
+            Assessment algebra = assessmentDAO.getAssessmentsByStudentId(ada.getId()).get(0);
+            assessmentDAO.setCompleted(algebra.getId(), true);
+            studentDAO.deleteStudent(ada.getId());
+            ChangeBus.shared().flush();
+
+            assertEquals(List.of(
+                    new ChangeEvent(ASSESSMENT, algebra.getId(), UPDATE),
+                    new ChangeEvent(STUDENT, ada.getId(), DELETE)), events);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ConnectionPool} using a temporary file-backed SQLite database,
+ * since the read/write split only applies to databases that live on disk.
+ */
+public class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    /**
+     * Creates a pool with two readers over a fresh database file and seeds one table.
+     *
+     * @throws SQLException if the seed table cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("pool.db"), 2);
+        try (ConnectionLease lease = pool.leaseWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+            stmt.execute("INSERT INTO items (name) VALUES ('committed')");
+        }
+    }
+
+    /**
+     * Closes the pool and all of its connections.
+     */
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Closing a lease should hand the connection back rather than closing the JDBC handle.
+     */
+    @Test
+    public void testClosingLeaseKeepsConnectionOpen() throws SQLException {
+        Connection first;
+        try (ConnectionLease lease = pool.leaseWriter()) {
+            first = lease.getConnection();
+        }
+        assertFalse(first.isClosed(), "Returning a lease must not close the underlying connection.");
+
+        try (ConnectionLease lease = pool.leaseWriter()) {
+            assertSame(first, lease.getConnection(), "The writer connection should be reused.");
+        }
+    }
+
+    /**
+     * A reader should see the last committed data while the writer holds an open transaction.
+     */
+    @Test
+    public void testReaderRunsWhileWriterIsInTransaction() throws Exception {
+        try (ConnectionLease writer = pool.leaseWriter()) {
+            Connection conn = writer.getConnection();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO items (name) VALUES ('uncommitted')");
+
+                // Read from another thread, since this thread holds the writer
+                int[] seen = new int[1];
+                Thread reader = new Thread(() -> {
+                    try (ConnectionLease lease = pool.leaseReader();
+                         Statement readStmt = lease.getConnection().createStatement();
+                         ResultSet rs = readStmt.executeQuery("SELECT COUNT(*) FROM items")) {
+                        seen[0] = rs.getInt(1);
+                    } catch (SQLException e) {
+                        seen[0] = -1;
+                    }
+                });
+                reader.start();
+                reader.join(5_000);
+
+                assertEquals(1, seen[0], "Reader should only see the committed row.");
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Reader connections are opened with query_only, so they cannot modify data.
+     */
+    @Test
+    public void testReaderIsReadOnly() throws SQLException {
+        try (ConnectionLease lease = pool.leaseReader();
+             Statement stmt = lease.getConnection().createStatement()) {
+            assertFalse(lease.isWriter());
+            assertThrows(SQLException.class, () -> stmt.execute("DELETE FROM items"));
+        }
+    }
+
+    /**
+     * Metrics should count leases and physical connection opens separately.
+     */
+    @Test
+    public void testMetricsCountLeasesAndOpens() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            try (ConnectionLease lease = pool.leaseReader()) {
+                assertNotNull(lease.getConnection());
+            }
+        }
+
+        ConnectionPool.Metrics metrics = pool.getMetrics();
+        assertEquals(5, metrics.readerLeases());
+        assertEquals(1, metrics.writerLeases(), "Only the seed lease in setUp should have used the writer.");
+        assertEquals(2, metrics.connectionsOpened(), "Sequential reads should reuse one reader plus the writer.");
+    }
+
+    /**
+     * In-memory databases are private to one connection, so readers must share the writer.
+     */
+    @Test
+    public void testInMemoryPoolSharesSingleConnection() throws SQLException {
+        ConnectionPool memoryPool = new ConnectionPool("jdbc:sqlite::memory:", 4);
+        try {
+            Connection writerConn;
+            try (ConnectionLease lease = memoryPool.leaseWriter()) {
+                writerConn = lease.getConnection();
+            }
+            try (ConnectionLease lease = memoryPool.leaseReader()) {
+                assertSame(writerConn, lease.getConnection());
+            }
+        } finally {
+            memoryPool.close();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link EntityCache}.
+ */
+public class EntityCacheTest {
+
+    /**
+     * A key is loaded once and then always returns the same instance.
+     */
+    @Test
+    public void testSameInstanceUntilInvalidated() throws SQLException {
+        EntityCache<Integer, StringBuilder> cache = new EntityCache<>("test identity", 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        StringBuilder first = cache.get(1, () -> new StringBuilder("v" + loads.incrementAndGet()));
+        StringBuilder second = cache.get(1, () -> new StringBuilder("v" + loads.incrementAndGet()));
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1);
+        assertEquals("v2", cache.get(1, () -> new StringBuilder("v" + loads.incrementAndGet())).toString());
+
+        EntityCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1.0 / 3, stats.hitRate(), 1e-9);
+    }
+
+    /**
+     * Interning keeps the cached instance while it matches the row, replaces it when the row
+     * changed behind the cache's back, and does not cache rows read before an invalidation.
+     */
+    @Test
+    public void testInternRefreshesChangedRowsButNotRacingReads() {
+        EntityCache<Integer, String> cache = new EntityCache<>("test intern", 10);
+
+        String cached = cache.intern(1, new String("v1"), cache.generation());
+        assertSame(cached, cache.intern(1, new String("v1"), cache.generation()));
+
+        String changed = new String("v2"); // e.g. written by another process
+        assertSame(changed, cache.intern(1, changed, cache.generation()));
+        assertSame(changed, cache.intern(1, new String("v2"), cache.generation()));
+
+        long readGeneration = cache.generation();
+        cache.invalidate(1); // a write lands while the row is being read
+        assertEquals("v2", cache.intern(1, "v2", readGeneration));
+        assertEquals("v3", cache.intern(1, "v3", cache.generation()));
+        assertEquals(1, cache.getStats().size());
+    }
+
+    /**
+     * Missing rows are not cached, and a load that overlaps an invalidation is not cached either.
+     */
+    @Test
+    public void testNullsAndRacingLoadsAreNotCached() throws SQLException {
+        EntityCache<Integer, String> cache = new EntityCache<>("test races", 10);
+
+        assertNull(cache.get(1, () -> null));
+        assertEquals(0, cache.getStats().size());
+
+        String stale = cache.get(2, () -> {
+            cache.invalidate(2); // a write lands while the row is being read
+            return "stale";
+        });
+        assertEquals("stale", stale);
+        assertEquals("fresh", cache.get(2, () -> "fresh"));
+    }
+
+    /**
+     * The cache never grows past its bound, and keys in regular use survive a scan of one-off keys.
+     */
+    @Test
+    public void testFrequentKeysSurviveScans() throws SQLException {
+        EntityCache<Integer, Integer> cache = new EntityCache<>("test scan", 100);
+        for (int round = 0; round < 5; round++) {
+            for (int key = 0; key < 50; key++) {
+                cache.get(key, () -> 0);
+            }
+        }
+
+        for (int key = 1000; key < 3000; key++) {
+            cache.get(key, () -> 0);
+        }
+        assertTrue(cache.getStats().size() <= 100);
+        assertTrue(cache.getStats().evictions() > 0);
+
+        AtomicInteger reloads = new AtomicInteger();
+        for (int key = 0; key < 50; key++) {
+            cache.get(key, () -> reloads.incrementAndGet());
+        }
+        assertTrue(reloads.get() <= 5, "Expected the hot keys to stay cached, but " + reloads.get() + " were reloaded.");
+    }
+
+    /**
+     * Closing the connection pool empties the caches, so nothing leaks between databases.
+     */
+    @Test
+    public void testClosingPoolClearsCaches() throws SQLException {
+        EntityCache<Integer, String> cache = new EntityCache<>("test close", 10);
+        cache.get(1, () -> "row");
+
+        DatabaseConnection.closeInstance();
+
+        assertEquals(0, cache.getStats().size());
+        assertTrue(EntityCache.getAllStats().containsKey("test close"));
+    }
+}
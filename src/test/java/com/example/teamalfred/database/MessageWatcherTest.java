@@ -0,0 +1,119 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.teamalfred.database.ChangeEvent.Entity.*;
+import static com.example.teamalfred.database.ChangeEvent.Operation.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MessageWatcher}, with a second connection standing in for another app instance.
+ */
+public class MessageWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String url;
+    private MessagingDatabaseManager messaging;
+
+    /**
+     * Creates a file database with the messaging tables and one conversation that already has a message.
+     *
+     * @throws SQLException if the schema cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        url = "jdbc:sqlite:" + tempDir.resolve("watched.db");
+        DatabaseConnection.setTestDatabaseUrl(url);
+        new DatabaseSchemaManager().initializeSchema();
+        messaging = new MessagingDatabaseManager();
+        messaging.initializeSchema();
+        messaging.sendMessage(messaging.createOrGetConversation(1, 2), 1, "Before the watcher");
+    }
+
+    /**
+     * Closes the pool and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Rows committed by another connection after the watcher started are published once,
+     * conversation before message. Rows that were already there, and rows between other
+     * users, are not.
+     */
+    @Test
+    public void testOtherInstancesWritesArePublished() throws Exception {
+        ChangeBus bus = new ChangeBus(10);
+        List<ChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(EnumSet.of(MESSAGE, CONVERSATION), Runnable::run, events::addAll);
+
+        try (MessageWatcher ignored = MessageWatcher.start(2, bus, 20, 200);
+             Connection otherInstance = DriverManager.getConnection(url);
+             Statement stmt = otherInstance.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            stmt.execute("INSERT INTO conversations (lowUserId, highUserId) VALUES (4, 5)");
+            stmt.execute("INSERT INTO messages (conversationID, senderID, content) VALUES (" + lastInsertId(stmt) + ", 4, 'Not for 2')");
+            stmt.execute("INSERT INTO conversations (lowUserId, highUserId) VALUES (2, 3)");
+            int conversationId = lastInsertId(stmt);
+            stmt.execute("INSERT INTO messages (conversationID, senderID, content) VALUES (" + conversationId + ", 3, 'Hi')");
+            int messageId = lastInsertId(stmt);
+
+            List<ChangeEvent> expected = List.of(
+                    new ChangeEvent(CONVERSATION, conversationId, INSERT),
+                    new ChangeEvent(MESSAGE, messageId, INSERT));
+            awaitEvents(events, expected.size());
+            assertEquals(expected, events);
+
+            // This instance's own writes are seen too, since they also change the file
+            int ownMessageId = messaging.sendMessage(conversationId, 2, "Hello back");
+            awaitEvents(events, expected.size() + 1);
+            assertEquals(new ChangeEvent(MESSAGE, ownMessageId, INSERT), events.get(expected.size()));
+        }
+    }
+
+    /**
+     * Nothing else can write to an in-memory database, so watching one does not open a connection.
+     */
+    @Test
+    public void testInMemoryDatabaseIsNotWatched() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl("jdbc:sqlite::memory:");
+        long opened = DatabaseConnection.getPoolMetrics().connectionsOpened();
+
+        try (MessageWatcher ignored = MessageWatcher.start(1)) {
+            assertEquals(opened, DatabaseConnection.getPoolMetrics().connectionsOpened());
+        }
+    }
+
+    private static int lastInsertId(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            return rs.getInt(1);
+        }
+    }
+
+    private static void awaitEvents(List<ChangeEvent> events, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, events.size(), "events: " + events);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MessagingDatabaseManager}.
+ */
+public class MessagingDatabaseManagerTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+
+    private MessagingDatabaseManager messaging;
+
+    /**
+     * Creates a fresh in-memory database with the messaging tables.
+     *
+     * @throws SQLException if the schema cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        messaging = new MessagingDatabaseManager();
+        messaging.initializeSchema();
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Reading after the last seen message returns only newer messages of that conversation,
+     * in send order, and nothing once the reader is up to date.
+     */
+    @Test
+    public void testMessagesAfterLastSeen() throws SQLException {
+        int conversation = messaging.createOrGetConversation(1, 2);
+        int other = messaging.createOrGetConversation(1, 3);
+        int first = messaging.sendMessage(conversation, 1, "One");
+        messaging.sendMessage(other, 3, "Elsewhere");
+        int second = messaging.sendMessage(conversation, 2, "Two");
+        int third = messaging.sendMessage(conversation, 1, "Three");
+
+        assertEquals(List.of("One", "Two", "Three"), contents(messaging.getMessagesAfter(conversation, 0)));
+        assertEquals(List.of("Two", "Three"), contents(messaging.getMessagesAfter(conversation, first)));
+        assertEquals(List.of(third), messaging.getMessagesAfter(conversation, second).stream().map(Message::getId).toList());
+        assertTrue(messaging.getMessagesAfter(conversation, third).isEmpty());
+        assertEquals(contents(messaging.getMessagesAfter(conversation, 0)), contents(messaging.getMessages(conversation)));
+    }
+
+    /**
+     * Paging back from the latest page walks the whole conversation once, oldest first
+     * within each page, and a short page marks the start.
+     */
+    @Test
+    public void testPagesOfOlderMessages() throws SQLException {
+        int conversation = messaging.createOrGetConversation(1, 2);
+        int other = messaging.createOrGetConversation(1, 3);
+        for (int i = 1; i <= 7; i++) {
+            messaging.sendMessage(conversation, 1 + i % 2, "Message " + i);
+            messaging.sendMessage(other, 3, "Elsewhere " + i);
+        }
+
+        List<Message> latest = messaging.getRecentMessages(conversation, 3);
+        assertEquals(List.of("Message 5", "Message 6", "Message 7"), contents(latest));
+        List<Message> middle = messaging.getMessagesBefore(conversation, latest.get(0).getId(), 3);
+        assertEquals(List.of("Message 2", "Message 3", "Message 4"), contents(middle));
+        List<Message> first = messaging.getMessagesBefore(conversation, middle.get(0).getId(), 3);
+        assertEquals(List.of("Message 1"), contents(first));
+        assertTrue(messaging.getMessagesBefore(conversation, first.get(0).getId(), 3).isEmpty());
+    }
+
+    /**
+     * Reopening a conversation, even an empty one, is a read: nothing is written and no
+     * conversation is announced again.
+     */
+    @Test
+    public void testReopeningConversationDoesNotWrite() throws SQLException {
+        List<ChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+        List<String> statements = Collections.synchronizedList(new ArrayList<>());
+        try (ChangeBus.Subscription ignored = ChangeBus.shared().subscribe(EnumSet.of(ChangeEvent.Entity.CONVERSATION),
+                Runnable::run, events::addAll)) {
+            int created = messaging.createOrGetConversation(3, 1);
+            ChangeBus.shared().flush();
+            assertEquals(List.of(new ChangeEvent(ChangeEvent.Entity.CONVERSATION, created, ChangeEvent.Operation.INSERT)), events);
+
+            DatabaseConnection.setStatementListener(statements::add);
+            assertEquals(created, messaging.createOrGetConversation(1, 3));
+            assertEquals(created, messaging.createOrGetConversation(3, 1));
+            ChangeBus.shared().flush();
+        } finally {
+            DatabaseConnection.setStatementListener(null);
+        }
+
+        assertEquals(1, events.size());
+        assertFalse(statements.isEmpty());
+        assertTrue(statements.stream().allMatch(sql -> sql.startsWith("SELECT")), "statements: " + statements);
+    }
+
+    private static List<String> contents(List<Message> messages) {
+        return messages.stream().map(Message::getContent).toList();
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query-plan regression harness for the DAO layer.
+ * <p>
+ * Every DAO and {@link MessagingDatabaseManager} method is called once against a seeded
+ * in-memory database while a statement listener collects the SQL they prepare. Each
+ * collected statement is then run through {@code EXPLAIN QUERY PLAN}. Statements with a
+ * {@code WHERE} clause are lookups that must be served by an index, so a plain
+ * {@code SCAN <table>} in their plan fails the test. So does wrapping a column in a
+ * function inside the {@code WHERE} clause (e.g. {@code strftime('%Y-%m', date) = ?}),
+ * which stops SQLite from using an index on that column even when the plan still
+ * searches on another one. Queries that list a whole table (no {@code WHERE}) are
+ * expected to scan and are only reported.
+ * </p>
+ * <p>
+ * The full report is printed and written to {@code target/query-plans.txt} so plan
+ * changes can be compared in review.
+ * </p>
+ */
+public class QueryPlanTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+    private static final Path REPORT_FILE = Path.of("target", "query-plans.txt");
+
+    /** A full pass over a table, as opposed to "SEARCH ... USING INDEX". */
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN \\w+( USING (COVERING )?INDEX .*)?$");
+    private static final Pattern WHERE_CLAUSE = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+    /** A function call in a WHERE clause, which hides the column inside it from the planner. */
+    private static final Pattern FUNCTION_PREDICATE =
+            Pattern.compile("\\b(strftime|date|substr|lower|upper|trim)\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Statements (matched by prefix) that may break the rules above, with the reason.
+     * Every entry is a known problem to fix, not a permanent exemption.
+     */
+    private static final Map<String, String> KNOWN_ISSUES = Map.of();
+
+    private final Set<String> collectedSql = Collections.synchronizedSet(new LinkedHashSet<>());
+    private Connection conn;
+
+    /**
+     * Creates and seeds the in-memory database, then starts collecting SQL.
+     *
+     * @throws SQLException if the schema or seed data cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        conn = DatabaseConnection.getInstance();
+        seed();
+        DatabaseConnection.setStatementListener(collectedSql::add);
+    }
+
+    /**
+     * Stops collecting SQL and closes the in-memory database.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.setStatementListener(null);
+        DatabaseConnection.resetForTesting();
+        conn = null;
+    }
+
+    /**
+     * No DAO lookup falls back to a full table scan or hides an indexed column in a function.
+     */
+    @Test
+    public void testDaoLookupsUseIndexes() throws SQLException, IOException {
+        exerciseDaos();
+        assertFalse(collectedSql.isEmpty(), "The statement listener should have seen the DAO queries.");
+
+        StringBuilder report = new StringBuilder();
+        List<String> violations = new ArrayList<>();
+        for (String sql : new ArrayList<>(collectedSql)) {
+            String statement = oneLine(sql);
+            List<String> plan = explain(sql);
+            List<String> problems = findProblems(statement, plan);
+
+            report.append("== ").append(statement).append('\n');
+            plan.forEach(row -> report.append("   ").append(row).append('\n'));
+            String knownIssue = knownIssue(statement);
+            for (String problem : problems) {
+                if (knownIssue != null) {
+                    report.append("   -- known: ").append(problem).append(" (").append(knownIssue).append(")\n");
+                } else {
+                    report.append("   !! ").append(problem).append('\n');
+                    violations.add(statement + " -> " + problem);
+                }
+            }
+        }
+
+        System.out.println(report);
+        Files.createDirectories(REPORT_FILE.getParent());
+        Files.writeString(REPORT_FILE, report);
+
+        assertTrue(violations.isEmpty(), "Queries breaking the plan rules:\n" + String.join("\n", violations));
+    }
+
+    /**
+     * The rules themselves flag bad lookups, so the test above cannot pass vacuously.
+     */
+    @Test
+    public void testHarnessFlagsBadLookups() throws SQLException {
+        String unindexed = "SELECT * FROM students WHERE last_name = ?";
+        assertFalse(findProblems(unindexed, explain(unindexed)).isEmpty(),
+                "students.last_name is not indexed, so the plan should be a scan.");
+
+        String wrapped = "SELECT * FROM students WHERE class_id = ? AND lower(email) = ?";
+        assertFalse(findProblems(wrapped, explain(wrapped)).isEmpty(),
+                "lower(email) hides the email index from the planner.");
+
+        String listing = "SELECT * FROM students";
+        assertTrue(findProblems(listing, explain(listing)).isEmpty(), "Full listings may scan.");
+    }
+
+    /**
+     * Attendance date ranges are answered by a range scan on (student_id, date), not by
+     * reading every row of the student and filtering.
+     */
+    @Test
+    public void testAttendanceDateRangesUseRangeScan() throws SQLException {
+        AttendanceDAO attendanceDAO = new SqliteAttendanceDAO();
+        attendanceDAO.countByStatusBetween(2, AttendanceStatus.ABSENT, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+        attendanceDAO.getAttendanceForStudentBetween(2, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+
+        for (String sql : new ArrayList<>(collectedSql)) {
+            List<String> plan = explain(sql);
+            assertTrue(plan.stream().anyMatch(row ->
+                            row.contains("idx_attendance_student_date (student_id=? AND date>? AND date<?)")),
+                    "Expected a (student_id, date) range scan for " + oneLine(sql) + " but got " + plan);
+        }
+    }
+
+    /**
+     * Applies the plan rules to one statement.
+     *
+     * @return A description of each rule the statement breaks.
+     */
+    private List<String> findProblems(String statement, List<String> plan) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        var where = WHERE_CLAUSE.matcher(statement);
+        if (!where.find()) {
+            return problems; // full listings are expected to scan
+        }
+        Set<String> partialIndexes = partialIndexes();
+        plan.stream()
+                .filter(row -> FULL_SCAN.matcher(row).matches())
+                .filter(row -> partialIndexes.stream().noneMatch(index -> row.contains(" INDEX " + index)))
+                .forEach(row -> problems.add("full scan in an indexed lookup: " + row));
+        if (FUNCTION_PREDICATE.matcher(statement.substring(where.end())).find()) {
+            problems.add("function applied to a column in the WHERE clause");
+        }
+        return problems;
+    }
+
+    /**
+     * @return The names of the partial indexes. Scanning one only reads the rows its WHERE clause selects.
+     */
+    private Set<String> partialIndexes() throws SQLException {
+        Set<String> names = new LinkedHashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND sql LIKE '% WHERE %'")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private static String knownIssue(String statement) {
+        return KNOWN_ISSUES.entrySet().stream()
+                .filter(entry -> statement.startsWith(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Calls every DAO method once so their SQL is collected.
+     */
+    private void exerciseDaos() throws SQLException, IOException {
+        StudentDAO studentDAO = new SqliteStudentDAO();
+        Student student = new Student("Plan", "Check", "plan.check@example.com", 1, "Maths");
+        studentDAO.createStudent(student);
+        Student existing = studentDAO.findStudentByEmail("student1@example.com").orElseThrow();
+        studentDAO.findStudentById(existing.getId());
+        studentDAO.updateStudent(existing);
+        studentDAO.getAllStudents();
+        studentDAO.getStudentsBySubject("Maths");
+        studentDAO.getStudentsByClassId(1);
+        studentDAO.getStudentsPage(100, 50);
+        studentDAO.getStudentsBySubjectPage("Maths", 100, 50);
+        studentDAO.getStudentsByClassIdPage(1, 100, 50);
+        studentDAO.search("stud mat", 20);
+        try (Stream<Student> students = studentDAO.streamStudentsBySubject("Art")) {
+            assertEquals(10, students.limit(10).count());
+        }
+        studentDAO.deleteStudent(existing.getId());
+
+        SubjectDAO subjectDAO = new SqliteSubjectDAO();
+        Subject subject = subjectDAO.findOrCreateSubject("Plan Subject");
+        subjectDAO.getAllSubjects();
+        subjectDAO.enrollStudent(2, subject.getId());
+        subjectDAO.getSubjectsForStudent(2);
+        subjectDAO.unenrollStudent(2, subject.getId());
+
+        ClassroomDAO classroomDAO = new SqliteClassroomDAO();
+        classroomDAO.createClassroom(new Classroom("Plan Class"));
+        classroomDAO.getAllClassrooms();
+        classroomDAO.getClassroomById(1);
+
+        AttendanceDAO attendanceDAO = new SqliteAttendanceDAO();
+        attendanceDAO.saveAttendance(2, 1, "2025-03-01", true, false, false, false, "");
+        attendanceDAO.saveAttendanceBatch(1, "2025-03-02", List.of(new AttendanceEntry(2, true, false, false, false, "")));
+        attendanceDAO.getAttendanceMapForClassAndDate(1, "2025-03-01");
+        attendanceDAO.countByStatusInMonth(2, AttendanceStatus.ABSENT, YearMonth.of(2025, 3));
+        attendanceDAO.getAttendanceForStudentBetween(2, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+        attendanceDAO.getSummaryBetween(2, YearMonth.of(2025, 1), YearMonth.of(2025, 6));
+        attendanceDAO.getClassStatistics(1, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        attendanceDAO.rebuildMonthlyRollups();
+
+        new RosterImporter(1).importCsv(new StringReader(
+                "first_name,last_name,email,class_name\nPlan,Import,plan.import@example.com,Plan Class\n" +
+                "Plan,Again,plan.again@example.com,New Plan Class\n"), "plan-check", null);
+
+        SqliteAssessmentDAO assessmentDAO = new SqliteAssessmentDAO();
+        Assessment assessment = new Assessment("Plan Quiz", "Maths", "2025-04-01", "Quiz");
+        assessment.setStudentId(2);
+        assessmentDAO.insertAssessment(assessment);
+        assessmentDAO.getAllAssessments();
+        List<Assessment> forStudent = assessmentDAO.getAssessmentsByStudentId(2);
+        assessmentDAO.getDueBetween(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        assessmentDAO.getDefinitionsDueBetween(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        assessmentDAO.getUpcomingForStudent(2, LocalDate.of(2025, 3, 1), 5);
+        assessmentDAO.getOverdue(LocalDate.of(2025, 3, 2));
+        for (AssessmentStatus status : AssessmentStatus.values()) {
+            assessmentDAO.getByStatus(status, LocalDate.of(2025, 3, 2));
+        }
+        assessmentDAO.setCompleted(forStudent.get(0).getId(), true);
+        assessmentDAO.getCounts();
+        assessmentDAO.getChangedForStudent(2, List.of(forStudent.get(0).getId()), List.of(forStudent.get(0).getDefinitionId()));
+        assessmentDAO.updateAssessment(forStudent.get(0));
+        assessmentDAO.insertAssessmentForSubject("Plan Test", "Science", "2025-04-02", "Test");
+        assessmentDAO.deleteAssessment(forStudent.get(0).getId());
+        assessmentDAO.deleteAssessmentsBySubject("Art");
+
+        UserDAO userDAO = new SqliteUserDAO();
+        User user = new User("Plan", "Teacher", "plan.teacher@example.com", "0400000000", "password123", "teacher");
+        userDAO.createUser(user);
+        User saved = userDAO.findUserByEmail("plan.teacher@example.com").orElseThrow();
+        userDAO.findUserById(saved.getId());
+        userDAO.updateUser(saved);
+        userDAO.getAllUsers();
+        userDAO.deleteUser(saved.getId());
+
+        MessagingDatabaseManager messaging = new MessagingDatabaseManager();
+        int conversationId = messaging.createOrGetConversation(1, 500);
+        int messageId = messaging.sendMessage(conversationId, 1, "Plan check");
+        messaging.getMessage(messageId);
+        messaging.getMessagesById(List.of(messageId));
+        messaging.getMessages(conversationId);
+        messaging.getMessagesAfter(conversationId, messageId);
+        messaging.getRecentMessages(conversationId, 50);
+        messaging.getMessagesBefore(conversationId, messageId, 50);
+        messaging.getConversationSummaries(1);
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN for a statement, leaving its parameters unbound (NULL).
+     *
+     * @return The "detail" column of each plan row.
+     */
+    private List<String> explain(String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(rs.getString("detail"));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Fills every table with enough rows that a scan would be noticeable.
+     */
+    private void seed() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 20) " +
+                    "INSERT INTO classes (class_name) SELECT 'Class ' || i FROM n");
+            stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 2000) " +
+                    "INSERT INTO students (first_name, last_name, email, class_id, subject) " +
+                    "SELECT 'First' || i, 'Last' || i, 'student' || i || '@example.com', i % 20 + 1, " +
+                    "CASE i % 4 WHEN 0 THEN 'Maths' WHEN 1 THEN 'Science' WHEN 2 THEN 'English' ELSE 'Art' END FROM n");
+            stmt.execute("WITH RECURSIVE d(day) AS (SELECT 1 UNION ALL SELECT day + 1 FROM d WHERE day < 20) " +
+                    "INSERT INTO attendance (student_id, class_id, date, status, late, notes) " +
+                    "SELECT s.student_id, s.class_id, printf('2025-02-%02d', d.day), " +
+                    "CASE WHEN s.student_id % 5 = 0 THEN 2 ELSE 1 END, 0, '' FROM students s, d WHERE s.student_id <= 500");
+            stmt.execute("INSERT INTO assessment_definitions (title, subject_id, dueDate, type) " +
+                    "SELECT 'Quiz', subject_id, '2025-03-01', 'Quiz' FROM subjects");
+            stmt.execute("INSERT INTO assessment_assignments (definition_id, student_id) " +
+                    "SELECT definition_id, student_id FROM assessment_definitions JOIN enrollments USING (subject_id)");
+            stmt.execute("WITH RECURSIVE n(i) AS (SELECT 2 UNION ALL SELECT i + 1 FROM n WHERE i < 300) " +
+                    "INSERT INTO conversations (lowUserId, highUserId) SELECT i, i + 1 FROM n");
+            stmt.execute("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 3000) " +
+                    "INSERT INTO messages (conversationID, senderID, content) SELECT i % 299 + 1, i % 300 + 2, 'hello ' || i FROM n");
+        }
+    }
+
+    private static String oneLine(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RosterImporter} against an in-memory database.
+ */
+public class RosterImporterTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+    private static final String HEADER = "first_name,last_name,email,class_name,subject\n";
+
+    private StudentDAO studentDAO;
+
+    /**
+     * Creates a fresh in-memory database.
+     *
+     * @throws SQLException if the schema cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        studentDAO = new SqliteStudentDAO();
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Valid rows are inserted, classes are created once, and bad or duplicate rows are reported by line.
+     */
+    @Test
+    public void testImportValidatesAndDeduplicates() throws Exception {
+        studentDAO.createStudent(new Student("Existing", "Student", "taken@school.com", 99, "Maths"));
+        String csv = HEADER +
+                "Alice,Johnson,alice@school.com,7A,Maths\n" +
+                "Bob,Smith,BOB@school.com,7A,\n" +
+                "\"O'Neil, Jr\",Nguyen,charlie@school.com,7B,Science\n" +
+                ",Nameless,nameless@school.com,7A,Maths\n" +
+                "Dan,Brown,not-an-email,7A,Maths\n" +
+                "Bobby,Smith,bob@school.com,7B,Art\n" +
+                "Eve,Taken,taken@school.com,7B,Art\n";
+        List<RosterImporter.RowError> reported = new ArrayList<>();
+
+        RosterImporter.Result result = new RosterImporter(2).importCsv(new StringReader(csv), "roster-1",
+                new RosterImporter.Listener() {
+                    @Override
+                    public void onRowError(RosterImporter.RowError error) {
+                        reported.add(error);
+                    }
+                });
+
+        assertEquals(7, result.recordsRead());
+        assertEquals(3, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(2, result.duplicates());
+        assertEquals(2, result.classesCreated());
+        assertEquals(List.of(5, 6, 7, 8), reported.stream().map(RosterImporter.RowError::line).toList());
+
+        Student charlie = studentDAO.findStudentByEmail("charlie@school.com").orElseThrow();
+        assertEquals("O'Neil, Jr", charlie.getFirstName());
+        assertEquals("General", studentDAO.findStudentByEmail("bob@school.com").orElseThrow().getSubject());
+        assertEquals(2, studentDAO.getStudentsByClassId(
+                studentDAO.findStudentByEmail("alice@school.com").orElseThrow().getClassId()).size());
+    }
+
+    /**
+     * A student whose stored email differs only in case is still a duplicate of the file's row.
+     */
+    @Test
+    public void testMixedCaseExistingEmailIsDuplicate() throws Exception {
+        studentDAO.createStudent(new Student("Mixed", "Case", "Mixed.Case@School.com", 99, "Maths"));
+
+        RosterImporter.Result result = new RosterImporter().importCsv(new StringReader(HEADER +
+                "Mixed,Case,mixed.case@school.com,7A,Maths\n"), "roster-5", null);
+
+        assertEquals(0, result.imported());
+        assertEquals(1, result.duplicates());
+        assertEquals(1, studentDAO.getAllStudents().size());
+    }
+
+    /**
+     * Each committed chunk announces its new students and classes, like the DAOs do for single rows.
+     */
+    @Test
+    public void testImportPublishesNewStudentsAndClasses() throws Exception {
+        studentDAO.createStudent(new Student("Existing", "Student", "taken@school.com", 99, "Maths"));
+        List<ChangeEvent> events = Collections.synchronizedList(new ArrayList<>());
+
+        try (ChangeBus.Subscription ignored = ChangeBus.shared().subscribe(
+                EnumSet.of(ChangeEvent.Entity.STUDENT, ChangeEvent.Entity.CLASSROOM), Runnable::run, events::addAll)) {
+            new RosterImporter(2).importCsv(new StringReader(HEADER +
+                    "A,One,a@school.com,7A,Maths\n" +
+                    "B,Two,taken@school.com,7A,Maths\n" +
+                    "C,Three,c@school.com,7B,Maths\n" +
+                    "D,Four,d@school.com,7B,Maths\n"), "roster-6", null);
+            ChangeBus.shared().flush();
+        }
+
+        Set<ChangeEvent> expected = new HashSet<>();
+        for (Student student : studentDAO.getAllStudents()) {
+            if (!student.getEmail().equals("taken@school.com")) {
+                expected.add(new ChangeEvent(ChangeEvent.Entity.STUDENT, student.getId(), ChangeEvent.Operation.INSERT));
+            }
+        }
+        for (Classroom classroom : new SqliteClassroomDAO().getAllClassrooms()) {
+            expected.add(new ChangeEvent(ChangeEvent.Entity.CLASSROOM, classroom.getId(), ChangeEvent.Operation.INSERT));
+        }
+        assertEquals(5, expected.size());
+        assertEquals(expected, new HashSet<>(events));
+    }
+
+    /**
+     * Rows are committed a chunk at a time, not one transaction per student.
+     */
+    @Test
+    public void testRowsAreCommittedInChunks() throws Exception {
+        AtomicInteger commits = new AtomicInteger();
+        DatabaseConnection.getInstance().unwrap(SQLiteConnection.class).addCommitListener(new SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                commits.incrementAndGet();
+            }
+
+            @Override
+            public void onRollback() {
+            }
+        });
+
+        RosterImporter.Result result = new RosterImporter(100).importCsv(new StringReader(roster(1000)), "roster-2", null);
+
+        assertEquals(1000, result.imported());
+        assertEquals(1000, studentDAO.getAllStudents().size());
+        // 10 chunks, plus the checkpoint cleanup at the end
+        assertTrue(commits.get() <= 12, "Expected about one commit per chunk, got " + commits.get());
+    }
+
+    /**
+     * An import that stops part-way resumes after the last committed chunk when run again.
+     */
+    @Test
+    public void testInterruptedImportResumes() throws Exception {
+        String csv = roster(50);
+        RosterImporter importer = new RosterImporter(20);
+        RosterImporter.Listener crashAfterFirstChunk = new RosterImporter.Listener() {
+            @Override
+            public void onProgress(RosterImporter.Result progress) {
+                throw new IllegalStateException("simulated crash");
+            }
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> importer.importCsv(new StringReader(csv), "roster-3", crashAfterFirstChunk));
+        assertEquals(20, studentDAO.getAllStudents().size());
+
+        RosterImporter.Result resumed = importer.importCsv(new StringReader(csv), "roster-3", null);
+
+        assertEquals(20, resumed.resumedAfter());
+        assertEquals(30, resumed.imported());
+        assertEquals(0, resumed.duplicates());
+        assertEquals(50, studentDAO.getAllStudents().size());
+
+        // Finished imports leave no checkpoint, so importing again only finds duplicates
+        RosterImporter.Result again = importer.importCsv(new StringReader(csv), "roster-3", null);
+        assertEquals(0, again.resumedAfter());
+        assertEquals(50, again.duplicates());
+    }
+
+    /**
+     * A file without the required columns is refused before anything is imported.
+     */
+    @Test
+    public void testMissingColumnIsRejected() {
+        assertThrows(IOException.class, () -> new RosterImporter().importCsv(
+                new StringReader("first_name,last_name\nA,B\n"), "roster-4", null));
+    }
+
+    private static String roster(int students) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 1; i <= students; i++) {
+            csv.append("First").append(i).append(",Last").append(i).append(",student").append(i)
+                    .append("@school.com,Class ").append(i % 5).append(",Maths\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SchemaMigrator} against an in-memory database.
+ */
+public class SchemaMigratorTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+
+    private Connection conn;
+
+    /**
+     * Points DatabaseConnection at a fresh in-memory database.
+     *
+     * @throws SQLException if the connection cannot be opened.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        conn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+        conn = null;
+    }
+
+    /**
+     * initializeSchema brings a new database to the latest version with the lookup indexes in place.
+     */
+    @Test
+    public void testInitializeSchemaAppliesAllMigrations() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+
+        List<Migration> all = SchemaMigrations.all();
+        int latest = all.get(all.size() - 1).getVersion();
+        assertEquals(latest, new SchemaMigrator().getCurrentVersion());
+        assertEquals(all.size(), count("SELECT COUNT(*) FROM schema_migrations"));
+        assertEquals(1, count("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'idx_students_class_id'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = 'idx_messages_conversation_id'"));
+    }
+
+    /**
+     * Running the migrator again on an up-to-date database does nothing.
+     */
+    @Test
+    public void testMigrateIsIdempotent() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+
+        assertEquals(0, new SchemaMigrator().migrate());
+    }
+
+    /**
+     * Only migrations newer than user_version run, in version order.
+     */
+    @Test
+    public void testPendingMigrationsRunInOrder() throws SQLException {
+        SchemaMigrator first = new SchemaMigrator(List.of(
+                new Migration(1, "create t", "CREATE TABLE t (a INTEGER)")));
+        assertEquals(1, first.migrate());
+
+        SchemaMigrator second = new SchemaMigrator(List.of(
+                new Migration(3, "add c", "ALTER TABLE t ADD COLUMN c INTEGER"),
+                new Migration(1, "create t", "CREATE TABLE t (a INTEGER)"),
+                new Migration(2, "add b", "ALTER TABLE t ADD COLUMN b INTEGER")));
+        assertEquals(2, second.migrate());
+
+        assertEquals(3, second.getCurrentVersion());
+        assertEquals(3, count("SELECT COUNT(*) FROM pragma_table_info('t')"));
+    }
+
+    /**
+     * A failing migration is rolled back completely and the version stays where it was.
+     */
+    @Test
+    public void testFailedMigrationRollsBack() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(List.of(
+                new Migration(1, "create t", "CREATE TABLE t (a INTEGER)"),
+                new Migration(2, "broken", "CREATE TABLE u (a INTEGER)", "INSERT INTO missing_table VALUES (1)")));
+
+        assertThrows(SQLException.class, migrator::migrate);
+
+        assertEquals(1, migrator.getCurrentVersion());
+        assertEquals(0, count("SELECT COUNT(*) FROM sqlite_master WHERE name = 'u'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM schema_migrations"));
+    }
+
+    /**
+     * Editing a migration that has already been applied is reported instead of ignored.
+     */
+    @Test
+    public void testModifiedMigrationIsDetected() throws SQLException {
+        new SchemaMigrator(List.of(new Migration(1, "create t", "CREATE TABLE t (a INTEGER)"))).migrate();
+
+        SchemaMigrator edited = new SchemaMigrator(List.of(new Migration(1, "create t", "CREATE TABLE t (a TEXT)")));
+
+        SQLException error = assertThrows(SQLException.class, edited::migrate);
+        assertTrue(error.getMessage().contains("modified"));
+    }
+
+    /**
+     * A database migrated by a newer build is not touched by an older one.
+     */
+    @Test
+    public void testNewerDatabaseIsRejected() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = 99");
+        }
+
+        assertThrows(SQLException.class, () -> new SchemaMigrator().migrate());
+    }
+
+    /**
+     * Migration 2 rewrites legacy attendance dates to ISO-8601, keeping an existing ISO row on conflict.
+     */
+    @Test
+    public void testAttendanceDatesAreNormalisedToIso() throws SQLException {
+        DatabaseSchemaManager schemaManager = new DatabaseSchemaManager();
+        schemaManager.initializeSchema();
+        rollBackToLegacyAttendance(1);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO attendance (student_id, class_id, date, present, absent, late, excused, notes) VALUES " +
+                    "(1, 1, '14/03/2025', 1, 0, 0, 0, 'legacy'), " +
+                    "(2, 1, '2025-03-14T09:00:00', 0, 1, 0, 0, 'timestamp'), " +
+                    "(3, 1, '15/03/2025', 1, 0, 0, 0, 'legacy duplicate'), " +
+                    "(3, 1, '2025-03-15', 0, 1, 0, 0, 'iso')");
+        }
+
+        migrateThrough(4);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM attendance WHERE student_id = 1 AND date = '2025-03-14'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM attendance WHERE student_id = 2 AND date = '2025-03-14'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM attendance WHERE student_id = 3"));
+        assertEquals(1, count("SELECT COUNT(*) FROM attendance WHERE student_id = 3 AND notes = 'iso'"));
+    }
+
+    /**
+     * Migration 4 folds the present/absent/excused flags into one status code, keeps late
+     * as a flag and rebuilds the monthly rollup from the converted rows.
+     */
+    @Test
+    public void testAttendanceFlagsBecomeStatusCodes() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+        rollBackToLegacyAttendance(3);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO attendance (student_id, class_id, date, present, absent, late, excused, notes) VALUES " +
+                    "(1, 1, '2025-03-03', 1, 0, 0, 0, ''), " +
+                    "(1, 1, '2025-03-04', 0, 1, 1, 0, ''), " +
+                    "(1, 1, '2025-03-05', 0, 0, 0, 1, 'doctor'), " +
+                    "(1, 1, '2025-03-06', 0, 0, 0, 0, ''), " +
+                    "(1, 1, '2025-03-07', 1, 1, 0, 0, 'both')");
+        }
+
+        migrateThrough(4);
+
+        assertEquals(1, count("SELECT status FROM attendance WHERE date = '2025-03-03'"));
+        assertEquals(2, count("SELECT status FROM attendance WHERE date = '2025-03-04'"));
+        assertEquals(1, count("SELECT late FROM attendance WHERE date = '2025-03-04'"));
+        assertEquals(3, count("SELECT status FROM attendance WHERE date = '2025-03-05'"));
+        assertEquals(AttendanceStatus.UNMARKED, count("SELECT status FROM attendance WHERE date = '2025-03-06'"));
+        assertEquals(1, count("SELECT status FROM attendance WHERE date = '2025-03-07'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM pragma_table_info('attendance') WHERE name = 'present'"));
+
+        AttendanceSummary march = new SqliteAttendanceDAO().getMonthlySummary(1, YearMonth.of(2025, 3));
+        assertEquals(5, march.getRecordedDays());
+        assertEquals(2, march.getPresent());
+        assertEquals(1, march.getAbsent());
+        assertEquals(1, march.getLate());
+        assertEquals(1, march.getExcused());
+    }
+
+    /**
+     * Migration 7 moves the free-text subjects of students and assessments to the subjects
+     * table, enrolls every student in their subject and keys assessments by subject ID.
+     */
+    @Test
+    public void testTextSubjectsBecomeEnrollments() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+        rollBackToTextSubjects();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO students (first_name, last_name, email, class_id, subject) VALUES " +
+                    "('A', 'One', 'a@example.com', 1, 'Maths'), " +
+                    "('B', 'Two', 'b@example.com', 1, ' Robotics '), " +
+                    "('C', 'Three', 'c@example.com', 1, NULL)");
+            stmt.execute("INSERT INTO assessments (title, subject, dueDate, status, type, studentId) VALUES " +
+                    "('Build', 'Robotics', '01/04/2025', 'Due', 'Exam', 2), " +
+                    "('Essay', 'Drama', '01/04/2025', 'Due', 'Report', 1)");
+        }
+
+        migrateThrough(7);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM subjects WHERE name = 'robotics'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM subjects WHERE name = 'Drama'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM enrollments"));
+        assertEquals(0, count("SELECT COUNT(*) FROM assessments WHERE subject_id IS NULL"));
+        assertEquals(List.of("B"), new SqliteStudentDAO().getStudentsBySubject("ROBOTICS").stream()
+                .map(Student::getFirstName).toList());
+
+        // New students are enrolled by the trigger, creating unknown subjects on the way
+        new SqliteStudentDAO().createStudent(new Student("D", "Four", "d@example.com", 1, "Latin"));
+        assertEquals(1, count("SELECT COUNT(*) FROM enrollments JOIN subjects USING (subject_id) WHERE name = 'Latin'"));
+    }
+
+    /**
+     * Migration 8 folds identical per-student copies of an assessment into one definition,
+     * keeping each copy's ID as an assignment, and reads keep their old shape.
+     */
+    @Test
+    public void testAssessmentCopiesBecomeOneDefinition() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+        rollBackToTextSubjects();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO assessments (id, title, subject, dueDate, status, type, studentId) VALUES " +
+                    "(10, 'Algebra', 'Maths', '01/04/2025', 'Due', 'Exam', 1), " +
+                    "(11, 'Algebra', 'Maths', '01/04/2025', 'Closed', 'Exam', 2), " +
+                    "(12, 'Algebra', 'Maths', '01/04/2025', 'Due', 'Exam', 3), " +
+                    "(13, 'Algebra', 'Maths', '08/04/2025', 'Due', 'Exam', 1), " +
+                    "(14, 'Essay', NULL, '01/04/2025', 'Due', NULL, 2)");
+        }
+
+        migrateThrough(10);
+
+        assertEquals(3, count("SELECT COUNT(*) FROM assessment_definitions"));
+        assertEquals(5, count("SELECT COUNT(*) FROM assessment_assignments"));
+        assertEquals(10, count("SELECT definition_id FROM assessment_assignments WHERE id = 12"));
+        assertEquals(14, count("SELECT definition_id FROM assessment_assignments WHERE id = 14"));
+
+        List<Assessment> second = new SqliteAssessmentDAO().getAssessmentsByStudentId(2);
+        assertEquals(List.of(11, 14), second.stream().map(Assessment::getId).toList());
+        assertEquals("Maths", second.get(0).getSubject());
+        assertEquals(11, second.get(0).getId());
+
+        // New assessment IDs continue after the migrated ones
+        Assessment added = new Assessment("Quiz", "Maths", "2025-04-02", "Quiz");
+        added.setStudentId(1);
+        new SqliteAssessmentDAO().insertAssessment(added);
+        assertEquals(15, added.getId());
+    }
+
+    /**
+     * Migration 9 rewrites dd/MM/yyyy due dates as yyyy-MM-dd and indexes them.
+     */
+    @Test
+    public void testAssessmentDueDatesBecomeIso() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX idx_assessment_definitions_due");
+            stmt.execute("PRAGMA user_version = 8");
+            stmt.execute("DELETE FROM schema_migrations WHERE version > 8");
+            stmt.execute("INSERT INTO assessment_definitions (definition_id, title, dueDate) VALUES " +
+                    "(1, 'Legacy', '07/03/2025'), (2, 'Current', '2025-03-08')");
+        }
+
+        migrateThrough(9);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM assessment_definitions WHERE dueDate = '2025-03-07'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM assessment_definitions WHERE dueDate = '2025-03-08'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' " +
+                "AND name = 'idx_assessment_definitions_due'"));
+    }
+
+    /**
+     * Migration 11 stores each conversation's latest message on the conversation, and the
+     * trigger keeps it current for messages sent afterwards.
+     */
+    @Test
+    public void testConversationsCarryLastMessage() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+        rollBackToUnorderedPairs();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TRIGGER messages_update_conversation");
+            stmt.execute("DROP INDEX idx_conversations_user_one_recent");
+            stmt.execute("DROP INDEX idx_conversations_user_two_recent");
+            stmt.execute("ALTER TABLE conversations DROP COLUMN lastMessageId");
+            stmt.execute("ALTER TABLE conversations DROP COLUMN lastMessageAt");
+            stmt.execute("ALTER TABLE conversations DROP COLUMN lastMessagePreview");
+            stmt.execute("PRAGMA user_version = 10");
+            stmt.execute("DELETE FROM schema_migrations WHERE version > 10");
+            stmt.execute("INSERT INTO conversations (id, userOneID, userTwoID) VALUES (1, 1, 2), (2, 1, 3)");
+            stmt.execute("INSERT INTO messages (conversationID, senderID, content, timestamp) VALUES " +
+                    "(1, 1, 'first', '2025-03-01 09:00:00'), (1, 2, '" + "x".repeat(150) + "', '2025-03-01 10:00:00'), " +
+                    "(1, 1, 'earlier', '2025-02-28 10:00:00')");
+        }
+
+        new SchemaMigrator().migrate();
+
+        assertEquals(2, count("SELECT lastMessageId FROM conversations WHERE id = 1"));
+        assertEquals(100, count("SELECT length(lastMessagePreview) FROM conversations WHERE id = 1"));
+        assertEquals(1, count("SELECT COUNT(*) FROM conversations WHERE id = 2 AND lastMessageId IS NULL"));
+
+        int sent = new MessagingDatabaseManager().sendMessage(2, 3, "hi");
+        assertEquals(sent, count("SELECT lastMessageId FROM conversations WHERE id = 2"));
+        List<ConversationSummary> inbox = new MessagingDatabaseManager().getConversationSummaries(1);
+        assertEquals(List.of(2, 1), inbox.stream().map(ConversationSummary::getConversationId).toList());
+        assertEquals("hi", inbox.get(0).getLastMessage());
+        assertEquals("User 3", inbox.get(0).getName());
+    }
+
+    /**
+     * Migration 12 stores each participant pair low ID first and folds duplicate conversations,
+     * with their messages, into the oldest one; after it a pair can only be stored once.
+     */
+    @Test
+    public void testDuplicateConversationsAreMerged() throws SQLException {
+        new DatabaseSchemaManager().initializeSchema();
+        rollBackToUnorderedPairs();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO conversations (id, userOneID, userTwoID) VALUES (1, 1, 2), (2, 2, 1), (3, 3, 1), (4, 1, 2)");
+            stmt.execute("INSERT INTO messages (id, conversationID, senderID, content, timestamp) VALUES " +
+                    "(1, 1, 1, 'one', '2025-03-01 09:00:00'), (2, 2, 2, 'two', '2025-03-01 10:00:00'), " +
+                    "(3, 4, 1, 'four', '2025-03-01 08:00:00'), (4, 3, 3, 'three', '2025-03-01 07:00:00')");
+        }
+
+        new SchemaMigrator().migrate();
+
+        assertEquals(2, count("SELECT COUNT(*) FROM conversations"));
+        assertEquals(3, count("SELECT COUNT(*) FROM messages WHERE conversationID = 1"));
+        assertEquals(2, count("SELECT lastMessageId FROM conversations WHERE id = 1"));
+        assertEquals(1, count("SELECT lowUserId FROM conversations WHERE id = 3"));
+        assertThrows(SQLException.class, () -> conn.createStatement()
+                .execute("INSERT INTO conversations (lowUserId, highUserId) VALUES (1, 2)"));
+
+        MessagingDatabaseManager messaging = new MessagingDatabaseManager();
+        assertEquals(1, messaging.createOrGetConversation(2, 1));
+        assertEquals(3, messaging.createOrGetConversation(1, 3));
+        int created = messaging.createOrGetConversation(4, 1);
+        assertTrue(created > 4);
+        assertEquals(created, messaging.createOrGetConversation(1, 4));
+        assertEquals(1, count("SELECT COUNT(*) FROM conversations WHERE lowUserId = 1 AND highUserId = 4"));
+    }
+
+    /**
+     * Undoes migrations 12 to 14: participant pairs go back to unordered (userOneID, userTwoID)
+     * columns without a unique index, messages are indexed by timestamp again, the
+     * case-insensitive email index is dropped, and the database is marked as version 11.
+     */
+    private void rollBackToUnorderedPairs() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP INDEX idx_students_email_nocase");
+            stmt.execute("DROP INDEX idx_messages_conversation_id");
+            stmt.execute("CREATE INDEX idx_messages_conversation_timestamp ON messages (conversationID, timestamp)");
+            stmt.execute("DROP INDEX idx_conversations_pair");
+            stmt.execute("DROP INDEX idx_conversations_low_recent");
+            stmt.execute("DROP INDEX idx_conversations_high_recent");
+            stmt.execute("ALTER TABLE conversations RENAME COLUMN lowUserId TO userOneID");
+            stmt.execute("ALTER TABLE conversations RENAME COLUMN highUserId TO userTwoID");
+            stmt.execute("CREATE INDEX idx_conversations_user_one ON conversations (userOneID, userTwoID)");
+            stmt.execute("CREATE INDEX idx_conversations_user_two ON conversations (userTwoID, userOneID)");
+            stmt.execute("CREATE INDEX idx_conversations_user_one_recent ON conversations (userOneID, lastMessageAt DESC)");
+            stmt.execute("CREATE INDEX idx_conversations_user_two_recent ON conversations (userTwoID, lastMessageAt DESC)");
+            stmt.execute("PRAGMA user_version = 11");
+            stmt.execute("DELETE FROM schema_migrations WHERE version > 11");
+        }
+    }
+
+    /**
+     * Recreates the original attendance table (four boolean flags) and marks the database as
+     * being at the given version, so the attendance migrations after it run again.
+     */
+    private void rollBackToLegacyAttendance(int version) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE attendance");
+            stmt.execute("CREATE TABLE attendance (student_id INTEGER, class_id INTEGER, date TEXT, " +
+                    "present BOOLEAN, absent BOOLEAN, late BOOLEAN, excused BOOLEAN, notes TEXT, " +
+                    "PRIMARY KEY (student_id, class_id, date))");
+            stmt.execute("PRAGMA user_version = " + version);
+            stmt.execute("DELETE FROM schema_migrations WHERE version > " + version);
+        }
+    }
+
+    /**
+     * Recreates the free-text subject schema (before migration 7): no subjects or enrollments,
+     * and the original assessments table without subject IDs.
+     */
+    private void rollBackToTextSubjects() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TRIGGER students_drop_assessments");
+            stmt.execute("DROP VIEW assessments");
+            stmt.execute("DROP TABLE assessment_assignments");
+            stmt.execute("DROP TABLE assessment_definitions");
+            stmt.execute("CREATE TABLE assessments (id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "title TEXT NOT NULL, subject TEXT, dueDate TEXT NOT NULL, status TEXT NOT NULL, " +
+                    "type TEXT, studentId INTEGER)");
+            stmt.execute("DROP TRIGGER students_enroll_subject");
+            stmt.execute("DROP TRIGGER students_drop_enrollments");
+            stmt.execute("DROP TABLE enrollments");
+            stmt.execute("DROP TABLE subjects");
+            stmt.execute("PRAGMA user_version = 6");
+            stmt.execute("DELETE FROM schema_migrations WHERE version > 6");
+        }
+    }
+
+    /**
+     * Re-runs the migrations up to the given version. Later migrations are left out, as they
+     * assume their own earlier run has not happened.
+     */
+    private void migrateThrough(int version) throws SQLException {
+        new SchemaMigrator(SchemaMigrations.all().stream().filter(m -> m.getVersion() <= version).toList()).migrate();
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SqliteAssessmentDAO} and its definition/assignment storage.
+ */
+public class SqliteAssessmentDAOTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+
+    private SqliteAssessmentDAO assessmentDAO;
+    private StudentDAO studentDAO;
+
+    /**
+     * Creates a fresh in-memory database with three Maths students.
+     *
+     * @throws SQLException if the schema or students cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        assessmentDAO = new SqliteAssessmentDAO();
+        studentDAO = new SqliteStudentDAO();
+        studentDAO.createStudent(new Student("Ada", "Lovelace", "ada@example.com", 1, "Maths"));
+        studentDAO.createStudent(new Student("Alan", "Turing", "alan@example.com", 1, "Maths"));
+        studentDAO.createStudent(new Student("Grace", "Hopper", "grace@example.com", 1, "Maths"));
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * A subject-wide assessment is stored once, edited once for everyone, and its definition
+     * goes away with its last assignment.
+     */
+    @Test
+    public void testSubjectAssessmentIsStoredOnce() throws SQLException {
+        int definitionId = assessmentDAO.insertAssessmentForSubject("Algebra", "Maths", "2025-05-01", "Exam");
+
+        assertEquals(1, count("SELECT COUNT(*) FROM assessment_definitions"));
+        List<Assessment> all = assessmentDAO.getAllAssessments();
+        assertEquals(3, all.size());
+        assertTrue(all.stream().allMatch(a -> a.getDefinitionId() == definitionId));
+
+        Assessment first = all.get(0);
+        first.setTitle("Algebra II");
+        first.setDueDate("2025-05-08");
+        assessmentDAO.updateAssessment(first);
+        assessmentDAO.setCompleted(first.getId(), true);
+
+        List<Assessment> updated = assessmentDAO.getAllAssessments();
+        assertTrue(updated.stream().allMatch(a -> a.getTitle().equals("Algebra II") && a.getDueDate().equals("2025-05-08")));
+        assertEquals(1, updated.stream().filter(a -> a.getStatus().equals("Completed")).count());
+
+        for (Assessment assessment : updated) {
+            assertEquals(1, count("SELECT COUNT(*) FROM assessment_definitions"));
+            assessmentDAO.deleteAssessment(assessment.getId());
+        }
+        assertEquals(0, count("SELECT COUNT(*) FROM assessment_definitions"));
+    }
+
+    /**
+     * A single student's assessment gets its own definition, and deleting the student
+     * removes their assignments.
+     */
+    @Test
+    public void testStudentAssessmentLifecycle() throws SQLException {
+        Student ada = studentDAO.findStudentByEmail("ada@example.com").orElseThrow();
+        Assessment quiz = new Assessment("Quiz", "Maths", "2025-05-02", "Quiz");
+        quiz.setStudentId(ada.getId());
+
+        assessmentDAO.insertAssessment(quiz);
+
+        assertTrue(quiz.getId() > 0);
+        List<Assessment> forAda = assessmentDAO.getAssessmentsByStudentId(ada.getId());
+        assertEquals(1, forAda.size());
+        assertEquals(quiz.getId(), forAda.get(0).getId());
+        assertEquals(quiz.getDefinitionId(), forAda.get(0).getDefinitionId());
+
+        studentDAO.deleteStudent(ada.getId());
+        assertEquals(0, count("SELECT COUNT(*) FROM assessment_assignments"));
+        assertEquals(0, count("SELECT COUNT(*) FROM assessment_definitions"));
+    }
+
+    /**
+     * Range queries compare ISO due dates, so they cross month and year boundaries correctly.
+     */
+    @Test
+    public void testDueDateRanges() throws SQLException {
+        Student ada = studentDAO.findStudentByEmail("ada@example.com").orElseThrow();
+        assessmentDAO.insertAssessmentForSubject("Old", "Maths", "2024-12-20", "Exam");
+        assessmentDAO.insertAssessmentForSubject("Late", "Maths", "2025-01-30", "Quiz");
+        assessmentDAO.insertAssessmentForSubject("Next", "Maths", "2025-02-03", "Report");
+        assessmentDAO.insertAssessmentForSubject("Later", "Maths", "2025-03-01", "Exam");
+
+        List<Assessment> between = assessmentDAO.getDueBetween(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28));
+        assertEquals(List.of("Late", "Next"), between.stream().map(Assessment::getTitle).distinct().toList());
+        assertEquals(6, between.size());
+
+        List<DueAssessment> definitions = assessmentDAO.getDefinitionsDueBetween(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28));
+        assertEquals(List.of("Late", "Next"), definitions.stream().map(DueAssessment::title).toList());
+        assertEquals(List.of(3, 3), definitions.stream().map(DueAssessment::students).toList());
+        assertEquals("Maths", definitions.get(0).subject());
+        assertEquals("2025-01-30", definitions.get(0).dueDate());
+
+        assertEquals(List.of("Next", "Later"), assessmentDAO.getUpcomingForStudent(ada.getId(), LocalDate.of(2025, 2, 1), 5)
+                .stream().map(Assessment::getTitle).toList());
+        assertEquals(1, assessmentDAO.getUpcomingForStudent(ada.getId(), LocalDate.of(2025, 2, 1), 1).size());
+
+        assertEquals(List.of("Late"), assessmentDAO.getOverdue(LocalDate.of(2025, 2, 1)).stream()
+                .map(Assessment::getTitle).distinct().toList());
+        assertTrue(assessmentDAO.getOverdue(LocalDate.of(2025, 2, 2)).isEmpty());
+    }
+
+    /**
+     * Status follows the calendar without any rows being rewritten, and each status filter
+     * matches what the view reports.
+     */
+    @Test
+    public void testStatusIsDerivedFromDueDate() throws SQLException {
+        LocalDate today = LocalDate.now();
+        assessmentDAO.insertAssessmentForSubject("Ahead", "Maths", today.plusDays(1).toString(), "Exam");
+        assessmentDAO.insertAssessmentForSubject("Today", "Maths", today.toString(), "Exam");
+        assessmentDAO.insertAssessmentForSubject("Grace", "Maths", today.minusDays(2).toString(), "Exam");
+        assessmentDAO.insertAssessmentForSubject("Past", "Maths", today.minusDays(3).toString(), "Exam");
+        Student ada = studentDAO.findStudentByEmail("ada@example.com").orElseThrow();
+        List<Assessment> forAda = assessmentDAO.getAssessmentsByStudentId(ada.getId());
+        assertEquals(List.of("Due", "Overdue", "Overdue", "Closed"), forAda.stream().map(Assessment::getStatus).toList());
+
+        assessmentDAO.setCompleted(forAda.get(3).getId(), true);
+        assertEquals("Completed", assessmentDAO.getAssessmentsByStudentId(ada.getId()).get(3).getStatus());
+
+        for (AssessmentStatus status : AssessmentStatus.values()) {
+            List<Assessment> matching = assessmentDAO.getByStatus(status, today);
+            assertFalse(matching.isEmpty(), status + " should match something");
+            assertTrue(matching.stream().allMatch(a -> a.getStatus().equals(status.getLabel())),
+                    status + " matched " + matching.stream().map(Assessment::getStatus).toList());
+        }
+        assertEquals(1, assessmentDAO.getByStatus(AssessmentStatus.COMPLETED, today).size());
+        assertEquals(6, assessmentDAO.getOverdue(today).size());
+    }
+
+    /**
+     * Totals come from one grouped query, are served from the cache until an assessment
+     * write, and follow deletes made through other DAOs.
+     */
+    @Test
+    public void testCountsAreCachedUntilAssessmentsChange() throws SQLException {
+        LocalDate today = LocalDate.now();
+        assessmentDAO.insertAssessmentForSubject("Ahead", "Maths", today.plusDays(5).toString(), "Exam");
+        assessmentDAO.insertAssessmentForSubject("Past", "Maths", today.minusDays(5).toString(), "Quiz");
+
+        AssessmentCounts counts = assessmentDAO.getCounts();
+        assertEquals(6, counts.getTotal());
+        assertEquals(3, counts.getByStatus().get(AssessmentStatus.DUE));
+        assertEquals(3, counts.getByStatus().get(AssessmentStatus.CLOSED));
+        assertEquals(0, counts.getByStatus().get(AssessmentStatus.OVERDUE));
+        assertEquals(6, counts.getBySubject().get("Maths"));
+        assertEquals(3, counts.getByType().get("Quiz"));
+        assertSame(counts, assessmentDAO.getCounts());
+
+        // Rows written behind the DAO's back are not seen until an assessment write
+        try (Statement stmt = DatabaseConnection.getInstance().createStatement()) {
+            stmt.execute("DELETE FROM assessment_assignments WHERE id = 1");
+        }
+        assertEquals(6, assessmentDAO.getCounts().getTotal());
+
+        Assessment first = assessmentDAO.getAllAssessments().get(0);
+        assessmentDAO.setCompleted(first.getId(), true);
+        assertEquals(1, assessmentDAO.getCounts().getByStatus().get(AssessmentStatus.COMPLETED));
+        assertEquals(5, assessmentDAO.getCounts().getTotal());
+
+        studentDAO.deleteStudent(studentDAO.findStudentByEmail("grace@example.com").orElseThrow().getId());
+        assertEquals(3, assessmentDAO.getCounts().getTotal());
+    }
+
+    /**
+     * Re-reading changed rows returns only the student's own rows named by assignment or definition.
+     */
+    @Test
+    public void testChangedRowsForStudent() throws SQLException {
+        Student ada = studentDAO.findStudentByEmail("ada@example.com").orElseThrow();
+        Student alan = studentDAO.findStudentByEmail("alan@example.com").orElseThrow();
+        int algebra = assessmentDAO.insertAssessmentForSubject("Algebra", "Maths", "2025-05-01", "Exam");
+        assessmentDAO.insertAssessmentForSubject("Geometry", "Maths", "2025-05-02", "Exam");
+        Assessment quiz = new Assessment("Quiz", "Maths", "2025-05-03", "Quiz");
+        quiz.setStudentId(alan.getId());
+        assessmentDAO.insertAssessment(quiz);
+
+        List<Assessment> changed = assessmentDAO.getChangedForStudent(ada.getId(), List.of(quiz.getId()), List.of(algebra));
+        assertEquals(List.of("Algebra"), changed.stream().map(Assessment::getTitle).toList());
+        assertEquals(ada.getId(), changed.get(0).getStudentId());
+
+        assertEquals(List.of("Quiz"), assessmentDAO.getChangedForStudent(alan.getId(), List.of(quiz.getId()), List.of())
+                .stream().map(Assessment::getTitle).toList());
+        assertTrue(assessmentDAO.getChangedForStudent(ada.getId(), List.of(), List.of()).isEmpty());
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement stmt = DatabaseConnection.getInstance().createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
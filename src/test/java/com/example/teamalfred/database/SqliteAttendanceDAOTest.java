@@ -0,0 +1,308 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteCommitListener;
+import org.sqlite.SQLiteConnection;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SqliteAttendanceDAO}, focused on saving a whole register at once.
+ */
+public class SqliteAttendanceDAOTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+    private static final int CLASS_ID = 1;
+    private static final String DATE = "2025-03-14";
+
+    private AttendanceDAO attendanceDAO;
+    private AtomicInteger commits;
+    private SQLiteCommitListener commitCounter;
+
+    /**
+     * Creates a fresh in-memory database and starts counting commits on the writer connection.
+     *
+     * @throws SQLException if the schema cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        attendanceDAO = new SqliteAttendanceDAO();
+
+        commits = new AtomicInteger();
+        commitCounter = new SQLiteCommitListener() {
+            @Override
+            public void onCommit() {
+                commits.incrementAndGet();
+            }
+
+            @Override
+            public void onRollback() {
+            }
+        };
+        DatabaseConnection.getInstance().unwrap(SQLiteConnection.class).addCommitListener(commitCounter);
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * A 30-student register is written with exactly one commit.
+     */
+    @Test
+    public void testBatchSaveCommitsOnce() throws SQLException {
+        List<AttendanceEntry> register = new ArrayList<>();
+        for (int studentId = 1; studentId <= 30; studentId++) {
+            register.add(new AttendanceEntry(studentId, studentId % 2 == 0, studentId % 2 == 1, false, false, ""));
+        }
+
+        int[] outcomes = attendanceDAO.saveAttendanceBatch(CLASS_ID, DATE, register);
+
+        assertEquals(1, commits.get(), "The whole register should be committed once.");
+        assertTrue(Arrays.stream(outcomes).allMatch(o -> o == 1));
+        assertEquals(30, attendanceDAO.getAttendanceMapForClassAndDate(CLASS_ID, DATE).size());
+    }
+
+    /**
+     * Inconsistent rows are reported as failed while the rest of the register is saved.
+     */
+    @Test
+    public void testInvalidRowsAreReportedAndSkipped() throws SQLException {
+        List<AttendanceEntry> register = List.of(
+                new AttendanceEntry(1, true, false, true, false, "late bus"),
+                new AttendanceEntry(2, true, true, false, false, ""),   // present and absent
+                new AttendanceEntry(0, false, true, false, false, ""),  // no such student
+                new AttendanceEntry(4, false, false, false, true, "doctor"));
+
+        int[] outcomes = attendanceDAO.saveAttendanceBatch(CLASS_ID, DATE, register);
+
+        assertArrayEquals(new int[] {1, Statement.EXECUTE_FAILED, Statement.EXECUTE_FAILED, 1}, outcomes);
+        Map<Integer, AttendanceRecord> saved = attendanceDAO.getAttendanceMapForClassAndDate(CLASS_ID, DATE);
+        assertEquals(2, saved.size());
+        assertTrue(saved.get(1).late);
+        assertEquals("doctor", saved.get(4).notes);
+    }
+
+    /**
+     * Saving the register again replaces each student's record instead of duplicating it.
+     */
+    @Test
+    public void testSavingAgainReplacesRecords() throws SQLException {
+        attendanceDAO.saveAttendanceBatch(CLASS_ID, DATE, List.of(new AttendanceEntry(1, false, true, false, false, "")));
+        attendanceDAO.saveAttendanceBatch(CLASS_ID, DATE, List.of(new AttendanceEntry(1, true, false, false, false, "arrived")));
+
+        Map<Integer, AttendanceRecord> saved = attendanceDAO.getAttendanceMapForClassAndDate(CLASS_ID, DATE);
+        assertEquals(1, saved.size());
+        assertTrue(saved.get(1).isPresent());
+        assertFalse(saved.get(1).isAbsent());
+    }
+
+    /**
+     * If the database rejects a row, nothing from the register is kept.
+     */
+    @Test
+    public void testFailureRollsBackWholeRegister() throws SQLException {
+        try (ConnectionLease lease = DatabaseConnection.leaseWriter();
+             Statement stmt = lease.getConnection().createStatement()) {
+            stmt.execute("CREATE TRIGGER reject_student_3 BEFORE INSERT ON attendance " +
+                    "WHEN NEW.student_id = 3 BEGIN SELECT RAISE(ABORT, 'rejected'); END");
+        }
+        List<AttendanceEntry> register = List.of(
+                new AttendanceEntry(1, true, false, false, false, ""),
+                new AttendanceEntry(2, true, false, false, false, ""),
+                new AttendanceEntry(3, true, false, false, false, ""));
+
+        assertThrows(SQLException.class, () -> attendanceDAO.saveAttendanceBatch(CLASS_ID, DATE, register));
+
+        assertTrue(attendanceDAO.getAttendanceMapForClassAndDate(CLASS_ID, DATE).isEmpty());
+        assertTrue(DatabaseConnection.getInstance().getAutoCommit(), "Auto-commit should be restored.");
+    }
+
+    /**
+     * Range counts include both end dates and only count the requested status.
+     */
+    @Test
+    public void testCountByStatusBetween() throws SQLException {
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-02-28", false, true, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-01", false, true, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-15", false, false, false, true, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-31", false, true, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-04-01", false, true, false, false, "");
+
+        assertEquals(2, attendanceDAO.countByStatusInMonth(1, AttendanceStatus.ABSENT, YearMonth.of(2025, 3)));
+        assertEquals(1, attendanceDAO.countByStatusInMonth(1, AttendanceStatus.EXCUSED, YearMonth.of(2025, 3)));
+        assertEquals(4, attendanceDAO.countByStatusBetween(1, AttendanceStatus.ABSENT,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 30)));
+    }
+
+    /**
+     * A student's records across classes come back in date order with class and date filled in.
+     */
+    @Test
+    public void testGetAttendanceForStudentBetween() throws SQLException {
+        attendanceDAO.saveAttendance(1, 2, "2025-03-10", true, false, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-03", true, false, true, false, "bus");
+        attendanceDAO.saveAttendance(2, CLASS_ID, "2025-03-05", true, false, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-04-01", true, false, false, false, "");
+
+        List<AttendanceRecord> records = attendanceDAO.getAttendanceForStudentBetween(1,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+        assertEquals(2, records.size());
+        assertEquals("2025-03-03", records.get(0).date);
+        assertEquals(CLASS_ID, records.get(0).classId);
+        assertTrue(records.get(0).late);
+        assertEquals("2025-03-10", records.get(1).date);
+        assertEquals(2, records.get(1).classId);
+    }
+
+    /**
+     * Correcting a register flips the monthly totals instead of double counting the day.
+     */
+    @Test
+    public void testMonthlyRollupFollowsCorrections() throws SQLException {
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-03", false, true, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-04", true, false, true, false, "");
+        attendanceDAO.saveAttendanceBatch(2, "2025-03-05", List.of(new AttendanceEntry(1, false, true, false, false, "")));
+
+        AttendanceSummary before = attendanceDAO.getMonthlySummary(1, YearMonth.of(2025, 3));
+        assertEquals(3, before.getRecordedDays());
+        assertEquals(2, before.getAbsent());
+        assertEquals(1, before.getLate());
+
+        // The absence on the 3rd was a mistake, and the other class excused theirs
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-03", true, false, false, false, "arrived");
+        attendanceDAO.saveAttendanceBatch(2, "2025-03-05", List.of(new AttendanceEntry(1, false, false, false, true, "")));
+
+        AttendanceSummary after = attendanceDAO.getMonthlySummary(1, YearMonth.of(2025, 3));
+        assertEquals(3, after.getRecordedDays());
+        assertEquals(2, after.getPresent());
+        assertEquals(0, after.getAbsent());
+        assertEquals(1, after.getExcused());
+        assertEquals(0, attendanceDAO.countByStatusInMonth(1, AttendanceStatus.ABSENT, YearMonth.of(2025, 3)));
+    }
+
+    /**
+     * Term totals add up the months in range, and a rebuild reproduces what the triggers maintained.
+     */
+    @Test
+    public void testSummaryBetweenAndRebuild() throws SQLException {
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-02-10", false, true, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-10", false, true, false, false, "");
+        attendanceDAO.saveAttendance(1, 2, "2025-04-10", false, false, false, true, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-05-10", false, true, false, false, "");
+
+        AttendanceSummary term = attendanceDAO.getSummaryBetween(1, YearMonth.of(2025, 2), YearMonth.of(2025, 4));
+        assertEquals(3, term.getRecordedDays());
+        assertEquals(2, term.getAbsent());
+        assertEquals(1, term.getExcused());
+
+        // The delete is tracked by the triggers; the damage to the rollup itself is only fixed by a rebuild
+        try (Statement stmt = DatabaseConnection.getInstance().createStatement()) {
+            stmt.executeUpdate("DELETE FROM attendance WHERE date = '2025-03-10'");
+            stmt.executeUpdate("UPDATE attendance_monthly SET absent_count = 99");
+        }
+        assertEquals(3, attendanceDAO.rebuildMonthlyRollups());
+
+        term = attendanceDAO.getSummaryBetween(1, YearMonth.of(2025, 2), YearMonth.of(2025, 4));
+        assertEquals(2, term.getRecordedDays());
+        assertEquals(1, term.getAbsent());
+        assertEquals(1, term.getExcused());
+        assertEquals(0, attendanceDAO.getMonthlySummary(1, YearMonth.of(2025, 3)).getRecordedDays());
+    }
+
+    /**
+     * One grouped query returns every student's counts for the class and range only.
+     */
+    @Test
+    public void testGetClassStatistics() throws SQLException {
+        attendanceDAO.saveAttendance(3, CLASS_ID, "2025-03-03", true, false, false, false, "");
+        attendanceDAO.saveAttendance(3, CLASS_ID, "2025-03-04", false, true, false, false, "");
+        attendanceDAO.saveAttendance(3, CLASS_ID, "2025-03-05", false, false, true, false, "");
+        attendanceDAO.saveAttendance(3, CLASS_ID, "2025-03-06", true, false, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-03", false, false, false, true, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-04-01", false, true, false, false, "");
+        attendanceDAO.saveAttendance(2, 2, "2025-03-03", false, true, false, false, "");
+
+        ClassAttendanceStatistics stats = attendanceDAO.getClassStatistics(CLASS_ID,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.getStudentId(0));
+        assertEquals(3, stats.getStudentId(1));
+        assertEquals(4, stats.getRecordedDays(3));
+        assertEquals(2, stats.getCount(3, AttendanceStatus.PRESENT));
+        assertEquals(1, stats.getCount(3, AttendanceStatus.ABSENT));
+        assertEquals(1, stats.getCount(3, AttendanceStatus.LATE));
+        assertEquals(0.75, stats.getAttendanceRate(3), 1e-9);
+        assertEquals(1, stats.getCount(1, AttendanceStatus.EXCUSED));
+        assertEquals(0, stats.getCount(1, AttendanceStatus.ABSENT));
+        assertEquals(0, stats.getRecordedDays(2), "Students of other classes are not included.");
+        assertTrue(Double.isNaN(stats.getAttendanceRate(2)));
+    }
+
+    /**
+     * Unmarked roster rows are not recorded days, and a row marked both absent and late
+     * counts as recorded but not attended.
+     */
+    @Test
+    public void testClassStatisticsIgnoreUnmarkedRows() throws SQLException {
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-03", true, false, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-04", false, false, false, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-05", false, true, true, false, "");
+        attendanceDAO.saveAttendance(1, CLASS_ID, "2025-03-06", false, false, true, false, "");
+        attendanceDAO.saveAttendance(2, CLASS_ID, "2025-03-03", false, false, false, false, "");
+
+        ClassAttendanceStatistics stats = attendanceDAO.getClassStatistics(CLASS_ID,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+        assertEquals(3, stats.getRecordedDays(1));
+        assertEquals(2, stats.getCount(1, AttendanceStatus.LATE));
+        assertEquals(2.0 / 3, stats.getAttendanceRate(1), 1e-9);
+        assertEquals(0, stats.getRecordedDays(2));
+        assertTrue(Double.isNaN(stats.getAttendanceRate(2)));
+    }
+
+    /**
+     * A record can only have one of present, absent and excused, since they share one status code.
+     */
+    @Test
+    public void testConflictingStatusIsRejected() throws SQLException {
+        assertThrows(SQLException.class,
+                () -> attendanceDAO.saveAttendance(1, CLASS_ID, DATE, true, true, false, false, ""));
+        attendanceDAO.saveAttendance(1, CLASS_ID, DATE, true, false, true, false, "");
+
+        AttendanceRecord saved = attendanceDAO.getAttendanceMapForClassAndDate(CLASS_ID, DATE).get(1);
+        assertEquals(AttendanceStatus.PRESENT.getCode(), saved.status);
+        assertTrue(saved.late);
+    }
+
+    /**
+     * Dates that would not sort correctly are rejected instead of stored.
+     */
+    @Test
+    public void testNonIsoDatesAreRejected() {
+        assertThrows(SQLException.class,
+                () -> attendanceDAO.saveAttendance(1, CLASS_ID, "14/03/2025", true, false, false, false, ""));
+        assertThrows(SQLException.class,
+                () -> attendanceDAO.saveAttendanceBatch(CLASS_ID, "", List.of(new AttendanceEntry(1, true, false, false, false, ""))));
+    }
+}
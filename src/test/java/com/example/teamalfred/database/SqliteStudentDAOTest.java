@@ -0,0 +1,239 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the paged, streaming, search and cached queries of {@link SqliteStudentDAO}.
+ */
+public class SqliteStudentDAOTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+
+    private StudentDAO studentDAO;
+
+    /**
+     * Creates a fresh in-memory database with 25 students across two subjects and classes.
+     *
+     * @throws SQLException if the schema or students cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        studentDAO = new SqliteStudentDAO();
+        for (int i = 1; i <= 25; i++) {
+            studentDAO.createStudent(new Student("First" + i, "Last" + i, "student" + i + "@example.com",
+                    i % 2 == 0 ? 2 : 1, i % 2 == 0 ? "Maths" : "Art"));
+        }
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Following the cursor page by page visits every student once, in ID order.
+     */
+    @Test
+    public void testPagesCoverAllStudentsInOrder() throws SQLException {
+        List<Integer> seen = new ArrayList<>();
+        int afterId = 0;
+        List<Student> page;
+        do {
+            page = studentDAO.getStudentsPage(afterId, 10);
+            assertTrue(page.size() <= 10);
+            for (Student s : page) {
+                seen.add(s.getId());
+                afterId = s.getId();
+            }
+        } while (page.size() == 10);
+
+        assertEquals(studentDAO.getAllStudents().stream().map(Student::getId).sorted().toList(), seen);
+    }
+
+    /**
+     * Subject and class pages only return matching students after the cursor.
+     */
+    @Test
+    public void testFilteredPages() throws SQLException {
+        List<Student> maths = studentDAO.getStudentsBySubjectPage("Maths", 0, 5);
+        assertEquals(5, maths.size());
+        assertTrue(maths.stream().allMatch(s -> "Maths".equals(s.getSubject())));
+
+        List<Student> rest = studentDAO.getStudentsBySubjectPage("Maths", maths.get(4).getId(), 100);
+        assertEquals(studentDAO.getStudentsBySubject("Maths").size() - 5, rest.size());
+        assertTrue(rest.get(0).getId() > maths.get(4).getId());
+
+        List<Student> classOne = studentDAO.getStudentsByClassIdPage(1, 0, 100);
+        assertEquals(13, classOne.size());
+        assertTrue(classOne.stream().allMatch(s -> s.getClassId() == 1));
+    }
+
+    /**
+     * A stream returns the same students as the list query.
+     */
+    @Test
+    public void testStreamsMatchListQueries() throws SQLException {
+        try (Stream<Student> all = studentDAO.streamAllStudents()) {
+            assertEquals(25, all.count());
+        }
+        try (Stream<Student> art = studentDAO.streamStudentsBySubject("Art")) {
+            assertEquals(studentDAO.getStudentsBySubject("Art").stream().map(Student::getEmail).collect(Collectors.toSet()),
+                    art.map(Student::getEmail).collect(Collectors.toSet()));
+        }
+    }
+
+    /**
+     * Closing a partly consumed stream hands its connection back, so other threads can use it.
+     */
+    @Test
+    public void testClosingStreamReleasesConnection() throws Exception {
+        try (Stream<Student> all = studentDAO.streamAllStudents()) {
+            assertEquals(3, all.limit(3).count());
+        }
+
+        // In-memory databases share one connection, so this would block if the stream still held it
+        CompletableFuture<Integer> other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return studentDAO.getStudentsPage(0, 5).size();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(5, other.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Search matches word prefixes across fields, requires every word, and ranks names first.
+     */
+    @Test
+    public void testSearchMatchesPrefixesAndRanksNames() throws SQLException {
+        studentDAO.createStudent(new Student("Johanna", "Smith", "jo.smith@example.com", 1, "Maths"));
+        studentDAO.createStudent(new Student("Peter", "Jones", "pj@example.com", 1, "History"));
+        studentDAO.createStudent(new Student("Ana", "Lee", "ana@johnson.edu", 2, "Art"));
+
+        List<String> jo = studentDAO.search("jo", 10).stream().map(Student::getFirstName).toList();
+        assertEquals(3, jo.size());
+        assertEquals("Ana", jo.get(jo.size() - 1), "An email match ranks below name matches.");
+
+        assertEquals(List.of("Johanna"), studentDAO.search("Jo  SMI", 10).stream().map(Student::getFirstName).toList());
+        assertEquals(List.of("Peter"), studentDAO.search("hist", 10).stream().map(Student::getFirstName).toList());
+        assertEquals(5, studentDAO.search("first1", 5).size());
+    }
+
+    /**
+     * The index follows updates and deletes made through the DAO.
+     */
+    @Test
+    public void testSearchFollowsUpdatesAndDeletes() throws SQLException {
+        Student original = studentDAO.findStudentByEmail("student7@example.com").orElseThrow();
+        Student student = new Student(original.getId(), "Zelda", original.getLastName(), original.getEmail(),
+                original.getClassId(), original.getSubject());
+        studentDAO.updateStudent(student);
+
+        assertEquals(List.of(student.getId()), studentDAO.search("zel", 10).stream().map(Student::getId).toList());
+        assertTrue(studentDAO.search("first7", 10).isEmpty());
+
+        studentDAO.deleteStudent(student.getId());
+        assertTrue(studentDAO.search("zelda", 10).isEmpty());
+    }
+
+    /**
+     * Quotes, operators and punctuation are searched as text instead of breaking the query.
+     */
+    @Test
+    public void testSearchTreatsInputAsText() throws SQLException {
+        studentDAO.createStudent(new Student("Liam", "O'Neil", "liam@example.com", 1, "Art"));
+
+        assertEquals(1, studentDAO.search("o'neil", 10).size());
+        assertTrue(studentDAO.search("\"liam OR NOT", 10).isEmpty());
+        assertTrue(studentDAO.search("  - * ()  ", 10).isEmpty());
+        assertTrue(studentDAO.search("", 10).isEmpty());
+        assertEquals("\"jo\"* \"\"\"sm\"*", SqliteStudentDAO.toMatchExpression(" jo \"sm "));
+    }
+
+    /**
+     * Lookups by ID and class rosters come from the cache until a write changes them.
+     */
+    @Test
+    public void testCachedLookupsFollowWrites() throws SQLException {
+        Student byEmail = studentDAO.findStudentByEmail("student4@example.com").orElseThrow();
+        long missesBefore = EntityCache.getAllStats().get("students").misses();
+
+        Student byId = studentDAO.findStudentById(byEmail.getId()).orElseThrow();
+        assertSame(byEmail, byId);
+        assertSame(byId, new SqliteStudentDAO().findStudentById(byId.getId()).orElseThrow());
+        assertEquals(missesBefore, EntityCache.getAllStats().get("students").misses());
+
+        List<Student> classTwo = studentDAO.getStudentsByClassId(2);
+        assertSame(classTwo, studentDAO.getStudentsByClassId(2));
+        assertTrue(classTwo.contains(byId));
+
+        studentDAO.updateStudent(new Student(byId.getId(), "Renamed", byId.getLastName(), byId.getEmail(), 1, byId.getSubject()));
+        assertEquals("Renamed", studentDAO.findStudentById(byId.getId()).orElseThrow().getFirstName());
+        assertEquals(classTwo.size() - 1, studentDAO.getStudentsByClassId(2).size());
+
+        studentDAO.createStudent(new Student("New", "Student", "new@example.com", 2, "Maths"));
+        assertEquals(classTwo.size(), studentDAO.getStudentsByClassId(2).size());
+
+        studentDAO.deleteStudent(byId.getId());
+        assertTrue(studentDAO.findStudentById(byId.getId()).isEmpty());
+    }
+
+    /**
+     * Lists, pages, streams and search results hand out the same instance as a lookup by ID.
+     */
+    @Test
+    public void testEveryQueryReturnsTheCachedInstance() throws SQLException {
+        Student student = studentDAO.findStudentByEmail("student6@example.com").orElseThrow();
+        int id = student.getId();
+
+        assertSame(student, find(studentDAO.getAllStudents(), id));
+        assertSame(student, find(studentDAO.getStudentsBySubject("Maths"), id));
+        assertSame(student, find(studentDAO.getStudentsPage(id - 1, 1), id));
+        assertSame(student, find(studentDAO.getStudentsBySubjectPage("Maths", id - 1, 1), id));
+        assertSame(student, find(studentDAO.getStudentsByClassIdPage(2, id - 1, 1), id));
+        assertSame(student, find(studentDAO.search("First6", 5), id));
+        try (Stream<Student> all = studentDAO.streamAllStudents()) {
+            assertSame(student, find(all.toList(), id));
+        }
+        assertSame(student, studentDAO.findStudentById(id).orElseThrow());
+    }
+
+    /**
+     * A row changed without going through the DAO (e.g. by another process) replaces the
+     * cached student the next time a query reads it.
+     */
+    @Test
+    public void testQueriesPickUpRowsChangedOutsideTheDao() throws SQLException {
+        Student student = studentDAO.findStudentByEmail("student6@example.com").orElseThrow();
+        try (Statement stmt = DatabaseConnection.getInstance().createStatement()) {
+            stmt.executeUpdate("UPDATE students SET first_name = 'Renamed' WHERE student_id = " + student.getId());
+        }
+
+        Student reread = find(studentDAO.getAllStudents(), student.getId());
+        assertEquals("Renamed", reread.getFirstName());
+        assertSame(reread, studentDAO.findStudentById(student.getId()).orElseThrow());
+    }
+
+    private static Student find(List<Student> students, int id) {
+        return students.stream().filter(s -> s.getId() == id).findFirst().orElseThrow();
+    }
+}
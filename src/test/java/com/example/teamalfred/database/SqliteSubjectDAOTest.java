@@ -0,0 +1,104 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SqliteSubjectDAO} and the subject queries that join through enrollments.
+ */
+public class SqliteSubjectDAOTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+
+    private SubjectDAO subjectDAO;
+    private StudentDAO studentDAO;
+
+    /**
+     * Creates a fresh in-memory database with two students.
+     *
+     * @throws SQLException if the schema or students cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+        subjectDAO = new SqliteSubjectDAO();
+        studentDAO = new SqliteStudentDAO();
+        studentDAO.createStudent(new Student("Ada", "Lovelace", "ada@example.com", 1, "Maths"));
+        studentDAO.createStudent(new Student("Alan", "Turing", "alan@example.com", 1, "Science"));
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * The default subjects are seeded in their usual order, and names are unique ignoring case.
+     */
+    @Test
+    public void testSubjectsAreSeededAndUnique() throws SQLException {
+        List<String> names = subjectDAO.getAllSubjects().stream().map(Subject::getName).toList();
+        assertEquals(List.of("English", "Maths", "Science", "History", "Geography", "Health", "Art",
+                "Technology", "PE", "General"), names);
+
+        Subject maths = subjectDAO.findOrCreateSubject("  maths ");
+        assertEquals("Maths", maths.getName());
+        Subject robotics = subjectDAO.findOrCreateSubject("Robotics");
+        assertEquals(robotics.getId(), subjectDAO.findOrCreateSubject("ROBOTICS").getId());
+        assertEquals(names.size() + 1, subjectDAO.getAllSubjects().size());
+        assertThrows(SQLException.class, () -> subjectDAO.findOrCreateSubject(" "));
+    }
+
+    /**
+     * A student can take several subjects without being duplicated, and leaves them when deleted.
+     */
+    @Test
+    public void testStudentsCanTakeSeveralSubjects() throws SQLException {
+        Student ada = studentDAO.findStudentByEmail("ada@example.com").orElseThrow();
+        Subject science = subjectDAO.findOrCreateSubject("Science");
+
+        subjectDAO.enrollStudent(ada.getId(), science.getId());
+        subjectDAO.enrollStudent(ada.getId(), science.getId());
+
+        assertEquals(List.of("Maths", "Science"),
+                subjectDAO.getSubjectsForStudent(ada.getId()).stream().map(Subject::getName).toList());
+        assertEquals(2, studentDAO.getStudentsBySubject("Science").size());
+        assertEquals(2, studentDAO.getAllStudents().size());
+
+        subjectDAO.unenrollStudent(ada.getId(), science.getId());
+        assertEquals(List.of("Alan"), studentDAO.getStudentsBySubject("Science").stream()
+                .map(Student::getFirstName).toList());
+
+        studentDAO.deleteStudent(ada.getId());
+        assertTrue(subjectDAO.getSubjectsForStudent(ada.getId()).isEmpty());
+        assertTrue(studentDAO.getStudentsBySubject("Maths").isEmpty());
+    }
+
+    /**
+     * Assessments for a subject go to every enrolled student and are keyed by subject ID.
+     */
+    @Test
+    public void testAssessmentsForSubjectFollowEnrollments() throws SQLException {
+        Student alan = studentDAO.findStudentByEmail("alan@example.com").orElseThrow();
+        subjectDAO.enrollStudent(alan.getId(), subjectDAO.findOrCreateSubject("Maths").getId());
+        SqliteAssessmentDAO assessmentDAO = new SqliteAssessmentDAO();
+
+        assessmentDAO.insertAssessmentForSubject("Algebra", "Maths", "2025-05-01", "Exam");
+
+        assertEquals(2, assessmentDAO.getAllAssessments().size());
+        assertEquals("Maths", assessmentDAO.getAssessmentsByStudentId(alan.getId()).get(0).getSubject());
+
+        assessmentDAO.deleteAssessmentsBySubject("maths");
+        assertTrue(assessmentDAO.getAllAssessments().isEmpty());
+    }
+}
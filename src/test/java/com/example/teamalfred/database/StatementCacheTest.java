@@ -0,0 +1,92 @@
+package com.example.teamalfred.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link StatementCache} and its use through {@link ConnectionLease#prepare(String)}.
+ */
+public class StatementCacheTest {
+
+    private static final String TEST_DB_URL = "jdbc:sqlite::memory:";
+
+    /**
+     * Points DatabaseConnection at a fresh in-memory database with the full schema.
+     *
+     * @throws SQLException if the schema cannot be created.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+        new DatabaseSchemaManager().initializeSchema();
+    }
+
+    /**
+     * Closes the in-memory database and clears the test URL override.
+     */
+    @AfterEach
+    public void tearDown() {
+        DatabaseConnection.resetForTesting();
+    }
+
+    /**
+     * Repeating the same DAO call should compile its SQL once and hit the cache afterwards.
+     */
+    @Test
+    public void testRepeatedDaoCallsHitTheCache() throws SQLException {
+        StudentDAO studentDAO = new SqliteStudentDAO();
+        long missesBefore = DatabaseConnection.getPoolMetrics().statementCacheMisses();
+
+        for (int i = 0; i < 10; i++) {
+            studentDAO.getStudentsBySubject("Maths"); // not entity-cached, so every call prepares its SQL
+        }
+
+        ConnectionPool.Metrics metrics = DatabaseConnection.getPoolMetrics();
+        assertEquals(1, metrics.statementCacheMisses() - missesBefore, "SQL should only be compiled once.");
+        assertTrue(metrics.statementCacheHits() >= 9, "Subsequent calls should be cache hits.");
+    }
+
+    /**
+     * The least recently used statement is closed when the cache is over capacity.
+     */
+    @Test
+    public void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(TEST_DB_URL)) {
+            StatementCache cache = new StatementCache(conn, 2, new LongAdder(), new LongAdder());
+
+            PreparedStatement first = cache.get("SELECT 1");
+            PreparedStatement second = cache.get("SELECT 2");
+            cache.get("SELECT 1"); // touch so "SELECT 2" becomes least recently used
+            cache.get("SELECT 3");
+
+            assertEquals(2, cache.size());
+            assertFalse(first.isClosed(), "Recently used statement should stay cached.");
+            assertTrue(second.isClosed(), "Evicted statement should be closed.");
+        }
+    }
+
+    /**
+     * Switching the database URL must drop statements prepared against the old database.
+     */
+    @Test
+    public void testSwitchingUrlClearsCachedStatements() throws SQLException {
+        PreparedStatement cached;
+        try (ConnectionLease lease = DatabaseConnection.leaseReader()) {
+            cached = lease.prepare("SELECT COUNT(*) FROM students");
+        }
+
+        DatabaseConnection.setTestDatabaseUrl(TEST_DB_URL);
+
+        assertTrue(cached.isClosed(), "Statements from the previous pool should be closed.");
+        assertEquals(0, DatabaseConnection.getPoolMetrics().statementCacheHits());
+    }
+}